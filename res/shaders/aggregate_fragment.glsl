@@ -15,14 +15,25 @@
 // specify GLSL version
 #version 330
 
+/*
+ * Defines - the engine injects these for each variant of the shader (see ShaderProgram) so that each variant only runs
+ * the code it needs. The defaults below are only used if they are not injected
+ */
+// whether the material is textured
+#ifndef TEXTURED
+#define TEXTURED 0
+#endif
+// how to blend a material's color and texture if there are both: 0 - just use the texture; 1 - multiply color and
+// texture; 2 - average color and texture
+#ifndef BLEND
+#define BLEND 0
+#endif
+
 /*
  * Uniforms
  */
 uniform sampler2D texSampler;     // texture sampler - bound to the material's texture
 uniform vec4 color;               // color - bound to the material's color
-uniform int isTextured;           // flag representing whether the material is textured or not
-uniform int blend;                /* defines how to blend a material's color and texture if there are both: 0 - just use
-                                     the texture; 1 - multiply color and texture; 2 - average color and texture */
 uniform int fadeDir;              /* which direction to consider for applying a fade: 0 - no fade; 1 - fade out left;
                                      2 - fade out right; 3 - fade out above; 4 - fade out below; */
 uniform int corners;              // whether to fade using corners on the caps (1) or not (0)
@@ -39,13 +50,17 @@ out vec4 fragColor; // final color to assign to the fragment
  * Calculates the base color based on material
  */
 vec4 getMaterialColor() {
-    if (isTextured == 1) { // if the maetrial is textured
-        vec4 texColor = texture(texSampler, fTexCoords); // get texture sampled color
-        if (blend == 1) texColor = texColor * color; // if blend mode multiplicative, multiply color and texture
-        else if (blend == 2) texColor = (texColor + color) / 2; // if blend mode averaged, average color and texture
-        return texColor; // set texture color (blended or not) as final color
-    } else return color; // if not textured, use base color of material
-
+#if TEXTURED == 1
+    vec4 texColor = texture(texSampler, fTexCoords); // get texture sampled color
+#if BLEND == 1
+    texColor = texColor * color; // if blend mode multiplicative, multiply color and texture
+#elif BLEND == 2
+    texColor = (texColor + color) / 2; // if blend mode averaged, average color and texture
+#endif
+    return texColor; // set texture color (blended or not) as final color
+#else
+    return color; // if not textured, use base color of material
+#endif
 }
 
 /*
@@ -23,6 +23,7 @@ uniform float wDiv; /* a value to divide x positions by - especially useful for
                        easily be normalized */
 uniform float hDiv; /* a value to divide y positions by - espeically useful for complex objects whose models cannot
                        easily be normalized */
+uniform vec4 transform; // the model's transform where xy is its scale and zw is the cosine and sine of its rotation
 
 /*
  * Attributes
@@ -36,11 +37,21 @@ layout (location = 1) in vec2 texCoords;   // texture coordinate data in VBO at
 out vec2 fTexCoords;    // texture coordinates are just passed through to fragment shaders
 out vec2 normPosCoords; // positional coordinates passed through to fragment shaders for fading, normalized to (0, 1)
 
+/*
+ * Applies the model's transform to model coordinates, scaling them and then rotating them
+ * @param coords the model coordinates to transform
+ */
+vec2 applyTransform(vec2 coords) {
+    coords = coords * transform.xy; // apply scale
+    return vec2(coords.x * transform.z - coords.y * transform.w, coords.y * transform.z + coords.x * transform.w);
+}
+
 /*
  * Main Function
  */
 void main() {
-    vec2 posCoords = vec2(modelCoords.x + x, -modelCoords.y - y); // apply offset
+    vec2 mc = applyTransform(modelCoords); // apply transform
+    vec2 posCoords = vec2(mc.x + x, -mc.y - y); // apply offset
     if (wDiv != 0 && hDiv != 0) { // if width/height division uniforms set
         // apply width and height division
         posCoords.x /= wDiv;
@@ -14,6 +14,11 @@
  * fragment shader. This shder simply passes through the model coordinates and texture coordinates
  */
 
+/*
+ * Uniforms
+ */
+uniform vec4 transform; // the model's transform where xy is its scale and zw is the cosine and sine of its rotation
+
 /*
  * Attributes
  */
@@ -26,11 +31,21 @@ layout (location = 1) in vec2 texCoords; // texture coordinate data in VBO at in
 out vec2 texCoordsF;   // texture coordinates to pass through to fragment shader
 out vec2 modelCoordsF; // model coordinates to pass through to fragment shader
 
+/*
+ * Applies the model's transform to model coordinates, scaling them and then rotating them
+ * @param coords the model coordinates to transform
+ */
+vec2 applyTransform(vec2 coords) {
+    coords = coords * transform.xy; // apply scale
+    return vec2(coords.x * transform.z - coords.y * transform.w, coords.y * transform.z + coords.x * transform.w);
+}
+
 /*
  * Main Function
  */
 void main() {
     texCoordsF = texCoords; // pass through texture coordinates
-    modelCoordsF = modelCoords; // pass through model coordinates
-    gl_Position = vec4(modelCoords.x, -modelCoords.y, 0, 1.0); // set final position as model coordinates (inverted y)
+    vec2 mc = applyTransform(modelCoords); // apply transform
+    modelCoordsF = mc; // pass through model coordinates
+    gl_Position = vec4(mc.x, -mc.y, 0, 1.0); // set final position as model coordinates (inverted y)
 }
@@ -14,6 +14,20 @@
 // specify GLSL version
 #version 330
 
+/*
+ * Defines - the engine injects these for each variant of the shader (see ShaderProgram) so that each variant only runs
+ * the code it needs. The defaults below are only used if they are not injected
+ */
+// whether the material is textured
+#ifndef TEXTURED
+#define TEXTURED 0
+#endif
+// how to blend texture and color where the following values are used: (0) - no blending; (1) - multiplicative
+// blending; (2) - averaged blending
+#ifndef BLEND
+#define BLEND 0
+#endif
+
 /*
  * Uniforms
  */
@@ -22,9 +36,6 @@ uniform vec4 color;           // color of the material
 uniform float maxY;           // the maximum y a fragment can have before its not displayed
 uniform float minY;           // the minimum y a fragment can have before its not displayed
 uniform int boundY;           // whether to bound y to the min/max y sspecified in the above uniforms
-uniform int isTextured;       // flag denoting whether the material is actually textured
-uniform int blend;            /* blend flag denoting how to blend texture and color where the following values are used:
-                                 (0) - no blending; (1) - multiplicative blending; (2) - averaged blending */
 
 /*
  * In/Out Variablese
@@ -39,10 +50,17 @@ out vec4 fragColor; // final color to assign to the fragment
 void main() {
     // if the position is out of bounds, do not render anything
     if ((boundY == 1) && (posCoords.y > maxY || posCoords.y < minY)) fragColor = vec4(0, 0, 0, 0);
-    else if (isTextured == 1) { // if the material is textured
+    else { // otherwise, color using the material
+#if TEXTURED == 1
         vec4 texColor = texture(texSampler, fTexCoords); // get texture sampled color
-        if (blend == 1) texColor = texColor * color; // if blend mode multiplicative, multiply color and texture
-        else if (blend == 2) texColor = (texColor + color) / 2; // if blend mode averaged, average color and texture
+#if BLEND == 1
+        texColor = texColor * color; // if blend mode multiplicative, multiply color and texture
+#elif BLEND == 2
+        texColor = (texColor + color) / 2; // if blend mode averaged, average color and texture
+#endif
         fragColor = texColor; // set final color to calculated texture color (blended or not)
-    } else fragColor = color; // if not textured, use material color by itself
+#else
+        fragColor = color; // if not textured, use material color by itself
+#endif
+    }
 }
\ No newline at end of file
@@ -17,10 +17,11 @@
 /*
  * Uniforms
  */
-uniform int arAction; // aspect ratio action flag where 0 denotes multiplying y and 1 denotes dividing x
-uniform float ar;     // the aspect ratio of the window
-uniform float x;      // the object's x position used to offset the model coordinates
-uniform float y;      // the object's y position used to offset the model coordinates]
+uniform int arAction;   // aspect ratio action flag where 0 denotes multiplying y and 1 denotes dividing x
+uniform float ar;       // the aspect ratio of the window
+uniform float x;        // the object's x position used to offset the model coordinates
+uniform float y;        // the object's y position used to offset the model coordinates]
+uniform vec4 transform; // the model's transform where xy is its scale and zw is the cosine and sine of its rotation
 
 /*
  * Attributes
@@ -34,6 +35,15 @@ layout (location = 1) in vec2 texCoords;   // texture coordinate data in VBO at
 out vec2 fTexCoords; // texture coordinates to be passed through to fragment shader
 out vec2 posCoords;  // position coordinates to be passed through to fragment shader
 
+/*
+ * Applies the model's transform to model coordinates, scaling them and then rotating them
+ * @param coords the model coordinates to transform
+ */
+vec2 applyTransform(vec2 coords) {
+    coords = coords * transform.xy; // apply scale
+    return vec2(coords.x * transform.z - coords.y * transform.w, coords.y * transform.z + coords.x * transform.w);
+}
+
 /*
  * Applies aspect ratio properties to a point, converting world coordinates or camera-view coordinates into aspect
  * coordinates
@@ -49,7 +59,7 @@ vec2 aspect(vec2 coords) {
  * Main Function
  */
 void main() {
-    vec2 pos = vec2(modelCoords.x + x, modelCoords.y + y); // convert model coordinates to world coordinates
+    vec2 pos = applyTransform(modelCoords) + vec2(x, y); // convert model coordinates to world coordinates
     posCoords = pos = aspect(pos); // convert world coordinates to aspect coordinates, pass through to fragment shaders
     gl_Position = vec4(pos, 0.0, 1.0); // pass through aspect coordinates as a vec4
     fTexCoords = texCoords; // pass through texture coordinates to fragment shader
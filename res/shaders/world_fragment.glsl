@@ -8,13 +8,39 @@
 
 /*
  * These shaders are used to color world-based objects that do react to lighting. These shaders will take into
- * consideration the object's material, the status of a day/night cycle (if useDNC is 1), and a set of lights (if
- * useLights is 1)
+ * consideration the object's material, the status of a day/night cycle (if USE_DNC is 1), and a set of lights (if
+ * USE_LIGHTS is 1). Objects such as block backdrop borders can also be faded into transparency (if FADE is 1)
  */
 
 // specify GLSL version
 #version 330
 
+/*
+ * Defines - the engine injects these for each variant of the shader (see ShaderProgram) so that each variant only runs
+ * the code it needs. The defaults below are only used if they are not injected
+ */
+// whether the material is textured. 0 - not textured; 1 - textured; 2 - textured with a texture array
+#ifndef TEXTURED
+#define TEXTURED 0
+#endif
+// how to blend a material's color and texture if there are both. 0 - just use texture; 1 - multiply color and
+// texture; 2 - average color and texture
+#ifndef BLEND
+#define BLEND 0
+#endif
+// whether the day/night cycle lighting should be applied
+#ifndef USE_DNC
+#define USE_DNC 0
+#endif
+// whether individual lights should be applied
+#ifndef USE_LIGHTS
+#define USE_LIGHTS 0
+#endif
+// whether the fragment should fade into transparency as described by the fade uniforms
+#ifndef FADE
+#define FADE 0
+#endif
+
 /*
  * Constants
  */
@@ -38,34 +64,47 @@ struct Light {
  * Uniforms
  */
 uniform sampler2D texSampler;      // texture sampler - bound to the material's texture
+uniform sampler2DArray arraySampler; // texture array sampler - bound to the material's texture array if it has one
 uniform vec4 color;                // color - bound to the material's color
-uniform int isTextured;            // flag representing whether the material is textured or not
-uniform int blend;                 /* defines how to blend a material's color and texture if there are both. 0 - just
-                                      use texture; 1 - multiply color and texture; 2 - average color and texture */
-uniform int useDNC;                // flag specifying if the day/night cycle lighting should be applied
-uniform int useLights;             // flag specifying if individual lights should be applied
 uniform float sunPresence;         // how present the sun currently is as a from 0 (not present) to 1 (fully present)
 uniform float flicker[MAX_LIGHTS]; // flicker values for lights which are multiplied with reach to create flicker
 uniform Light lights[MAX_LIGHTS];  /* the list of lights to consider. To denote that there is no light at index simply
                                       don't set the uniform */
+#if FADE == 1
+uniform int fadeDir;               /* which direction to fade out towards: 1 - fade out left; 2 - fade out right; 3 -
+                                      fade out above; 4 - fade out below */
+uniform int fadeCorners;           // whether to fade using corners on the caps (1) or not (0)
+uniform vec4 fadeBounds;           /* the world bounds of the faded object where xy is its top left corner and zw is
+                                      its width and height */
+#endif
 
 /*
  * In/Out Variables
  */
 in vec2 fTexCoords; // texture coordinates as passed in from vertex shader
 in vec2 worldPos;   // the world position as passed in from vertex shader
+flat in float fLayer; // the texture array layer as passed in from vertex shader
 out vec4 fragColor; // final color to assign to the fragment
 
 /*
  * Calculates the base fragment color based on the material (texture and color)
  */
 vec4 getBaseColor() {
-    if (isTextured == 1) { // if the maetrial is textured
-        vec4 texColor = texture(texSampler, fTexCoords); // get texture sampled color
-        if (blend == 1) texColor = texColor * color; // if blend mode multiplicative, multiply color and texture
-        else if (blend == 2) texColor = (texColor + color) / 2; // if blend mode averaged, average color and texture
-        return texColor; // set final color to calculated texture color (blended or not)
-    } else return color; // if not textured, use base color of material
+#if TEXTURED == 0
+    return color; // if not textured, use base color of material
+#else
+#if TEXTURED == 2
+    vec4 texColor = texture(arraySampler, vec3(fTexCoords, fLayer)); // sample the instance's layer of the array
+#else
+    vec4 texColor = texture(texSampler, fTexCoords); // sample the texture
+#endif
+#if BLEND == 1
+    texColor = texColor * color; // if blend mode multiplicative, multiply color and texture
+#elif BLEND == 2
+    texColor = (texColor + color) / 2; // if blend mode averaged, average color and texture
+#endif
+    return texColor; // set final color to calculated texture color (blended or not)
+#endif
 }
 
 /**
@@ -110,14 +149,52 @@ vec4 applyLights(vec4 color, vec3 baseColor) {
     return color; // return the color after all lights have been applied
 }
 
+#if FADE == 1
+/*
+ * Fades the given color into transparency based on the world position and the fade uniform values
+ * @param c the color to fade
+ */
+vec4 applyFade(vec4 c) {
+    vec2 size = fadeBounds.zw; // get the width and height of the faded object
+    vec2 p = vec2(worldPos.x - fadeBounds.x, fadeBounds.y - worldPos.y); // get position from the top left corner
+    float alpha = 1; // calculate the alpha value based on corners flag value and fade direction
+    if (fadeCorners == 1) { // if corners flag is true
+        float thickness = min(size.x, size.y); // calculate the thickness of the object
+        float d = 0; // calculate the distance from the edge opposite to the fade direction with corners in mind
+        if (fadeDir == 1) d = distance(p, vec2(size.x, clamp(p.y, thickness, size.y - thickness))); // fade to left
+        else if (fadeDir == 2) d = distance(p, vec2(0, clamp(p.y, thickness, size.y - thickness))); // fade to right
+        else if (fadeDir == 3) d = distance(p, vec2(clamp(p.x, thickness, size.x - thickness), size.y)); // above
+        else if (fadeDir == 4) d = distance(p, vec2(clamp(p.x, thickness, size.x - thickness), 0)); // below
+        alpha = 1 - (d / thickness); // alpha value should be relative to how far along the thickness the point is
+    } else { // if corners flag is not true, directly calculate alpha value based on normalized position
+        vec2 n = p / size; // normalize position
+        if (fadeDir == 1) alpha = n.x; // fade to left
+        else if (fadeDir == 2) alpha = 1 - n.x; // fade to right
+        else if (fadeDir == 3) alpha = n.y; // fade above
+        else if (fadeDir == 4) alpha = 1 - n.y; // fade below
+    }
+    return vec4(c.xyz, c.w * clamp(alpha, 0, 1)); // return same color with faded alpha value
+}
+#endif
+
 /*
  * Main Function
  */
 void main() {
     vec4 base = getBaseColor(); // get base color based on material
-    vec4 c = (useDNC == 1 || useLights == 1) // if any form of lighting is enabled
-        ? applyDarknessFactor(base) : base; // apply darkness factor to the color, otherwise use base color
-    c = (useDNC == 1) ? applyDayNight(c) : c; // apply day/night cycle coloring if enabled
-    c = (useLights == 1) ? applyLights(c, base.xyz) : c; // apply individual lights' lightings if enabled
+#if USE_DNC == 1 || USE_LIGHTS == 1
+    vec4 c = applyDarknessFactor(base); // if any form of lighting is enabled, apply darkness factor to the color
+#else
+    vec4 c = base; // otherwise use base color
+#endif
+#if USE_DNC == 1
+    c = applyDayNight(c); // apply day/night cycle coloring if enabled
+#endif
+#if USE_LIGHTS == 1
+    c = applyLights(c, base.xyz); // apply individual lights' lightings if enabled
+#endif
+#if FADE == 1
+    c = applyFade(c); // apply fade if enabled
+#endif
     fragColor = c; // set final color
 }
\ No newline at end of file
@@ -14,28 +14,55 @@
 // specify GLSL version
 #version 330
 
+/*
+ * Defines - the engine injects these for each variant of the shader (see ShaderProgram) so that each variant only runs
+ * the code it needs. The defaults below are only used if they are not injected
+ */
+// whether texture coordinates should be scaled and offset by the texTransform uniform
+#ifndef TEX_TRANSFORM
+#define TEX_TRANSFORM 0
+#endif
+
 /*
  * Uniforms
  */
-uniform int arAction;  // aspect ratio action flag where 0 denotes multiplying y and 1 denotes dividing x
-uniform float ar;      // the aspect ratio of the window
-uniform float x;       // the object's x position used to offset the model coordinatess
-uniform float y;       // the object's y position used to offset the model coordinates
-uniform float camX;    // the camera's x position used to offset the model coordinates
-uniform float camY;    // the camera's y position used to offset the model coordinatess
-uniform float camZoom; // the camera's zoom used to scale the models
+uniform int arAction;   // aspect ratio action flag where 0 denotes multiplying y and 1 denotes dividing x
+uniform float ar;       // the aspect ratio of the window
+uniform float x;        // the object's x position used to offset the model coordinatess
+uniform float y;        // the object's y position used to offset the model coordinates
+uniform float camX;     // the camera's x position used to offset the model coordinates
+uniform float camY;     // the camera's y position used to offset the model coordinatess
+uniform float camZoom;  // the camera's zoom used to scale the models
+uniform vec4 transform; /* the model's transform where xy is its scale and zw is the cosine and sine of its
+                           rotation */
+#if TEX_TRANSFORM == 1
+uniform vec4 texTransform; // the texture coordinate transform where xy is the scale and zw is the offset
+#endif
 
 /**
  * Attributes
  */
 layout (location = 0) in vec2 modelCoords; // model coordinate data in VBO at index 0 of VAO
 layout (location = 1) in vec2 texCoords;   // texture coordinate data in VBO at index 1 of VAO
+layout (location = 2) in vec3 instance;    /* per-instance data in VBO at index 2 of VAO where xy is the world offset
+                                              and z is the texture array layer. This is only enabled for instanced
+                                              rendering (blocks) and is (0, 0, 0) otherwise */
 
 /*
  * In/Out Variables
  */
-out vec2 fTexCoords; // texture coordinates are just passed through to fragment shaders
-out vec2 worldPos;   // world position is passed through to fragment shaders for lighting calculations
+out vec2 fTexCoords;   // texture coordinates are just passed through to fragment shaders
+out vec2 worldPos;     // world position is passed through to fragment shaders for lighting calculations
+flat out float fLayer; // texture array layer is passed through to fragment shaders for texture array sampling
+
+/*
+ * Applies the model's transform to model coordinates, scaling them and then rotating them
+ * @param coords the model coordinates to transform
+ */
+vec2 applyTransform(vec2 coords) {
+    coords = coords * transform.xy; // apply scale
+    return vec2(coords.x * transform.z - coords.y * transform.w, coords.y * transform.z + coords.x * transform.w);
+}
 
 /*
  * Applies camera zoom and position to an object, converting world coordinates into camera-view coordinatess
@@ -60,10 +87,16 @@ vec2 aspect(vec2 coords) {
  * Main Function
  */
 void main() {
-    vec2 pos = vec2(modelCoords.x + x, modelCoords.y + y); // convert model coordinates to world coordinates
+    // convert model coordinates to world coordinates
+    vec2 pos = applyTransform(modelCoords) + vec2(x + instance.x, y + instance.y);
     worldPos = pos; // pass world position to fragment shader for lighting calculations
     if (camZoom != 0) pos = toCameraView(pos); // convert world coordinates to camera-view if there is a camera
     pos = aspect(pos); // convert world or camera-view coordinates to aspect coordinates
     gl_Position = vec4(pos.x, pos.y, 0.0, 1.0); // pass through aspect coordinates as a vec4 as the final position
+#if TEX_TRANSFORM == 1
+    fTexCoords = texCoords * texTransform.xy + texTransform.zw; // transform texture coordinates
+#else
     fTexCoords = texCoords; // pass texture coordinates through to fragment shader
+#endif
+    fLayer = instance.z; // pass texture array layer through to fragment shader
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 
 import logic.MenuLogic;
 
+import java.util.Arrays;
+
 /*
  * Ambulare.java
  * Ambulare
@@ -14,11 +16,16 @@ import logic.MenuLogic;
 public class Ambulare {
 
     /**
-     * Main method - the entry point into the whole program. Just creates and starts the engine
+     * Main method - the entry point into the whole program. Just creates and starts the engine, or runs a benchmark if
+     * the first command-line argument is the benchmark flag (see Benchmark)
      *
      * @param args the command-line arguments
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(Benchmark.FLAG)) { // if a benchmark was requested
+            new Benchmark(Arrays.copyOfRange(args, 1, args.length)).run(); // run it with the remaining arguments
+            return; // and do not start the game
+        }
         GameEngine g = new GameEngine(new MenuLogic()); // create the engine and tell it which logic to start with
         g.start(); // start the engine
     }
@@ -0,0 +1,199 @@
+import graphics.AnimatedTexture;
+import graphics.GPUResources;
+import graphics.ModelCache;
+import graphics.RenderScale;
+import graphics.RenderStats;
+import graphics.ShaderCache;
+import graphics.Window;
+import logic.BenchmarkLogic;
+import utils.*;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/*
+ * Benchmark.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Measures rendering cost reproducibly by rendering a fixed amount of frames of an area into a hidden window while the
+ * camera follows a scripted path (see logic.BenchmarkLogic). Because the window is never shown, benchmarks can be run
+ * without a desktop, including on headless machines using a software renderer such as Mesa's llvmpipe (for example,
+ * under Xvfb with LIBGL_ALWAYS_SOFTWARE=1). Each frame is updated with a fixed interval and rendered as fast as
+ * possible. A few warm-up frames are rendered first and not measured so that one-time costs like shader compilation do
+ * not skew the results.
+ * <p>
+ * For each frame, both the CPU time spent issuing the frame's rendering and the full frame time (waiting for GL to
+ * finish) are measured. Time spent in area rendering, ROC rendering, and text is measured using the profiler (see
+ * utils.Profiler) and GL work such as draw calls is recorded using render stats (see graphics.RenderStats). Results are
+ * logged and saved to a node-file named benchmark.node in the data directory so that they can be tracked over time,
+ * and the full render stats are exported to benchmark_render_stats.json next to it. A benchmark is started by passing
+ * --benchmark as the first command-line argument, optionally followed by the resource-relative path to the area
+ * node-file, the amount of frames, and the window width and height
+ */
+public class Benchmark {
+
+    /**
+     * Static Data
+     */
+    public static final String FLAG = "--benchmark"; // the command-line flag to start a benchmark
+    private static final String DEFAULT_AREA = "/stories/mainstory/areas/galen_forest.node"; // default area to render
+    private static final int DEFAULT_FRAMES = 600;   // the default amount of frames to measure
+    private static final int DEFAULT_WIDTH = 1280;   // the default window width
+    private static final int DEFAULT_HEIGHT = 720;   // the default window height
+    private static final int WARMUP_FRAMES = 30;     // the amount of frames to render before measuring
+
+    /**
+     * Members
+     */
+    private final Utils.Path areaPath; // the path to the area node-file to render
+    private final int frames;          // the amount of frames to measure
+    private final int w, h;            // the width and height of the hidden window
+
+    /**
+     * Constructs the benchmark from command-line arguments
+     *
+     * @param args the command-line arguments following the benchmark flag: the resource-relative path to the area
+     *             node-file, the amount of frames, the window width, and the window height. Each is optional
+     */
+    public Benchmark(String[] args) {
+        this.areaPath = new Utils.Path(args.length > 0 ? args[0] : DEFAULT_AREA, true); // get area path
+        this.frames = Math.max(1, parse(args, 1, DEFAULT_FRAMES)); // get amount of frames
+        this.w = parse(args, 2, DEFAULT_WIDTH); // get window width
+        this.h = parse(args, 3, DEFAULT_HEIGHT); // get window height
+    }
+
+    /**
+     * Parses the integer command-line argument at the given index
+     *
+     * @param args  the command-line arguments
+     * @param i     the index of the argument to parse
+     * @param value the value to use if the argument is missing
+     * @return the parsed argument
+     */
+    private static int parse(String[] args, int i, int value) {
+        if (args.length <= i) return value; // use default value if missing
+        try {
+            return Integer.parseInt(args[i]); // parse argument
+        } catch (NumberFormatException e) { // if invalid, crash
+            Utils.handleException(new Exception("Invalid benchmark argument: '" + args[i] + "'"), Benchmark.class,
+                    "parse", true);
+        }
+        return value;
+    }
+
+    /**
+     * Runs the benchmark by initializing, rendering and measuring each frame, reporting the results, and cleaning up
+     */
+    public void run() {
+
+        // initialize
+        Settings.load(); // load settings
+        Global.gameWindow = new Window(Global.WINDOW_TITLE, this.w, this.h, false, false); // create hidden window
+        Global.gameWindow.init(); // initialize the window
+        Global.updateAr(); // update global aspect ratio variable
+        Global.init(); // initialize global members
+        RenderScale.init(); // use the render scale setting. It is never updated so that every frame uses the same scale
+        BenchmarkLogic logic = new BenchmarkLogic(this.areaPath); // create logic
+        GPUResources.beginOwner(logic); // GL objects created while the logic is in use belong to it
+        logic.init(); // initialize logic
+        TaskScheduler.flush(); // perform any deferred loading work now so that it is not measured
+
+        // render and measure
+        float interval = 1f / Global.TARGET_UPS; // update each frame with a fixed interval
+        double[] cpu = new double[this.frames]; // the CPU time of each measured frame
+        double[] frame = new double[this.frames]; // the full time of each measured frame
+        for (int i = -WARMUP_FRAMES; i < this.frames; i++) { // for each frame, starting with the warm-up frames
+            if (i == 0) { // once warm-up is over
+                glFinish(); // make sure warm-up rendering is not included in the first measurement
+                Profiler.reset(); // forget anything profiled during warm-up
+                Profiler.setEnabled(true); // and begin profiling
+                RenderStats.reset(); // same for render stats
+                RenderStats.setRecording(true);
+            }
+            FrameArena.reset(); // the last frame's temporary objects are no longer needed
+            logic.moveCamera((float) Math.max(i, 0) / this.frames); // move the camera along the path
+            logic.update(interval); // update the logic
+            double start = Timer.getTimeMilliseconds(); // record time before rendering
+            glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // clear the screen
+            logic.render(); // render
+            double issued = Timer.getTimeMilliseconds(); // record time after rendering has been issued
+            RenderStats.endFrame(); // finish recording the frame's GL work
+            glFinish(); // wait for rendering to finish
+            double finished = Timer.getTimeMilliseconds(); // record time after rendering has finished
+            Global.gameWindow.swapBuffers(); // swap buffers
+            if (i >= 0) { // if not a warm-up frame, save measurements
+                cpu[i] = issued - start;
+                frame[i] = finished - start;
+            }
+        }
+        Profiler.setEnabled(false); // stop profiling
+        RenderStats.setRecording(false); // and recording
+
+        // report and cleanup
+        this.report(cpu, frame); // report results
+        logic.cleanup(); // cleanup logic
+        TaskScheduler.flush(); // perform any remaining deferred work while the GL context still exists
+        GPUResources.endOwner(); // the logic is no longer in use
+        GPUResources.checkReleased(logic, false); // report any GL objects it did not clean up
+        Global.cleanup(); // cleanup global members
+        ModelCache.clear(); // cleanup shared models
+        ShaderCache.clear(); // cleanup shared shader programs
+        AnimatedTexture.clearTexCoordVBOs(); // cleanup shared animated texture coordinate VBOs
+        // fail the benchmark if any GL objects were never cleaned up, now that the results have been saved
+        GPUResources.checkAllReleased(true);
+    }
+
+    /**
+     * Logs the results of the benchmark and saves them to benchmark.node in the data directory
+     *
+     * @param cpu   the CPU time of each measured frame in milliseconds
+     * @param frame the full time of each measured frame in milliseconds
+     */
+    private void report(double[] cpu, double[] frame) {
+        Node results = new Node("benchmark"); // create node to hold results
+        results.addChild("version", Global.VERSION); // record setup
+        results.addChild("renderer", glGetString(GL_RENDERER));
+        results.addChild("area", this.areaPath.toString());
+        results.addChild("frames", Integer.toString(this.frames));
+        results.addChild("resolution", Global.gameWindow.getFBWidth() + "x" + Global.gameWindow.getFBHeight());
+        results.addChild("render_scale", String.format("%.3f", RenderScale.get()));
+        results.addChild("vram_estimate_mb", String.format("%.2f", GPUResources.getBytes() / (1024.0 * 1024.0)));
+        results.addChild(summarize("cpu_ms", cpu)); // record frame time summaries
+        results.addChild(summarize("frame_ms", frame));
+        for (String section : Profiler.getSections()) // record average time per frame spent in each section
+            results.addChild(section + "_ms", String.format("%.4f", Profiler.getTotalMilliseconds(section) /
+                    this.frames));
+        for (RenderStats.Counter c : RenderStats.Counter.values()) // record the average of each GL counter per frame
+            results.addChild(c.name().toLowerCase(), String.format("%.2f", (double) RenderStats.getTotal(c) /
+                    this.frames));
+        Utils.log("Benchmark results:\n" + results, this.getClass(), "report", false); // log results
+        Node.nodeToFile(results, new Utils.Path("/benchmark.node", false)); // save results
+        RenderStats.export(new Utils.Path("/benchmark_render_stats.json", false)); // export full render stats
+    }
+
+    /**
+     * Summarizes a set of frame time measurements
+     *
+     * @param name the name to give the summary node
+     * @param ms   the frame time measurements in milliseconds
+     * @return a node whose children are the average, median, 95th percentile, and worst of the measurements
+     */
+    private static Node summarize(String name, double[] ms) {
+        double[] sorted = ms.clone(); // sort a copy of the measurements to find percentiles
+        Arrays.sort(sorted);
+        double sum = 0; // calculate sum for average
+        for (double m : sorted) sum += m;
+        Node summary = new Node(name); // create summary node
+        summary.addChild("average", String.format("%.4f", sum / sorted.length));
+        summary.addChild("median", String.format("%.4f", sorted[sorted.length / 2]));
+        summary.addChild("p95", String.format("%.4f", sorted[(int) Math.min(sorted.length - 1,
+                Math.ceil(sorted.length * 0.95) - 1)]));
+        summary.addChild("worst", String.format("%.4f", sorted[sorted.length - 1]));
+        return summary;
+    }
+}
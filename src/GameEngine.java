@@ -1,3 +1,10 @@
+import graphics.AnimatedTexture;
+import graphics.GLState;
+import graphics.GPUResources;
+import graphics.ModelCache;
+import graphics.RenderScale;
+import graphics.RenderStats;
+import graphics.ShaderCache;
 import graphics.Window;
 import logic.GameLogic;
 import utils.*;
@@ -33,6 +40,7 @@ public class GameEngine {
     private GameLogic logic;                     // the logic the engine should follow
     private float logicTransitionTime;           // a timer for logic transitions
     private boolean debugging;                   // whether or not the engine is reporting debugging info to the logic
+    private double swapTime;                     // how long the last buffer swap took in seconds
 
     /**
      * Constructor
@@ -67,6 +75,8 @@ public class GameEngine {
         Global.updateAr(); // update global aspect ratio variable
         this.initInput(); // initialize mouse and keyboard input callbacks
         Global.init(); // initialize global members
+        RenderScale.init(); // initialize the scale to render the world at
+        GPUResources.beginOwner(this.logic); // GL objects created while the logic is in use belong to it
         this.logic.init(); // initialize starting logic
         this.timer.init(); // initialize the timer
     }
@@ -95,8 +105,8 @@ public class GameEngine {
 
     /**
      * Defines the game loop
-     * This game uses a fixed-step game loop. It consists of four phases: gathering input, updating, rendering, and
-     * syncing
+     * This game uses a fixed-step game loop. It consists of five phases: gathering input, updating, rendering,
+     * performing deferred work (see utils.TaskScheduler), and syncing
      */
     private void loop() {
 
@@ -112,6 +122,7 @@ public class GameEngine {
         while (!Global.gameWindow.shouldClose()) { // while the Window shouldn't close
 
             // timekeeping
+            FrameArena.reset(); // the last frame's temporary objects are no longer needed
             elapsedTime = this.timer.getElapsedTime(true); // get elapsed time since last loop
             if (this.debugging) { // if debugging is enabled
                 debug[0] += elapsedTime; // update the accumulator
@@ -120,10 +131,18 @@ public class GameEngine {
             accumulator += elapsedTime; // add elapsed time to the accumulator for time unaccounted for
 
             // phase 1: input
-            Global.gameWindow.pollEvents(); // gather input by polling for GLFW window events
-            // if debugging, record time in milliseconds before update
+            boolean idle = Global.gameWindow.isIdle(); // whether the window is iconified or out of focus
+            if (idle && this.logic.pausesWhenIdle()) { // if idle and the logic can be paused
+                Global.gameWindow.waitEvents(Global.IDLE_WAIT); // sleep until an event occurs or the wait times out
+                Global.resetAccumulator = true; // and do not account for the time spent waiting
+            } else { // otherwise
+                Global.gameWindow.pollEvents(); // gather input by polling for GLFW window events
+            }
+            double workStart = Timer.getTimeSeconds(); // record time before the frame's work
+            this.swapTime = 0; // no buffers have been swapped yet
 
             // phase 2: update
+            // if debugging, record time in milliseconds before update
             if (this.debugging) debug[10] = (float) Timer.getTimeMilliseconds();
             if (Global.resetAccumulator) { // if the accumulator needs to be reset
                 accumulator = 0f; // reset accumulator
@@ -142,13 +161,24 @@ public class GameEngine {
             }
 
             // phase 3: render
-            this.render();  /* render outside of the above loop because, as opposed to updating, outdated renders are
-                useless wastes of GPU power */
+            if (!Global.gameWindow.isIconified()) this.render(); /* render outside of the above loop because, as opposed
+                to updating, outdated renders are useless wastes of GPU power. Likewise, do not render at all when the
+                window is iconified because nobody can see it */
             if (this.debugging) // if debugging, update debugging metrics with render time
                 this.updateDebugMetrics(Timer.getTimeMilliseconds() - debug[11], debug, 2);
 
-            // phase 4: sync
-            if (!Global.gameWindow.usesVSync()) this.sync(1 / (float) Global.TARGET_FPS);
+            // phase 4: deferred work - spend whatever is left of the frame's time on scheduled tasks
+            float frameTime = (float) ((Timer.getTimeSeconds() - this.timer.getTimestamp()) * 1000); // time so far
+            TaskScheduler.run(Math.max(TaskScheduler.MIN_BUDGET, 1000f / Global.TARGET_FPS - frameTime));
+            // let the frame's work time guide the world's render scale. Idle frames are synced to a lower frame rate
+            // and would look slow, and time spent waiting for vsync in the buffer swap is not work
+            double workTime = Timer.getTimeSeconds() - workStart;
+            if (Global.gameWindow.usesVSync()) workTime -= this.swapTime;
+            if (!idle) RenderScale.update((float) workTime);
+
+            // phase 5: sync
+            if (idle) this.sync(1 / (float) Global.IDLE_FPS); // if idle, sync to the lower idle frame rate
+            else if (!Global.gameWindow.usesVSync()) this.sync(1 / (float) Global.TARGET_FPS);
         }
     }
 
@@ -195,6 +225,9 @@ public class GameEngine {
             Global.debugInfo.setField("fps", info[0]);
             Global.debugInfo.setField("update", info[1]);
             Global.debugInfo.setField("render", info[2]);
+            RenderStats.updateDebugInfo(); // show GL work from the last frame
+            RenderScale.updateDebugInfo(); // show the scale the world is rendered at
+            GPUResources.updateDebugInfo(); // show live GL objects and estimated video memory usage
         }
     }
 
@@ -211,9 +244,12 @@ public class GameEngine {
         if (key == Global.DEBUG_TOGGLE_KEY && action == GLFW_RELEASE) { // if debug info toggling key,
             this.debugging = !this.debugging; // toggle static flag
             Global.debugInfo.setVisibility(this.debugging); // update vis
+            RenderStats.setRecording(this.debugging); // only record GL work while debugging
             if (!this.debugging && debug != null) this.updateDebugMetrics(0, this.debug, -1); // reset
         } else if (key == Global.POLYGON_MODE_TOGGLE_KEY && action == GLFW_RELEASE) // if polygon toggle key pressed
             Global.togglePolygonMode(); // toggle the polygon mode
+        else if (key == Global.RENDER_STATS_EXPORT_KEY && action == GLFW_RELEASE && this.debugging) // if export key
+            RenderStats.export(new Utils.Path("/render_stats.json", false)); // export recorded GL work
         logic.keyboardInput(key, action); // notify logic of input
     }
 
@@ -246,6 +282,7 @@ public class GameEngine {
      */
     private void update(float interval) {
         if (GameLogic.logicChange != null) { // if a logic change is pending
+            GameLogic.logicChange.beginPreparation(); // make sure the new logic is being prepared during the transition
             this.logicTransitionTime += interval; // keep track of time for transition
             if (this.logicTransitionTime >= GameLogic.logicChange.getTransitionTime()) { // if the transition is over
                 performLogicChange(); // perform the logic change
@@ -256,13 +293,16 @@ public class GameEngine {
     }
 
     /**
-     * Performs a logic change by using GameLogic's static logic change data. This will also clean up the old logic
-     * and initialize the new logic
+     * Performs a logic change by using GameLogic's static logic change data. This will wait for the new logic to
+     * finish preparing, clean up the old logic, and initialize the new logic
      */
     private void performLogicChange() {
+        GameLogic.logicChange.finishPreparation(); // wait for the new logic to finish preparing
         this.logic.cleanup(); // cleanup old logic
-        this.logic = GameLogic.logicChange.getNewLogic(); // grab new logic
-        this.logic.giveTransferData(GameLogic.logicChange.getTransferData()); // give new logic the transfer data
+        GPUResources.endOwner(); // the old logic is no longer in use
+        GPUResources.checkReleased(this.logic, false); // report any GL objects it did not clean up
+        this.logic = GameLogic.logicChange.getNewLogic(); // grab new logic (which already has the transfer data)
+        GPUResources.beginOwner(this.logic); // GL objects created while the new logic is in use belong to it
         this.logic.init(); // initialize new logic
         GameLogic.logicChange = null; // delete logic change data
         Utils.log("Logic change performed successfully", this.getClass(), "performLogicChange",
@@ -277,16 +317,19 @@ public class GameEngine {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // clear the screen
         if (Global.gameWindow.resized(true)) { // if the window was resized
             // change GL viewport to fit window's frame buffer
-            glViewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
+            GLState.viewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
             Global.updateAr(); // update global aspect ratio variable
             this.logic.resized(); // notify the logic of the resize
         }
         this.logic.render(); // allow the logic to render
+        RenderStats.endFrame(); // finish recording the frame's GL work
+        double swapStart = Timer.getTimeSeconds(); // record time before swapping
         Global.gameWindow.swapBuffers(); // refresh the window
+        this.swapTime = Timer.getTimeSeconds() - swapStart; // record how long the swap took
     }
 
     /**
-     * Phase 4 of loop: syncing
+     * Phase 5 of loop: syncing
      * Syncs the game loop by sleeping for any leftover time in between updates
      *
      * @param interval how much time there should be between frames
@@ -309,7 +352,14 @@ public class GameEngine {
     private void cleanup() {
         Settings.save(); // save settings
         this.logic.cleanup(); // tell logic to cleanup
+        TaskScheduler.flush(); // perform any remaining deferred work while the GL context still exists
+        GPUResources.endOwner(); // the logic is no longer in use
+        GPUResources.checkReleased(this.logic, false); // report any GL objects it did not clean up
         Global.cleanup(); // cleanup global members
+        ModelCache.clear(); // cleanup shared models
+        ShaderCache.clear(); // cleanup shared shader programs
+        AnimatedTexture.clearTexCoordVBOs(); // cleanup shared animated texture coordinate VBOs
+        GPUResources.checkAllReleased(false); // report any GL objects that were never cleaned up
         SoundManager.cleanup(); // cleanup the sound manager
     }
 }
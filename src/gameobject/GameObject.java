@@ -2,6 +2,7 @@ package gameobject;
 
 import graphics.*;
 import utils.FittingBox;
+import utils.FrameArena;
 import utils.Pair;
 
 /*
@@ -15,7 +16,9 @@ import utils.Pair;
  * Represents a single game object. This is the basic abstraction away from directly dealing with GL commands. Game
  * objects have a model and a material both used for rendering. They also have position and visibility components that
  * are used during rendering. They are also able to be given positional animations. Game object's  coordinates are
- * considered to represent the center of the game object
+ * considered to represent the center of the game object. Scaling and rotating a game object scales and rotates its
+ * model, unless the model is shared (see graphics.ModelCache), in which case the game object keeps its own transform of
+ * the model (see graphics.Model.Transform) to scale, rotate, and render the model with
  */
 public class GameObject {
 
@@ -25,8 +28,11 @@ public class GameObject {
     protected PositionalAnimation posAnim; // positional animation which can be set to animate positional changes
     protected Material material;           // material to use when rendering
     protected Model model;                 // model to use when rendering
+    private Model.Transform transform;     // the game object's own transform of its model if the model is shared
     protected boolean visible = true;      // visibility
     private float x, y;                    // position
+    SpatialGrid grid;                      // the spatial grid the game object is in, if any
+    int gridCell;                          // the cell of the spatial grid the game object is in
 
     /**
      * Constructs the game object at (0, 0)
@@ -37,6 +43,7 @@ public class GameObject {
     public GameObject(Model model, Material material) {
         this.material = material; // save material as member
         this.model = model; // save model as member
+        if (model.isShared()) this.transform = model.createTransform(); // shared models need their own transform
     }
 
     /**
@@ -91,15 +98,56 @@ public class GameObject {
      */
     public void render(ShaderProgram sp) {
         if (!this.visible) return; // do not render if invisible
-        sp.setUniform("x", this.x); // set x
-        sp.setUniform("y", this.y); // set y
+        sp.uniform(ShaderProgram.Common.X).set(this.x); // set x
+        sp.uniform(ShaderProgram.Common.Y).set(this.y); // set y
         // update material's light's position if it is a light source material
         if (this.material instanceof LightSourceMaterial) ((LightSourceMaterial) this.material).setPos(this.x, this.y);
         this.material.setUniforms(sp); // set material uniforms
         Texture t = this.material.getTexture(); // get material's texture
         // if the texture is animated, tell the model which texture coordinates to use
-        if (t instanceof AnimatedTexture) this.updateAnimatedTexture((AnimatedTexture) t, false);
-        this.model.render(); // render model
+        if (t instanceof AnimatedTexture) this.updateAnimatedTexture((AnimatedTexture) t, this.isTextureFlipped());
+        this.model.render(sp, this.getTransform()); // render model
+        this.renderExtras(sp); // render anything that goes with the game object
+    }
+
+    /**
+     * Renders anything that goes along with the game object. This is called after the game object's model has been
+     * rendered, whether by render() or as part of a sprite batch (see graphics.SpriteBatch). Since a sprite batch may
+     * not have drawn the game object yet, extending classes should only submit things to the post-render here (see
+     * ShaderProgram.addToPostRender())
+     *
+     * @param sp the shader program being rendered with
+     */
+    public void renderExtras(ShaderProgram sp) {
+    }
+
+    /**
+     * Determines whether the game object can be drawn as part of a sprite batch (see graphics.SpriteBatch). Extending
+     * classes that override render() to render more than their model (other than through renderExtras()) should
+     * override this to return false
+     *
+     * @return whether the game object can be batched
+     */
+    public boolean batchable() {
+        return true;
+    }
+
+    /**
+     * Determines the name of the profiler section (see utils.Profiler) that rendering the game object's model should be
+     * timed under. This lets a sprite batch time batched game objects the same way that they time themselves in
+     * render() when they are not batched
+     *
+     * @return the name of the profiler section, or null if rendering the game object is not profiled on its own
+     */
+    public String getProfileSection() {
+        return null;
+    }
+
+    /**
+     * @return whether an animated texture should be flipped horizontally when rendering the game object
+     */
+    public boolean isTextureFlipped() {
+        return false;
     }
 
     /**
@@ -115,9 +163,11 @@ public class GameObject {
 
     /**
      * This is called whenever there is a change in the game object's position, scale, or rotation. The point is for
-     * extending classes to be able to override this in order to react to changes in position, scale, or rotation
+     * extending classes to be able to override this in order to react to changes in position, scale, or rotation.
+     * Overriding methods should call this so that the game object's spatial grid (if any) stays up to date
      */
     protected void onMove() {
+        if (this.grid != null) this.grid.update(this); // tell the spatial grid about the move
     }
 
     /**
@@ -152,25 +202,21 @@ public class GameObject {
     }
 
     /**
-     * Sets the x scaling factor of the game object to the given x scaling factor by scaling the model. Note that if
-     * other game objects share a model with this game object, they will be scaled as well
+     * Sets the x scaling factor of the game object to the given x scaling factor
      *
      * @param x the x scaling factor to use
      */
     public void setXScale(float x) {
-        this.model.setXScale(x); // scale model
-        this.onMove(); // call onMove() to react to scaling
+        this.setScale(x, this.getTransform().getYScale()); // call other method
     }
 
     /**
-     * Sets the y scaling factor of the game object to the given y scaling factor by scaling the model. Note that if
-     * other game objects share a model with this game object, they will be scaled as well
+     * Sets the y scaling factor of the game object to the given y scaling factor
      *
      * @param y the y scaling factor to use
      */
     public void setYScale(float y) {
-        this.model.setYScale(y); // scale model
-        this.onMove(); // call onMove() to react to scaling
+        this.setScale(this.getTransform().getXScale(), y); // call other method
     }
 
     /**
@@ -201,7 +247,7 @@ public class GameObject {
      * @param y the y scaling factor to use
      */
     public void setScale(float x, float y) {
-        this.model.setScale(x, y); // tell model to scale
+        this.getTransform().setScale(x, y); // scale the transform
         this.onMove(); // call onMove() to react to scaling
     }
 
@@ -220,7 +266,7 @@ public class GameObject {
      * @param r the new rotation value in radians
      */
     public void setRotRad(float r) {
-        this.model.setRotationRad(r); // rotate model
+        this.getTransform().setRotationRad(r); // rotate the transform
         this.onMove(); // call onMove() to react to rotation
     }
 
@@ -275,35 +321,35 @@ public class GameObject {
      * @return the game object's (model's) width
      */
     public float getWidth() {
-        return this.model.getWidth();
+        return this.getTransform().getWidth();
     }
 
     /**
      * @return the game object's (model's) width
      */
     public float getHeight() {
-        return this.model.getHeight();
+        return this.getTransform().getHeight();
     }
 
     /**
      * @return the game object's (model's) width without taking rotation into consideration
      */
     public float getUnrotatedWidth() {
-        return this.model.getUnrotatedWidth();
+        return this.getTransform().getUnrotatedWidth();
     }
 
     /**
      * @return the game object's (model's) height without taking rotation into consideration
      */
     public float getUnrotatedHeight() {
-        return this.model.getUnrotatedHeight();
+        return this.getTransform().getUnrotatedHeight();
     }
 
     /**
      * @return the game object's (model's) rotation in radians
      */
     public float getRotationRad() {
-        return this.model.getRotationRad();
+        return this.getTransform().getRotationRad();
     }
 
     /**
@@ -325,14 +371,24 @@ public class GameObject {
         return this.model;
     }
 
+    /**
+     * @return the transform the game object's model is rendered with. This is the game object's own transform if the
+     * model is shared, or the model's own transform otherwise
+     */
+    public Model.Transform getTransform() {
+        return this.model.isShared() ? this.transform : this.model.getTransform();
+    }
+
     /**
      * Calculates the fitting box for the game object by getting the model's fitting box and translating it to the
-     * game object's position.
+     * game object's position. The fitting box is obtained from the frame arena (see utils.FrameArena) and so it should
+     * not be kept past the current frame
      *
      * @return the fitting box describe above
      */
     public FittingBox getFittingBox() {
-        return model.getFittingBox().translate(this.x, this.y); // get model's fitting box and translate
+        // get model's fitting box and translate
+        return this.getTransform().getFittingBox(FrameArena.fittingBox()).translate(this.x, this.y);
     }
 
     /**
@@ -46,6 +46,7 @@ public class ROC {
     private final List<ListObject> lists;    // a list of list objects to notify about scrolling
     private final List<AnimatedTexture> ats; // list of animated textures to update
     private final MouseInputEngine mip;      // mouse input engine to handle mouse input
+    private final SpriteBatch batch;         // sprite batch used to render static objects
     private GameWorld gameWorld;             // the game world to render underneath the static objects
     private GameObject fadeBox;              // fade box used for fading the entire screen for smooth transitions
     private ShaderProgram sp;                // the shader program to use to render static objects
@@ -60,6 +61,7 @@ public class ROC {
         this.lists = new ArrayList<>(); // initialize list object list to an empty list
         this.ats = new ArrayList<>(); // initialize animated textures to an empty list
         this.mip = new MouseInputEngine(); // initialize mouse input engine
+        this.batch = new SpriteBatch(64); // create sprite batch
         this.initSP(); // create and initialize shader program
     }
 
@@ -82,17 +84,18 @@ public class ROC {
      * Initializes the static object shader program by creating it and then registering the appropriate uniforms
      */
     protected void initSP() {
-        // create the static object shader program using the HUD shaders
-        this.sp = new ShaderProgram(new Utils.Path("/shaders/hud_vertex.glsl", true),
+        // get the shared static object shader program using the HUD shaders
+        this.sp = ShaderCache.get(new Utils.Path("/shaders/hud_vertex.glsl", true),
                 new Utils.Path("/shaders/hud_fragment.glsl", true));
-        sp.registerUniform("ar"); // register aspect ratio uniform
-        sp.registerUniform("arAction"); // register aspect ratio action uniform
         sp.registerUniform("x"); // register object x uniform
         sp.registerUniform("y"); // register object y uniform
-        sp.registerUniform("isTextured"); // register texture flag uniform
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME); // register model transform uniform
+        sp.registerDefine("TEXTURED"); // register texture flag define
         sp.registerUniform("color"); // register color uniform
-        sp.registerUniform("blend"); // register blend uniform
+        sp.registerDefine("BLEND"); // register blend define
         sp.registerUniform("texSampler"); // register texture sampler uniform
+        sp.registerUniform("ar"); // register aspect ratio uniform
+        sp.registerUniform("arAction"); // register aspect ratio action uniform
         sp.registerUniform("minY"); // register minimum y uniform
         sp.registerUniform("maxY"); // register maximum y uniform
         sp.registerUniform("boundY"); // register y bounding flag uniform
@@ -139,13 +142,13 @@ public class ROC {
             if (this.fadeTimeLeft > 0f) { // if fading in
                 fadeTimeLeft -= interval; // account for the time
                 this.fadeBox.getMaterial().getColor()[3] = (fadeTimeLeft / fadeTime); // update the alpha of the color
-                if (fadeTimeLeft <= 0f) this.fadeBox = null; // if time is up, delete fade box
+                if (fadeTimeLeft <= 0f) this.removeFadeBox(); // if time is up, delete fade box
             } else { // if fading out
                 fadeTimeLeft += interval; // account for the time
                 this.fadeBox.getMaterial().getColor()[3] = 1f - (fadeTimeLeft / fadeTime); // update the alpha of color
                 /* wait an extra second after fade is done to delete the box in case another render or two occurs during
                    a transition */
-                if (fadeTimeLeft >= 1f) this.fadeBox = null; // delete after an additional second of waiting
+                if (fadeTimeLeft >= 1f) this.removeFadeBox(); // delete after an additional second of waiting
             }
         }
         Global.debugInfo.setField("ROC animated textures", Integer.toString(this.ats.size()));
@@ -155,14 +158,20 @@ public class ROC {
      * Renders everything held within the ROC: the game world, the static objects, and the fade box
      */
     public void render() {
+        Profiler.begin("roc"); // profile ROC rendering
         if (this.gameWorld != null) this.gameWorld.render(); // render the world first, underneath the static objects
+        RenderStats.Pass pass = RenderStats.setPass(RenderStats.Pass.HUD); // record work as HUD rendering
         this.sp.bind(); // bind static object shader program
-        this.sp.setUniform("texSampler", 0); // set texture sampler uniform to use texture unit 0
-        this.sp.setUniform("ar", Global.ar); // set aspect ratio uniform
-        this.sp.setUniform("arAction", Global.arAction ? 1 : 0); // set aspect ratio action uniform
-        for (StaticObject so : this.staticObjects.values()) so.o.render(this.sp); // render static objects
-        if (this.fadeBox != null) fadeBox.render(this.sp); // render fade box if enabled
+        this.sp.uniform(ShaderProgram.Common.TEX_SAMPLER).set(0); // set texture sampler uniform to use texture unit 0
+        this.sp.uniform(ShaderProgram.Common.AR).set(Global.ar); // set aspect ratio uniform
+        this.sp.uniform(ShaderProgram.Common.AR_ACTION).set(Global.arAction ? 1 : 0); // set aspect ratio action uniform
+        this.batch.begin(this.sp); // begin batching static objects
+        for (StaticObject so : this.staticObjects.values()) this.batch.render(so.o); // render static objects
+        if (this.fadeBox != null) this.batch.render(this.fadeBox); // render fade box if enabled
+        this.batch.end(); // draw remaining static objects
         this.sp.unbind(); // unbind shader program
+        RenderStats.setPass(pass); // restore previous pass
+        Profiler.end("roc");
     }
 
     /**
@@ -173,7 +182,8 @@ public class ROC {
      * @param time  how long (in seconds) the fade should take
      */
     public void fadeIn(float[] color, float time) {
-        this.fadeBox = new GameObject(Model.getStdGridRect(1, 1), new Material(color)); // create fade box
+        this.removeFadeBox(); // remove any old fade box
+        this.fadeBox = new GameObject(ModelCache.getGridRect(1, 1, false), new Material(color)); // create fade box
         // scale the fade box based on the window size and aspect ratio
         this.fadeBox.setScale(2f * (Global.ar > 1f ? Global.ar : 1), 2f / (Global.ar < 1f ? Global.ar : 1));
         this.fadeTime = this.fadeTimeLeft = time; // start timer
@@ -187,12 +197,27 @@ public class ROC {
      * @param time  how long (in seconds) the fade should take
      */
     public void fadeOut(float[] color, float time) {
-        this.fadeBox = new GameObject(Model.getStdGridRect(1, 1), new Material(color)); // create fade box
+        this.removeFadeBox(); // remove any old fade box
+        this.fadeBox = new GameObject(ModelCache.getGridRect(1, 1, false), new Material(color)); // create fade box
         // scale the fade box based on the window size and aspect ratio
         this.fadeBox.setScale(2f * (Global.ar > 1f ? Global.ar : 1), 2f / (Global.ar < 1f ? Global.ar : 1));
         this.fadeTime = this.fadeTimeLeft = -time; // start timer
     }
 
+    /**
+     * Removes the fade box if there is one. Cleaning up the old fade box is not urgent, so it is posted to the task
+     * scheduler to be done when there is time. See utils.TaskScheduler
+     */
+    private void removeFadeBox() {
+        if (this.fadeBox == null) return; // if there is no fade box, return
+        GameObject old = this.fadeBox; // save a reference to the old fade box
+        TaskScheduler.post(this, () -> { // post a task to clean up the old fade box
+            old.cleanup(); // clean it up
+            return true; // and finish
+        });
+        this.fadeBox = null; // delete the fade box
+    }
+
     /**
      * Ensures the positions of all static objects
      */
@@ -321,18 +346,27 @@ public class ROC {
         return this.fadeBox != null; // if the fade box isn't null, a fade is being performed
     }
 
+    /**
+     * @return whether any of the ROC's static objects are currently positionally animating
+     */
+    public boolean animating() {
+        for (StaticObject so : this.staticObjects.values()) if (so.o.posAnimating()) return true; // check each
+        return false;
+    }
+
     /**
      * Cleans up the ROC by cleaning up static objects and the game world
      */
     public void cleanup() {
         if (this.sp != null) this.sp.cleanup(); // cleanup shader program
+        this.batch.cleanup(); // cleanup sprite batch
         if (this.gameWorld != null) this.gameWorld.cleanup(); // cleanup game worlds
+        TaskScheduler.flush(this); // perform the ROC's remaining deferred work, such as cleaning up old fade boxes
         if (this.fadeBox != null) this.fadeBox.cleanup(); // cleanup fade box
         for (StaticObject so : this.staticObjects.values()) {
             if (so.o != Global.debugInfo) // if the static object is not the debug info
                 so.o.cleanup(); // cleanup static objects
         }
-        AnimatedTexture.texCoords = new HashMap<>(); // reset animated texture texture coordinate VBOs
     }
 
     /**
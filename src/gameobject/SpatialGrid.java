@@ -0,0 +1,132 @@
+package gameobject;
+
+import utils.PhysicsEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * SpatialGrid.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Buckets game objects into a uniform grid of square cells by their position so that the game objects near a given
+ * area can be found without looking at every game object. Game objects in a spatial grid keep a reference to it and
+ * tell it whenever they move (see GameObject's onMove() method), so the grid always stays up to date. A game object can
+ * only be in one spatial grid at a time. Game objects outside of the grid's bounds are put into the nearest edge cell
+ */
+public class SpatialGrid {
+
+    /**
+     * Members
+     */
+    private final List<GameObject>[] cells; // the game objects in each cell, indexed by column * rows + row
+    private final float cellSize;           // the width and height of each cell
+    private final int cols, rows;           // the amount of columns and rows of cells
+
+    /**
+     * Constructs the spatial grid to cover the area from (0, 0) to (w, h)
+     *
+     * @param w        the width of the area to cover
+     * @param h        the height of the area to cover
+     * @param cellSize the width and height of each cell
+     */
+    public SpatialGrid(float w, float h, float cellSize) {
+        this.cellSize = cellSize; // save cell size as member
+        this.cols = Math.max(1, (int) Math.ceil(w / cellSize)); // calculate amount of columns
+        this.rows = Math.max(1, (int) Math.ceil(h / cellSize)); // calculate amount of rows
+        this.cells = new List[this.cols * this.rows]; // create cell array
+        for (int i = 0; i < this.cells.length; i++) this.cells[i] = new ArrayList<>(); // create each cell
+    }
+
+    /**
+     * Adds the given game object to the grid. If the game object was in another grid, it is removed from it first
+     *
+     * @param go the game object to add
+     */
+    public void add(GameObject go) {
+        if (go.grid != null) go.grid.remove(go); // remove from previous grid
+        go.grid = this; // tell the game object which grid it is in
+        go.gridCell = this.cellOf(go.getX(), go.getY()); // find its cell
+        this.cells[go.gridCell].add(go); // and add it there
+    }
+
+    /**
+     * Removes the given game object from the grid
+     *
+     * @param go the game object to remove
+     */
+    public void remove(GameObject go) {
+        if (go.grid != this) return; // if not in this grid, there is nothing to remove
+        this.cells[go.gridCell].remove(go); // remove from its cell
+        go.grid = null; // it is no longer in a grid
+    }
+
+    /**
+     * Moves the given game object to the correct cell for its position. This is called by game objects in the grid
+     * whenever they move
+     *
+     * @param go the game object that moved
+     */
+    void update(GameObject go) {
+        int cell = this.cellOf(go.getX(), go.getY()); // find the cell it should be in
+        if (cell == go.gridCell) return; // if it is already there, nothing needs to change
+        this.cells[go.gridCell].remove(go); // remove from old cell
+        this.cells[cell].add(go); // add to new cell
+        go.gridCell = cell; // remember new cell
+    }
+
+    /**
+     * Finds all game objects in cells overlapping the given axis-aligned bounding box. Since only whole cells are
+     * checked, some of the game objects found may be outside of the bounding box
+     *
+     * @param aabb the axis-aligned bounding box to look in
+     * @param out  the list to add the game objects found to
+     */
+    public void query(PhysicsEngine.AABB aabb, List<GameObject> out) {
+        // find the range of cells that overlap the bounding box
+        int minCol = this.clamp((int) Math.floor((aabb.getCX() - aabb.getW2()) / this.cellSize), this.cols);
+        int maxCol = this.clamp((int) Math.floor((aabb.getCX() + aabb.getW2()) / this.cellSize), this.cols);
+        int minRow = this.clamp((int) Math.floor((aabb.getCY() - aabb.getH2()) / this.cellSize), this.rows);
+        int maxRow = this.clamp((int) Math.floor((aabb.getCY() + aabb.getH2()) / this.cellSize), this.rows);
+        for (int c = minCol; c <= maxCol; c++) for (int r = minRow; r <= maxRow; r++) // for each cell in range
+            out.addAll(this.cells[c * this.rows + r]); // add its game objects
+    }
+
+    /**
+     * Removes every game object from the grid
+     */
+    public void clear() {
+        for (List<GameObject> cell : this.cells) { // for each cell
+            for (GameObject go : cell) go.grid = null; // tell its game objects they are no longer in a grid
+            cell.clear(); // and empty it
+        }
+    }
+
+    /**
+     * Calculates which cell the given position is in, using the nearest edge cell for positions outside of the grid
+     *
+     * @param x the x of the position
+     * @param y the y of the position
+     * @return the index of the cell
+     */
+    private int cellOf(float x, float y) {
+        int c = this.clamp((int) Math.floor(x / this.cellSize), this.cols); // find column
+        int r = this.clamp((int) Math.floor(y / this.cellSize), this.rows); // find row
+        return c * this.rows + r; // return index
+    }
+
+    /**
+     * Clamps a column or row to be within the grid
+     *
+     * @param i   the column or row to clamp
+     * @param max the amount of columns or rows
+     * @return the clamped column or row
+     */
+    private int clamp(int i, int max) {
+        return Math.max(0, Math.min(max - 1, i));
+    }
+}
@@ -1,6 +1,7 @@
 package gameobject.gameworld;
 
 import gameobject.GameObject;
+import gameobject.SpatialGrid;
 import gameobject.ui.EnhancedTextObject;
 import gameobject.ui.TextObject;
 import graphics.*;
@@ -8,10 +9,12 @@ import utils.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import static gameobject.gameworld.Block.renderBlocks;
 import static gameobject.ui.EnhancedTextObject.Line.DEFAULT_PADDING;
 import static gameobject.ui.EnhancedTextObject.Line.DEFAULT_SCALE;
 
@@ -54,28 +57,65 @@ public class Area {
      */
     private static final float GATE_ENTER_DIST_THRESHOLD = 3f; /* the maximum distance a player should be away from a
                                                                   gate to enter it when the gate enter key is pressed */
+    private static final int BACKDROP_LAYER = 0;               // the render queue layer of the backdrop
+    private static final int[] BLOCK_LAYERS = {1, 3, 5};       // the render queue layers of blocks in each layer
+    private static final int[] DECOR_LAYERS = {2, 6};          // the render queue layers of background/foreground decor
+    private static final int OBJECT_LAYER = 4;                 // the render queue layer of the world objects
+    private static final float GRID_CELL_SIZE = 8f;            // the size of spatial grid cells (in blocks)
+    private static final float LIGHT_CULL_FACTOR = 1.5f;       /* how many times a light's reach it can be from the
+                                                                  camera's view before it is culled. This is more than
+                                                                  its reach to leave room for flicker and offsets */
+    private static final float SKIP_FRACTION = 0.25f;          /* low detail decor smaller than this fraction of the
+                                                                  low detail size is not rendered at all */
+    private static final int CLEANUPS_PER_PERFORM = 16;        /* how many decor pieces or block materials to clean up
+                                                                  each time the deferred cleanup task is performed */
 
     /**
      * Members
      */
-    private final Map<Material, List<Pair<Integer>>>[] blocks;  /* an array of lists of block positions grouped by
+    private final Map<Material, Block.BlockInstances>[] blocks; /* an array of maps of block instances grouped by
         material. Blocks are indexed by material in this way this way to facilitate efficient rendering of large
-        quantities of blocks. See the renderBlocks() method for more info on efficient block rendering. There are three
+        quantities of blocks. See Block.BlockCommand for more info on efficient block rendering. There are three
         different maps in this array where blocks[0] represents the background blocks, blocks[1] represents the
         middleground blocks, and blocks[2] represents the foreground blocks */
     private final List<GameObject>[] decor;                     /* two lists of decor in the area where decor[0] is
                                                                    background decor and decor[1] is foreground decor */
+    private final SpatialGrid[] decorGrids;                     /* spatial grids of the decor that does not emit light
+                                                                   in each decor layer, used for culling */
+    private final List<GameObject>[] lightDecor;                /* the decor that emits light in each decor layer. This
+                                                                   is culled by reach rather than by position */
+    private final SpatialGrid staticDecorGrid;                  /* spatial grid of the background decor that never
+                                                                   changes, which is cached into the decor cache */
+    private final SpatialGrid objectGrid;                       // spatial grid of the world objects in the area
+    private final List<GameObject> found = new ArrayList<>();   // list to reuse for spatial grid query results
     private final List<Gate> gates;                             // a list of gates to other areas
     private final List<AnimatedTexture> ats;                    // a list of animated textures to update
+    private final Set<AnimatedTexture> animating = new HashSet<>(); // animated textures seen animating last render
     private final boolean[][] blockMap;                         // block map of the middleground for collision
     private final PhysicsEngine.SlopeType[][] slopeMap;         // slope map of the middleground for collision
     private final Block.BlockModel bm = new Block.BlockModel(); // all blocks use same 1x1 square model
+    private final Block.BlockCommand[][] blockCommands;         /* a render command for each material of blocks in
+                                                                   each layer, indexed the same way as blocks */
+    private final RenderQueue queue;                            // render queue used to render the area
+    private final RenderQueue.Command backdropCommand;          // render command that renders the backdrop
+    private final Block.BlockCommand[] staticBlockCommands;     /* render commands for the background blocks that
+                                                                   never change, used to render the block cache */
+    private final TileCache blockCache;                         /* cache of the background blocks that never change,
+                                                                   drawn in the background block layer. See
+                                                                   graphics.TileCache */
+    private final TileCache decorCache;                         /* cache of the background decor that never changes
+                                                                   and low detail background decor, drawn in the
+                                                                   background decor layer so that it stays over the
+                                                                   background blocks that are not cached */
     private final String name;                                  // the name of the area
     private final float startingSunRotation;                    /* the rotation to set the sun to when the area is
                                                                    entered. If -1, the sun's rotation will not be
                                                                    changed */
     private final float sunSpeed;                               // the sun's speed while in this area
     private final boolean lightForeground;                      // whether to apply lights to objects in the foreground
+    private final float lodPixels;                              /* plain decor smaller than this many pixels on screen
+                                                                   is rendered at a lower level of detail */
+    private float lodSize;                                      // lodPixels in world units at the current zoom
     private BackDrop backdrop;                                  // the backdrop rendered behind the world
 
     /**
@@ -130,6 +170,7 @@ public class Area {
      */
     public Area(Node data) {
         double time = Timer.getTimeMilliseconds(); // record time at beginning of area loading
+        GPUResources.beginOwner(this); // GL objects created while loading belong to the area (see cleanup())
 
         /*
          * Load area information using node loader
@@ -159,32 +200,142 @@ public class Area {
         /*
          * Apply loaded information
          */
-        this.blocks = new Map[]{new HashMap<>(), new HashMap<>(), new HashMap<>()}; // block pos for each layout layer
+        Map<Material, List<Pair<Integer>>>[] blockPositions = new Map[]{new HashMap<>(), new HashMap<>(),
+                new HashMap<>()}; // block positions for each layout layer
         this.decor = new List[]{new ArrayList<>(), new ArrayList<>()}; // decor list for background and foreground
         this.gates = new ArrayList<>(); // initialize gates array list
         this.ats = new ArrayList<>(); // create new list to animated textures to update
         Object[] maps = Block.loadLayoutBlocks((Node) (area.get("block_key")),
                 (Node) (area.get("background_layout")), (Node) (area.get("middleground_layout")),
-                (Node) (area.get("foreground_layout")), this.blocks, this.ats); // load block layout
+                (Node) (area.get("foreground_layout")), blockPositions, this.ats); // load block layout
+        this.blocks = Block.createBlockInstances(blockPositions); // convert block positions into block instances
+        this.blockCommands = new Block.BlockCommand[this.blocks.length][]; // create block commands for each layer
+        for (int i = 0; i < this.blocks.length; i++) {
+            this.blockCommands[i] = new Block.BlockCommand[this.blocks[i].size()]; // one for each material
+            int j = 0; // keep track of the command index
+            for (Map.Entry<Material, Block.BlockInstances> e : this.blocks[i].entrySet())
+                this.blockCommands[i][j++] = new Block.BlockCommand(this.bm, e.getKey(), e.getValue());
+        }
+        List<Block.BlockCommand> staticBlocks = new ArrayList<>(); // create separate commands for the block cache
+        for (Map.Entry<Material, Block.BlockInstances> e : this.blocks[0].entrySet())
+            if (isStatic(e.getKey())) staticBlocks.add(new Block.BlockCommand(this.bm, e.getKey(), e.getValue()));
+        this.staticBlockCommands = staticBlocks.toArray(new Block.BlockCommand[0]);
         this.blockMap = (boolean[][])maps[0]; // save block map
         this.slopeMap = (PhysicsEngine.SlopeType[][])maps[1]; // save slope map
         // load decor using decor key and Decor class
         if (area.get("decor_key") != null) Decor.loadLayoutDecor((Node) (area.get("decor_key")),
                 (Node) (area.get("background_layout")), (Node) (area.get("middleground_layout")),
                 (Node) (area.get("foreground_layout")), this.decor, this.gates, this.ats, this.blockMap, this.slopeMap);
+        this.cullCoveredDecor((boolean[][]) maps[2]); // remove background decor hidden behind opaque blocks
+        // bucket decor and world objects into spatial grids over the block map for culling
+        this.decorGrids = new SpatialGrid[this.decor.length]; // create spatial grid array for decor
+        this.lightDecor = new List[this.decor.length]; // create light-emitting decor list array
+        this.staticDecorGrid = new SpatialGrid(this.blockMap.length, this.blockMap[0].length, GRID_CELL_SIZE);
+        for (int i = 0; i < this.decor.length; i++) { // for each layer of decor
+            this.decorGrids[i] = new SpatialGrid(this.blockMap.length, this.blockMap[0].length, GRID_CELL_SIZE);
+            this.lightDecor[i] = new ArrayList<>(); // create list for light-emitting decor
+            for (GameObject o : this.decor[i]) { // put each decor piece in a grid or the light-emitting list
+                if (i == 0 && o.getClass() == GameObject.class && isStatic(o.getMaterial()))
+                    this.staticDecorGrid.add(o); // static background decor goes in the static decor grid
+                else if (o.getMaterial() instanceof LightSourceMaterial) this.lightDecor[i].add(o);
+                else this.decorGrids[i].add(o);
+            }
+        }
+        this.objectGrid = new SpatialGrid(this.blockMap.length, this.blockMap[0].length, GRID_CELL_SIZE);
         this.name = (String) (area.get("name")); // save name
         this.lightForeground = (Boolean) (area.get("light_foreground")); // save foreground lighting flag
+        this.lodPixels = (Float) Settings.getSetting(Settings.Setting.DECOR_LOD_PIXELS); // get decor LOD setting
         this.startingSunRotation = (float) (area.get("starting_sun_rotation")); // save starting sun rotation
         this.sunSpeed = (float) (area.get("sun_speed")); // save sun speed
         String type = ((Node) (area.get("backdrop"))).getValue().toLowerCase(); // get type of backdrop
         if (type.equals("material_backdrop")) this.backdrop = new MaterialBackDrop(((Node) (area.get("backdrop"))),
                 this.blockMap.length, this.blockMap[0].length); // if material backdrop, create it
         else if (type.equals("block_backdrop")) this.backdrop = new BlockBackDrop(((Node) (area.get("backdrop"))),
-                this.blockMap.length, this.blockMap[0].length); // if block backdrop, create it
+                this.blockMap.length, this.blockMap[0].length, (boolean[][]) maps[3]); // if block backdrop, create it
+        this.queue = new RenderQueue(1024, 256); // create render queue
+        this.backdropCommand = sp -> this.backdrop.render(sp); // create backdrop render command
+        this.blockCache = new TileCache((sp, region) -> { // create block cache which renders static background blocks
+            region.add(1f); // only add enough to catch blocks
+            for (Block.BlockCommand bc : this.staticBlockCommands) bc.prepare(region).execute(sp); // render them
+        });
+        this.decorCache = new TileCache((sp, region) -> { // create decor cache which renders static background decor
+            region.scale(2f); // scale region for decor to avoid clipping large decor
+            this.staticDecorGrid.query(region, this.found); // find decor near the region
+            for (GameObject o : this.found) if (region.contains(o.getX(), o.getY())) o.render(sp); // render it
+            this.found.clear(); // clear query results
+            // low detail background decor is not seen animating, so it is cached at whatever frame it stopped at
+            this.decorGrids[0].query(region, this.found); // find decor near the region
+            for (GameObject o : this.found) if (this.isLowDetail(o) && region.contains(o.getX(), o.getY()))
+                o.render(sp); // render it if it is low detail
+            this.found.clear(); // clear query results
+        });
+        // enable the day/night cycle and single lights before rendering anything
+        this.queue.setLayerSetup(BACKDROP_LAYER, sp -> {
+            sp.setDefine("USE_DNC", 1); // enable day/night cycle usage
+            sp.setDefine("USE_LIGHTS", 1); // enable usage of single lights
+        });
+        // disable light usage for foreground objects if the setting is set to false
+        if (!this.lightForeground) this.queue.setLayerSetup(BLOCK_LAYERS[2], sp -> sp.setDefine("USE_LIGHTS", 0));
+        // reset lighting flags to false to render post-renders
+        this.queue.setLayerSetup(RenderQueue.POST_RENDER_LAYER, sp -> {
+            sp.setDefine("USE_LIGHTS", 0); // turn off individual light usage
+            sp.setDefine("USE_DNC", 0); // turn off day/night cycle usage
+        });
+        GPUResources.endOwner(); // loading is done
         Utils.log("Finished loading area '" + this.name + "' in " + String.format("%.2f",
                 (Timer.getTimeMilliseconds() - time)) + "ms", this.getClass(), "Area",
                 false); // log time it took to load area
         Global.debugInfo.setField("area animated textures", Integer.toString(this.ats.size()));
+        Global.debugInfo.setField("shared models", Integer.toString(ModelCache.size())); // show shared model count
+    }
+
+    /**
+     * Removes background decor that is entirely within cells covered by opaque middleground or foreground blocks, since
+     * it can never be seen. Only plain decor is removed, because decor that emits light still lights its surroundings
+     * and gates can still be interacted with. The materials of removed decor that no remaining decor uses are cleaned
+     * up
+     *
+     * @param covered the occlusion map of cells covered by opaque middleground or foreground blocks
+     */
+    private void cullCoveredDecor(boolean[][] covered) {
+        List<GameObject> hidden = new ArrayList<>(); // find hidden decor
+        for (GameObject o : this.decor[0]) { // for each background decor piece
+            if (o.getClass() != GameObject.class || o.getMaterial() instanceof LightSourceMaterial) continue;
+            // find the range of cells the decor overlaps
+            int minX = (int) Math.floor(o.getX() - o.getWidth() / 2), maxX = (int) Math.ceil(o.getX() +
+                    o.getWidth() / 2) - 1;
+            int minY = (int) Math.floor(o.getY() - o.getHeight() / 2), maxY = (int) Math.ceil(o.getY() +
+                    o.getHeight() / 2) - 1;
+            if (minX < 0 || minY < 0 || maxX >= covered.length || maxY >= covered[0].length) continue; // off the map
+            boolean isHidden = true; // check if every overlapped cell is covered
+            for (int x = minX; x <= maxX && isHidden; x++) for (int y = minY; y <= maxY && isHidden; y++)
+                isHidden = covered[x][y];
+            if (isHidden) hidden.add(o); // if so, the decor is hidden
+        }
+        if (hidden.isEmpty()) return; // nothing to do if no decor is hidden
+        this.decor[0].removeAll(hidden); // remove hidden decor
+        Set<Material> used = new HashSet<>(); // find the materials still used by the remaining decor
+        for (List<GameObject> layer : this.decor) for (GameObject o : layer) used.add(o.getMaterial());
+        Set<Material> unused = new HashSet<>(); // clean up the materials no longer used
+        for (GameObject o : hidden) if (!used.contains(o.getMaterial())) unused.add(o.getMaterial());
+        for (Material m : unused) {
+            if (m.getTexture() instanceof AnimatedTexture) this.ats.remove(m.getTexture()); // stop animating it
+            m.cleanup();
+        }
+        Utils.log("Removed " + hidden.size() + " hidden background decor pieces", this.getClass(), "cullCoveredDecor",
+                false); // log removed decor count
+    }
+
+    /**
+     * Determines whether blocks or decor with the given material never change in appearance and can therefore be
+     * cached. Materials that emit light need to be rendered every frame to update their light, and materials with
+     * animated textures change every frame
+     *
+     * @param m the material to check
+     * @return whether the material never changes in appearance
+     */
+    private static boolean isStatic(Material m) {
+        return !(m instanceof LightSourceMaterial) && !(m.getTexture() instanceof AnimatedTexture);
     }
 
     /**
@@ -214,12 +365,14 @@ public class Area {
     }
 
     /**
-     * Updates the area's animated textures and decor
+     * Updates the area's animated textures and decor. Animated textures are only updated if they were rendered large
+     * enough to be seen animating in the last render (see render()), so animations out of view or too small to notice
+     * stay frozen at their current frame
      *
      * @param interval the amount of time to account for
      */
     public void update(float interval) {
-        for (AnimatedTexture at : this.ats) at.update(interval); // update animated textures
+        for (AnimatedTexture at : this.ats) if (this.animating.contains(at)) at.update(interval); // update animations
         for (GameObject o : this.decor[0]) o.update(interval); // update background decor
         for (GameObject o : this.decor[1]) o.update(interval); // update foreground decor
     }
@@ -242,50 +395,143 @@ public class Area {
     }
 
     /**
-     * Renders the area's blocks and decor
+     * Renders the area's blocks, decor, and world objects. Everything is submitted to the area's
+     * render queue in its layer (backdrop, background blocks, background decor, middleground blocks, world objects,
+     * foreground blocks, foreground decor, and then post-renders) and the queue is then executed, rendering the layers
+     * in order while grouping everything within a layer by texture and material. Decor and world objects are found
+     * using the spatial grids so that only those near the camera's view are considered, while light-emitting decor is
+     * rendered whenever its light could reach the camera's view. Background blocks that never change are drawn from the
+     * block cache in the background block layer, and background decor that never changes is drawn from the decor cache
+     * in the background decor layer, so that everything is layered the same whether or not the caches can be used.
+     * <p>
+     * Decor smaller than the decor LOD pixels setting on screen is small, and its animated texture is not kept
+     * animating on its behalf. Light-emitting decor is also not kept animating while it is out of view, even if its
+     * light can still be seen. Small plain decor is low detail: low detail background decor is cached into the decor
+     * cache at its frozen frame along with the static background decor, and low detail decor smaller than SKIP_FRACTION
+     * of that size is not rendered at all. Animated textures that end up rendered in view and not small (including
+     * blocks, which count as one unit in size) are remembered so that only they are updated
      *
      * @param sp      the shader program to use for rendering
-     * @param os      the lists of world objects to render in the area
      * @param camView the camera view's axis-aligned bounding box which will be used to only render objects within view.
      *                This cuts rendering time down by a lot (half the rendering time in some cases according to my
      *                tests!)
      */
-    public void render(ShaderProgram sp, List<WorldObject> os, PhysicsEngine.AABB camView, Camera cam) {
-        int blocksRendered = 0, decorRendered = 0; // keep track of block render count and decor render count
+    public void render(ShaderProgram sp, PhysicsEngine.AABB camView, Camera cam) {
+        Profiler.begin("area"); // profile area rendering
+        int blocksRendered = 0, decorRendered = 0, lowDetail = 0; // keep track of block and decor render counts
+        this.animating.clear(); // find which animated textures are seen this frame
+        // convert the low detail pixel size into world units using the on-screen size of the world
+        float ppu = cam.getPixelsPerUnit(Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
+        float lodSize = ppu > 0f ? this.lodPixels / ppu : 0f; // nothing is low detail if the window has no size
+        if (lodSize != this.lodSize) { // if it changed, which decor is low detail may have changed
+            this.lodSize = lodSize; // save new size
+            this.decorCache.invalidate(); // and re-render the decor cache since it contains low detail decor
+        }
         // all blocks are the same size so a smaller view can be used to cull out the blocks that to not need rendered
-        PhysicsEngine.AABB blockView = new PhysicsEngine.AABB(camView); // copy camera view
+        PhysicsEngine.AABB blockView = FrameArena.aabb(camView); // copy camera view
         blockView.add(1f / cam.getZoom()); // only add enough to catch blocks
+        boolean blocksCached = this.blockCache.update(sp, camView, cam); // update the block cache
+        boolean decorCached = this.decorCache.update(sp, camView, cam); // and the decor cache
         camView.scale(2f); // scale other objects' camera-view to avoid clipping large objects
-        sp.setUniform("useDNC", 1); // enable day/night cycle usage
-        sp.setUniform("useLights", 1); // enable usage of single lights after backdrop has been rendered
-        this.backdrop.render(sp); // render the backdrop
-        blocksRendered += renderBlocks(this.bm, sp, this.blocks[0], blockView); // render the background blocks
-        for (GameObject o : this.decor[0]) { // for each decor piece, if its within view or produces light
-            if (camView.contains(o.getX(), o.getY()) || o.getMaterial() instanceof LightSourceMaterial) {
-                o.render(sp); // render it
-                decorRendered++; // iterate decor rendered counter
+        this.queue.submit(BACKDROP_LAYER, null, this.backdropCommand); // submit the backdrop
+        // submit the caches if usable. Each is drawn in the same layer as what it caches would have been
+        if (blocksCached) this.queue.submit(BLOCK_LAYERS[0], null, this.blockCache);
+        if (decorCached) this.queue.submit(DECOR_LAYERS[0], null, this.decorCache);
+        for (int i = 0; i < this.blockCommands.length; i++) // submit the blocks of each layer
+            for (Block.BlockCommand bc : this.blockCommands[i]) {
+                if (blocksCached && i == 0 && isStatic(bc.getMaterial())) { // if the blocks are drawn by the cache
+                    bc.prepare(blockView); // reset the command's render count since it will not be executed
+                    continue; // and skip it
+                }
+                this.queue.submit(BLOCK_LAYERS[i], bc.getMaterial(), bc.prepare(blockView));
             }
-        }
-        //for (GameObject o : this.decor[0]) o.render(sp);
-        blocksRendered += renderBlocks(this.bm, sp, this.blocks[1], blockView); // render the middleground blocks
-        // render world objects (middleground) from the game world that are within the camera's view
-        for (WorldObject wo : os) if (camView.contains(wo.getX(), wo.getY())) wo.render(sp);
-        // disable light usage for foreground objects if the setting is set to false
-        if (!this.lightForeground) sp.setUniform("useLights", 0);
-        blocksRendered += renderBlocks(this.bm, sp, this.blocks[2], blockView); // render the foreground blocks
-        // render foreground decor that is within the camera's view
-        for (GameObject o : this.decor[1]) { // for each decor piece, if its within view or produces light
-            if (camView.contains(o.getX(), o.getY()) || o.getMaterial() instanceof LightSourceMaterial) {
-                o.render(sp); // render it
+        for (int i = 0; i < this.decor.length; i++) { // for each layer of decor
+            this.decorGrids[i].query(camView, this.found); // find decor near the camera's view
+            // static background decor is rendered directly if the decor cache cannot be used
+            if (i == 0 && !decorCached) this.staticDecorGrid.query(camView, this.found);
+            for (GameObject o : this.found) { // for each decor piece found, if its within view
+                if (!camView.contains(o.getX(), o.getY())) continue;
+                if (this.isLowDetail(o)) { // if it is low detail
+                    lowDetail++; // iterate low detail decor counter
+                    if (i == 0 && decorCached) continue; // skip it if it is drawn by the decor cache
+                    // skip it if it is too small to be seen at all
+                    if (Math.max(o.getWidth(), o.getHeight()) < this.lodSize * SKIP_FRACTION) continue;
+                } else this.animate(o.getMaterial()); // otherwise, its animated texture should be seen animating
+                this.queue.submit(DECOR_LAYERS[i], o); // submit it
                 decorRendered++; // iterate decor rendered counter
             }
+            this.found.clear(); // clear query results
+            for (GameObject o : this.lightDecor[i]) { // for each light-emitting decor piece, if its light could be seen
+                float reach = ((LightSourceMaterial) o.getMaterial()).getLight().getReach() * LIGHT_CULL_FACTOR;
+                if (camView.contains(o.getX(), o.getY(), reach)) {
+                    // if it is in view and not small, its animated texture should be seen animating
+                    if (camView.contains(o.getX(), o.getY()) && !this.isSmall(o)) this.animate(o.getMaterial());
+                    this.queue.submit(DECOR_LAYERS[i], o); // submit it
+                    decorRendered++; // iterate decor rendered counter
+                }
+            }
+        }
+        // submit world objects (middleground) that are within the camera's view
+        this.objectGrid.query(camView, this.found); // find world objects near the camera's view
+        for (GameObject o : this.found) if (camView.contains(o.getX(), o.getY())) this.queue.submit(OBJECT_LAYER, o);
+        this.found.clear(); // clear query results
+        sp.useRenderQueue(this.queue); // submit post-renders to the render queue
+        int draws = this.queue.execute(sp); // render everything
+        sp.useRenderQueue(null); // stop using the render queue for post-renders
+        for (Block.BlockCommand[] bcs : this.blockCommands) for (Block.BlockCommand bc : bcs) { // for each command
+            blocksRendered += bc.getRendered(); // count rendered blocks
+            // if blocks were rendered large enough to be seen, their animated texture should be seen animating
+            if (bc.getRendered() > 0 && this.lodSize <= 1f) this.animate(bc.getMaterial());
         }
         Global.debugInfo.setField("decor", Integer.toString(decorRendered)); // show decor render count in debug
+        Global.debugInfo.setField("low detail decor", Integer.toString(lowDetail)); // show low detail decor count
+        Global.debugInfo.setField("area animated textures", this.animating.size() + "/" +
+                this.ats.size()); // show how many animated textures are being updated in debug
+        Global.debugInfo.setField("draws", Integer.toString(draws)); // show world draw calls in debug
+        Global.debugInfo.setField("static tiles", (blocksCached ? this.blockCache.getVisibleCount() : 0) +
+                (decorCached ? this.decorCache.getVisibleCount() : 0) + ""); // show how many cache tiles were drawn
         Global.debugInfo.setField("blocks", Integer.toString(blocksRendered)); // show block render count in debug
-        // reset lighting flags to false to render post-renders
-        sp.setUniform("useLights", 0); // turn off individual light usage
-        sp.setUniform("useDNC", 0); // turn off day/night cycle usage
-        sp.renderPostRenders(); // render post-renders
+        Profiler.end("area");
+    }
+
+    /**
+     * Determines whether the given decor piece should be rendered at a lower level of detail. Only plain decor can be,
+     * since gates must be rendered to show their labels and light-emitting decor must be rendered to update its light
+     *
+     * @param o the decor piece to check
+     * @return whether the decor piece is plain and smaller on screen than the decor LOD pixels setting
+     */
+    private boolean isLowDetail(GameObject o) {
+        return o.getClass() == GameObject.class && !(o.getMaterial() instanceof LightSourceMaterial) && this.isSmall(o);
+    }
+
+    /**
+     * Determines whether the given decor piece is too small on screen to be seen animating
+     *
+     * @param o the decor piece to check
+     * @return whether the decor piece is smaller on screen than the decor LOD pixels setting
+     */
+    private boolean isSmall(GameObject o) {
+        return Math.max(o.getWidth(), o.getHeight()) < this.lodSize;
+    }
+
+    /**
+     * Marks the animated texture of the given material, if it has one, as seen animating this frame so that it is
+     * updated (see update())
+     *
+     * @param m the material whose texture to mark
+     */
+    private void animate(Material m) {
+        if (m.getTexture() instanceof AnimatedTexture) this.animating.add((AnimatedTexture) m.getTexture());
+    }
+
+    /**
+     * Adds a world object to the area's spatial grid of world objects so that it will be rendered with the area
+     *
+     * @param wo the world object to add
+     */
+    public void addObject(WorldObject wo) {
+        this.objectGrid.add(wo); // add to grid
     }
 
     /**
@@ -331,17 +577,36 @@ public class Area {
     }
 
     /**
-     * Cleans up the area's animated textures and decor
+     * Cleans up the area's animated textures and decor. Deleting the textures of every decor piece and block material
+     * at once would cause a long frame when switching areas, so they are cleaned up a few at a time by the task
+     * scheduler instead (see utils.TaskScheduler). Once they have been, any GL objects created while loading the area
+     * that still exist are reported as leaks (see graphics.GPUResources)
      */
     public void cleanup() {
         for (AnimatedTexture at : this.ats) at.cleanup(); // cleanup animated textures
-        for (GameObject o : this.decor[0]) o.cleanup(); // cleanup background decor
-        for (GameObject o : this.decor[1]) o.cleanup(); // cleanup foreground decor
-        // cleanup block materials
-        for (Map<Material, List<Pair<Integer>>> bs : this.blocks) for (Material m : bs.keySet()) m.cleanup();
+        for (Gate g : this.gates) TaskScheduler.cancel(g); // stop creating gate labels since they won't be seen
+        List<Runnable> cleanups = new ArrayList<>(); // compile the decor and block materials to clean up later
+        for (List<GameObject> d : this.decor) for (GameObject o : d) cleanups.add(o::cleanup);
+        for (Map<Material, Block.BlockInstances> bs : this.blocks) for (Material m : bs.keySet())
+            cleanups.add(m::cleanup);
+        Iterator<Runnable> it = cleanups.iterator();
+        TaskScheduler.post(this, () -> { // post a task to clean them up
+            for (int i = 0; i < CLEANUPS_PER_PERFORM && it.hasNext(); i++) it.next().run(); // clean up a few
+            if (it.hasNext()) return false; // and continue later if there are more
+            GPUResources.checkReleased(this, false); // report any GL objects that were not cleaned up
+            return true;
+        });
+        // cleanup block instances
+        for (Map<Material, Block.BlockInstances> bs : this.blocks) for (Block.BlockInstances bi : bs.values())
+            bi.cleanup();
         this.bm.cleanup(); // cleanup the block model
+        this.queue.cleanup(); // cleanup the render queue
+        this.blockCache.cleanup(); // cleanup the caches
+        this.decorCache.cleanup();
+        this.objectGrid.clear(); // release world objects from the spatial grid since they outlive the area
+        for (SpatialGrid g : this.decorGrids) g.clear(); // release decor from the spatial grids
+        this.staticDecorGrid.clear();
         this.backdrop.cleanup(); // cleanup the backdrop
-        AnimatedTexture.texCoords = new HashMap<>(); // reset animated texture texture coordinate VBOs
     }
 
     /**
@@ -357,6 +622,7 @@ public class Area {
         private String fPath;            // the path to the new area's node-file, relative to the story folder
         private Utils.Path path;         // the path to the new area's node-file
         private GameObject label;        // a label above the gate
+        private boolean hovered;         // whether the gate is currently hovered, so a late label can be shown
 
         /**
          * Constructs the gate
@@ -372,10 +638,28 @@ public class Area {
         }
 
         /**
-         * Initializes the labels above the gate to show the player when moused over
+         * Initializes the labels above the gate to show the player when moused over. The path to the new area is
+         * resolved immediately but, because building the label is fairly expensive and the label is not needed until
+         * the gate is hovered, the label itself is created later by the task scheduler. See utils.TaskScheduler
          * @param storyFolderPath the path to the story folder to use to retrieve the new area's name
          */
         public void initLabels(Utils.Path storyFolderPath) {
+            this.path = storyFolderPath.add(this.fPath); // get and save new area's noe-file's path
+            if (!this.path.exists()) // if the path doesn't exist
+                Utils.handleException(new Exception(NodeLoader.getMessage("Gate", null,
+                        "Invalid path to linked to area node-file: " + this.path, false)),
+                        this.getClass(), "initLabels", true); // crash
+            TaskScheduler.post(this, () -> { // post a task to create the label
+                this.createLabel(); // create the label
+                return true; // and finish
+            }, TaskScheduler.PRIORITY_LOW, 2f); // at low priority, but within two seconds
+        }
+
+        /**
+         * Creates the label above the gate using the new area's name. This should only be called after the path to the
+         * new area has been resolved in initLabels()
+         */
+        private void createLabel() {
             List<EnhancedTextObject.Line> lines = new ArrayList<>(); // create list for lines of ETO
             lines.add(new EnhancedTextObject.Line("to: ???", null, EnhancedTextObject.Line.Alignment.CENTER,
                     DEFAULT_SCALE, DEFAULT_PADDING)); // first line of ETO, twice as big as second
@@ -383,21 +667,14 @@ public class Area {
                     EnhancedTextObject.Line.Alignment.CENTER, DEFAULT_SCALE / 2, DEFAULT_PADDING)); // second line
             EnhancedTextObject label = new EnhancedTextObject(new Material(new float[] {0f, 0f, 0f, 0.55f}),
                     Global.font, lines, DEFAULT_PADDING * 3f); // createe ETO
-            this.path = storyFolderPath.add(this.fPath); // get and save new area's noe-file's path
-            if (!this.path.exists()) // if the path doesn't exist
-                Utils.handleException(new Exception(NodeLoader.getMessage("Gate", null,
-                        "Invalid path to linked to area node-file: " + this.path, false)),
-                        this.getClass(), "initLabel", true); // crash
-            else { // if the path does exist
-                Node areaData = Node.pathContentsToNode(this.path); // get the new area's data
-                Node nameNode = areaData.getChild("name"); // get the name of the new area
-                // if the name node exists, update the label to contain the name
-                if (nameNode != null) label.setLineText(0, "to: " + nameNode.getValue());
-            }
+            Node areaData = Node.pathContentsToNode(this.path); // get the new area's data
+            Node nameNode = areaData.getChild("name"); // get the name of the new area
+            // if the name node exists, update the label to contain the name
+            if (nameNode != null) label.setLineText(0, "to: " + nameNode.getValue());
             label.alignAll(EnhancedTextObject.Line.Alignment.CENTER); // align text to center
             this.label = label.solidify(); // solidify enhanced text object
             this.label.setScale(5f, 5f); // scale up
-            this.label.setVisibility(false); // invisible by default
+            this.label.setVisibility(this.hovered); // only visible if the gate is already hovered
             label.cleanup(); // cleanup old label
             this.positionText(); // position the text objects
         }
@@ -421,12 +698,11 @@ public class Area {
         }
 
         /**
-         * Renders the gate and its text objects
-         * @param sp the shader program to use to render the game object
+         * Renders the gate's text objects
+         * @param sp the shader program being rendered with
          */
         @Override
-        public void render(ShaderProgram sp) {
-            super.render(sp); // render gate
+        public void renderExtras(ShaderProgram sp) {
             if (this.label != null) sp.addToPostRender(this.label); // render label in post-render
         }
 
@@ -445,10 +721,9 @@ public class Area {
          */
         @Override
         public void mouseInteraction(MouseInputEngine.MouseInputType type, float x, float y) {
-            if (type == MouseInputEngine.MouseInputType.HOVER) // if hovered
-                if (this.label != null) this.label.setVisibility(true); // make label visible
-            if (type == MouseInputEngine.MouseInputType.DONE_HOVERING) // if done hovering
-                this.label.setVisibility(false); // make label invisible
+            if (type == MouseInputEngine.MouseInputType.HOVER) this.hovered = true; // if hovered, remember
+            if (type == MouseInputEngine.MouseInputType.DONE_HOVERING) this.hovered = false; // same for done hovering
+            if (this.label != null) this.label.setVisibility(this.hovered); // label is visible only while hovered
         }
 
         /**
@@ -471,6 +746,7 @@ public class Area {
         @Override
         public void cleanup() {
             super.cleanup(); // clean up gate
+            TaskScheduler.cancel(this); // cancel label creation if it hasn't happened yet
             if (this.label != null) this.label.cleanup(); // clean up label
         }
     }
@@ -3,16 +3,20 @@ package gameobject.gameworld;
 import graphics.*;
 import utils.*;
 
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
-import static org.lwjgl.opengl.GL13.GL_TEXTURE1;
-import static org.lwjgl.opengl.GL13C.glActiveTexture;
 import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
 
 /*
  * Block.java
@@ -31,41 +35,111 @@ public abstract class Block {
      */
     private static final int NO_TEXTURE = -1;              // used to denote that a block info is not textured
     private static final int MAX_OVERLAYS = 4;             // the max amount of overlays to be applied to block texture
+    // the handles of the block formatting shader program's uniforms, kept by beginBlockFormatting()
+    private static ShaderProgram.Uniform baseUniform, framesUniform, slopeUniform; // base sampler, frames, and slope
+    private static ShaderProgram.Uniform cutRadiusUniform;                         // cut radius uniform
+    private static ShaderProgram.Uniform cutTopLeftUniform, cutTopRightUniform;    // top corner cutting uniforms
+    private static ShaderProgram.Uniform cutBottomLeftUniform, cutBottomRightUniform; // bottom corner cutting uniforms
+    private static ShaderProgram.Uniform[] overlayUniforms, rotationUniforms;      // overlay sampler/rotation arrays
 
     /**
-     * Renders the set of blocks corresponding to the given set of block positions very efficiently using the given
-     * shader program
+     * Converts the mappings of material to block positions for each layout layer (as populated by loadLayoutBlocks())
+     * into mappings of material to block instances that can be rendered using block commands. To minimize texture
+     * binds and draw calls, the textures of all non-animated block materials are packed into texture array pages by
+     * size, and colored block materials are packed as solid color layers. Each page becomes a single material whose
+     * instances each know their layer, so an entire layout layer is usually rendered with one texture bind per page.
+     * Animated block materials keep their own textures because each animates its frames independently. The packed
+     * materials are cleaned up during this process because their textures are no longer needed
      *
-     * @param bm             the block model to render
-     * @param sp             the shader program to render with
-     * @param blockPositions the list of block positions grouped together by material. The reason it is set up as a map
-     *                       from material to pair lists is because by rendering all blocks of a certain material at
-     *                       once, repetitive calls can be avoided
-     * @param camView        the axis-aligned bounding box to check the block's position against. If the block is not
-     *                       within the camera's view, it will not be rendered
-     * @return the total amount of blocks rendered
+     * @param blockPositions the mappings of material to block positions to convert for each layout layer
+     * @return the corresponding mappings of material to block instances for each layout layer
      */
-    public static int renderBlocks(BlockModel bm, ShaderProgram sp,
-                                    Map<Material, List<Pair<Integer>>> blockPositions, PhysicsEngine.AABB camView) {
-        int blocksRendered = 0; // keep track of the amount of rendered blocks
-        for (Material m : blockPositions.keySet()) { // for each material
-            Texture t = m.getTexture(); // get texture for material
-            if (t instanceof AnimatedTexture) bm.useTexCoordVBO(((AnimatedTexture) t).getTexCoordVBO(false),
-                    false); // if the texture is animated, tell the model which tex coords (frame) to use
-                // if the texture isn't animated, just use the entire texture
-            else bm.useTexCoordVBO(AnimatedTexture.getTexCoordVBO(0, 1, false), false);
-            m.setUniforms(sp); // set the appropriate material uniforms
-            // render all the blocks with that material at once and keep track of total blocks rendered
-            blocksRendered += bm.renderBlocks(sp, blockPositions.get(m), camView);
+    public static Map<Material, BlockInstances>[] createBlockInstances(Map<Material, List<Pair<Integer>>>[]
+                                                                               blockPositions) {
+        // assign each packable material a page and layer
+        int maxLayers = glGetInteger(GL_MAX_ARRAY_TEXTURE_LAYERS); // get the maximum amount of layers per page
+        Map<Material, Pair<Integer>> packing = new HashMap<>(); /* maps from packed material to where it was packed
+            where x is the index of its page and y is its layer within that page */
+        List<Pair<Integer>> pageSizes = new ArrayList<>(); // the width and height of each page
+        List<List<Material>> pageContents = new ArrayList<>(); // the materials packed into each page by layer
+        List<Material> colored = new ArrayList<>(); // colored materials to pack once the textured ones are packed
+        for (Map<Material, List<Pair<Integer>>> bp : blockPositions) for (Material m : bp.keySet()) {
+            if (packing.containsKey(m) || colored.contains(m) || m.getTexture() instanceof AnimatedTexture) continue;
+            if (!m.isTextured()) colored.add(m); // save colored materials for later
+            else { // if the material is textured, pack it into a page of the same size that has room left
+                Texture t = m.getTexture(); // get the texture
+                int page = 0; // find a page of the same size that has room left
+                while (page < pageSizes.size() && (pageSizes.get(page).x != t.getWidth() ||
+                        pageSizes.get(page).y != t.getHeight() || pageContents.get(page).size() >= maxLayers)) page++;
+                if (page == pageSizes.size()) { // if there is no such page, create a new one
+                    pageSizes.add(new Pair<>(t.getWidth(), t.getHeight()));
+                    pageContents.add(new ArrayList<>());
+                }
+                packing.put(m, new Pair<>(page, pageContents.get(page).size())); // pack into the next layer
+                pageContents.get(page).add(m);
+            }
+        }
+        for (Material m : colored) { // for each colored material, pack it into any page that has room left
+            int page = 0; // solid color layers look the same at any size so any page with room will do
+            while (page < pageSizes.size() && pageContents.get(page).size() >= maxLayers) page++;
+            if (page == pageSizes.size()) { // if there is no such page, create a new small one
+                pageSizes.add(new Pair<>(1, 1));
+                pageContents.add(new ArrayList<>());
+            }
+            packing.put(m, new Pair<>(page, pageContents.get(page).size())); // pack into the next layer
+            pageContents.get(page).add(m);
         }
-        return blocksRendered; // return total block render count
+
+        // create the pages and their materials
+        Material[] pages = new Material[pageSizes.size()]; // create an array to hold each page's material
+        for (int i = 0; i < pages.length; i++) { // for each page
+            List<Material> contents = pageContents.get(i); // get its contents
+            TextureArray ta = new TextureArray(pageSizes.get(i).x, pageSizes.get(i).y, contents.size()); // create it
+            for (int l = 0; l < contents.size(); l++) { // for each material packed into it
+                Material m = contents.get(l); // get the material
+                if (m.isTextured()) ta.setLayer(l, m.getTexture()); // copy the texture into its layer
+                else ta.setLayer(l, m.getColor()); // or fill its layer with its color
+                m.cleanup(); // the material is no longer needed after being packed
+            }
+            pages[i] = new Material(ta); // create material using the texture array
+        }
+
+        // create the block instances for each layout layer
+        Map<Material, BlockInstances>[] blockInstances = new Map[blockPositions.length]; // create array of maps
+        for (int i = 0; i < blockPositions.length; i++) { // for each layout layer
+            blockInstances[i] = new HashMap<>(); // create map to populate
+            // create lists to compile the positions and layers of the instances of each page
+            List<Pair<Integer>>[] positions = new List[pages.length];
+            List<Integer>[] layers = new List[pages.length];
+            for (int p = 0; p < pages.length; p++) {
+                positions[p] = new ArrayList<>();
+                layers[p] = new ArrayList<>();
+            }
+            for (Material m : blockPositions[i].keySet()) { // for each material in the layout layer
+                Pair<Integer> packed = packing.get(m); // get where it was packed
+                // if it wasn't packed, create block instances for it using its own texture
+                if (packed == null) blockInstances[i].put(m, new BlockInstances(blockPositions[i].get(m), null));
+                else for (Pair<Integer> pos : blockPositions[i].get(m)) { // otherwise, for each of its blocks
+                    positions[packed.x].add(pos); // add the block to its page
+                    layers[packed.x].add(packed.y); // with its layer
+                }
+            }
+            // create block instances for each page that has blocks in the layout layer
+            for (int p = 0; p < pages.length; p++) if (positions[p].size() > 0)
+                blockInstances[i].put(pages[p], new BlockInstances(positions[p], layers[p]));
+        }
+        Utils.log("Packed " + packing.size() + " block materials into " + pages.length + " texture array pages",
+                Block.class, "createBlockInstances", false); // log packing metrics
+        return blockInstances; // return the created block instances
     }
 
     /**
      * Uses a key and layout layers from an area node-file to load blocks and compile a corresponding mapping of
      * material to positions of blocks using that material. This method will also populate a list of animated textures
      * with any animated textures created during the loading process. This method will undergo the process of loading
-     * for all three layout layers: background, middleground, and foreground
+     * for all three layout layers: background, middleground, and foreground. Since background blocks in cells that are
+     * covered by a fully opaque middleground or foreground block can never be seen, they are removed from the
+     * background's material to block map before it is returned so that they are never rendered
      *
      * @param key          the block_key child node from the area node-file
      * @param background   the background layout layer child node from the area node-file. May be null if no
@@ -78,8 +152,11 @@ public abstract class Block {
      *                     the background blocks, blocks[1] is for the middleground blocks, and blocks[2] is for the
      *                     foreground blocks
      * @param ats          the list of animated textures to populate
-     * @return an array of objects where [0](boolean[][]) is the block map populated with the layout layer's blocks and
-     * [1](PhysicsEngine.SlopeType[][]) is the slope map populated with the layout layer's slopes
+     * @return an array of objects where [0](boolean[][]) is the block map populated with the middleground's blocks,
+     * [1](PhysicsEngine.SlopeType[][]) is the slope map populated with the middleground's slopes, [2](boolean[][]) is
+     * the occlusion map of cells covered by a fully opaque middleground or foreground block (anything behind the
+     * middleground in these cells cannot be seen), and [3](boolean[][]) is the occlusion map of cells covered by a
+     * fully opaque block in any layer (the backdrop cannot be seen in these cells)
      */
     public static Object[] loadLayoutBlocks(Node key, Node background, Node middleground, Node foreground,
                                                Map<Material, List<Pair<Integer>>>[] blocks, List<AnimatedTexture> ats) {
@@ -117,25 +194,68 @@ public abstract class Block {
         // load layouts for each layer and format the blocks
         ShaderProgram sp = beginBlockFormatting(); // create shader program for block formatting
         Model m = Model.getStdGridRect(2, 2); // create model for texture creation
+        Set<Material> opaque = new HashSet<>(); // the materials whose blocks fully cover their cells
         // load layouts for each layer
         if (background != null) // if there is a background
-            loadLayoutLayerBlocks(mm, blocks[0], background, k, ats, bmw, bmh, sp, m); // load background
+            loadLayoutLayerBlocks(mm, blocks[0], background, k, ats, bmw, bmh, sp, m, opaque); // load background
         // load middleground and save the block map and slope map for collision
-        Object[] maps = loadLayoutLayerBlocks(mm, blocks[1], middleground, k, ats, bmw, bmh, sp, m);
+        Object[] maps = loadLayoutLayerBlocks(mm, blocks[1], middleground, k, ats, bmw, bmh, sp, m, opaque);
         if (foreground != null) // if there is a foreground
-            loadLayoutLayerBlocks(mm, blocks[2], foreground, k, ats, bmw, bmh, sp, m); // load foreground
+            loadLayoutLayerBlocks(mm, blocks[2], foreground, k, ats, bmw, bmh, sp, m, opaque); // load foreground
         for (BlockInfo bi : k.values()) bi.cleanup(); // cleanup block info overlay textures
         m.cleanup();
         endBlockFormatting(sp); // end block formatting
 
+        // find which cells are covered by opaque blocks and remove the background blocks that they hide
+        boolean[][] covered = new boolean[bmw][bmh]; // cells covered by opaque middleground or foreground blocks
+        boolean[][] coveredAny = new boolean[bmw][bmh]; // cells covered by opaque blocks in any layer
+        for (int i = 0; i < blocks.length; i++) for (Material mat : blocks[i].keySet()) // for each material
+            if (opaque.contains(mat)) for (Pair<Integer> p : blocks[i].get(mat)) { // if opaque, for each block
+                if (i > 0) covered[p.x][p.y] = true; // the middleground and foreground cover the background
+                coveredAny[p.x][p.y] = true; // and any layer covers the backdrop
+            }
+        int hidden = cullCoveredBlocks(blocks, covered, ats); // remove hidden background blocks
+
         // log block loading metrics
         int totalBlocks = 0; // create variable to store block count
         // go through each block layer
         for (Map<Material, List<Pair<Integer>>> block : blocks)
             for (List<Pair<Integer>> bs : block.values()) totalBlocks += bs.size(); // and count the total blocks
         Utils.log("Finished loading block layout with:\n" + mm.values().size() + " resulting material instances\n"
-                + totalBlocks + " total blocks", Block.class, "loadLayoutBlocks", false); // log metrics
-        return maps; // return the middleground block map and slope map to use for collision
+                + totalBlocks + " total blocks\n" + hidden + " hidden background blocks removed", Block.class,
+                "loadLayoutBlocks", false); // log metrics
+        // return the middleground block map and slope map to use for collision, along with the occlusion maps
+        return new Object[]{maps[0], maps[1], covered, coveredAny};
+    }
+
+    /**
+     * Removes background blocks in cells that are covered by opaque middleground or foreground blocks. Any background
+     * material left without blocks that is not used by another layer is cleaned up
+     *
+     * @param blocks  the material to block maps for each layout layer, where blocks[0] is the background
+     * @param covered the occlusion map of cells covered by opaque middleground or foreground blocks
+     * @param ats     the list of animated textures, from which the textures of cleaned up materials are removed
+     * @return the amount of background blocks removed
+     */
+    private static int cullCoveredBlocks(Map<Material, List<Pair<Integer>>>[] blocks, boolean[][] covered,
+                                         List<AnimatedTexture> ats) {
+        int hidden = 0; // keep track of the amount of blocks removed
+        Iterator<Map.Entry<Material, List<Pair<Integer>>>> it = blocks[0].entrySet().iterator();
+        while (it.hasNext()) { // for each background material
+            Map.Entry<Material, List<Pair<Integer>>> e = it.next();
+            int before = e.getValue().size(); // remember how many blocks it had
+            e.getValue().removeIf(p -> covered[p.x][p.y]); // remove its blocks that are covered
+            hidden += before - e.getValue().size(); // count removed blocks
+            if (e.getValue().isEmpty()) { // if none of its blocks are left
+                it.remove(); // remove it from the background
+                Material m = e.getKey(); // and clean it up if no other layer uses it
+                if (!blocks[1].containsKey(m) && !blocks[2].containsKey(m)) {
+                    if (m.getTexture() instanceof AnimatedTexture) ats.remove(m.getTexture()); // stop animating it
+                    m.cleanup();
+                }
+            }
+        }
+        return hidden; // return the amount of blocks removed
     }
 
     /**
@@ -150,13 +270,14 @@ public abstract class Block {
      * @param bmh    the height of a block map for the corresponding layout
      * @param sp     the block formatting shader program created via beginBlockFormatting
      * @param model  the full square model to use for formatting block textures
+     * @param opaque the set of materials whose blocks fully cover their cells to populate
      * @return an array of objects where [0](boolean[][]) is the block map populated with the layout layer's blocks and
      * [1](PhysicsEngine.SlopeType[][]) is the slope map populated with the layout layer's slopes
      */
     private static Object[] loadLayoutLayerBlocks(Map<List<Object>, Material> mm,
                                                      Map<Material, List<Pair<Integer>>> blocks, Node layout,
                                                      Map<Character, BlockInfo> key, List<AnimatedTexture> ats, int bmw,
-                                                     int bmh, ShaderProgram sp, Model model) {
+                                                     int bmh, ShaderProgram sp, Model model, Set<Material> opaque) {
 
         // populate block map based on where blocks are
         List<Node> rows = layout.getChildren(); // get the rows of the layout
@@ -195,20 +316,25 @@ public abstract class Block {
                     // get and use material or create it if non-existent yet
                     Material m = mm.get(mmKey); // get the material
                     if (m == null) { // if the material doesn't exist, need to create it
+                        boolean covers = bi.color[3] >= 1f; // whether the block fully covers its cell
                         // if there is no texture, create the material using just the block info's color
                         if (bi.texturePaths.size() < 1) m = new Material(bi.color);
                         else { // otherwise create the material using a formatted texture
                             Texture base = new Texture((Utils.Path) mmKey.get(1)); // get base texture
                             // apply animation if the texture is animated
                             if (bi.animated()) base.animate(bi.animFrames, bi.animTime, true);
+                            boolean slope = bi.slopes && c.toString().toLowerCase().contains("corner");
                             // format the texture
                             Texture formatted = createTexture(base, bi.overlayTextures, c, bi.cutRadius, cut,
-                                    bi.slopes && c.toString().toLowerCase().contains("corner"), sp, model);
+                                    slope, sp, model);
                             // if the texture is animated, add it to the animated textures list
                             if (formatted instanceof AnimatedTexture) ats.add((AnimatedTexture) formatted);
                             m = new Material(formatted); // create a new material using the formatted texture
+                            // the formatted texture is opaque if the base is and no part of it was cut away
+                            covers = covers && base.isOpaque() && !slope && !(bi.cutRadius > 0 && cut.contains(true));
                             base.cleanup();
                         }
+                        if (covers) opaque.add(m); // remember if the material fully covers its cells
                         mm.put(mmKey, m); // save in material map
                     }
                     // if no list in blocks exists for the material yet, create a new one
@@ -663,22 +789,25 @@ public abstract class Block {
      * @return returns the block formatting shader program
      */
     private static ShaderProgram beginBlockFormatting() {
-        // create shader program
-        ShaderProgram sp = new ShaderProgram(new Utils.Path("/shaders/format_block_vertex.glsl", true),
+        // get the shared block formatting shader program
+        ShaderProgram sp = ShaderCache.get(new Utils.Path("/shaders/format_block_vertex.glsl", true),
                 new Utils.Path("/shaders/format_block_fragment.glsl", true));
-        // register uniforms
-        sp.registerUniform("base");
+        // register uniforms and keep their handles
+        baseUniform = sp.registerUniform("base");
+        cutRadiusUniform = sp.registerUniform("cutRadius");
+        cutTopLeftUniform = sp.registerUniform("cutTopLeft");
+        cutTopRightUniform = sp.registerUniform("cutTopRight");
+        cutBottomLeftUniform = sp.registerUniform("cutBottomLeft");
+        cutBottomRightUniform = sp.registerUniform("cutBottomRight");
+        framesUniform = sp.registerUniform("frames");
+        slopeUniform = sp.registerUniform("slope");
+        overlayUniforms = new ShaderProgram.Uniform[MAX_OVERLAYS];
+        rotationUniforms = new ShaderProgram.Uniform[MAX_OVERLAYS];
         for (int i = 0; i < MAX_OVERLAYS; i++) {
-            sp.registerUniform("overlays[" + i + "]");
-            sp.registerUniform("rotations[" + i + "]");
+            overlayUniforms[i] = sp.registerUniform("overlays[" + i + "]");
+            rotationUniforms[i] = sp.registerUniform("rotations[" + i + "]");
         }
-        sp.registerUniform("frames");
-        sp.registerUniform("cutTopLeft");
-        sp.registerUniform("cutTopRight");
-        sp.registerUniform("cutBottomLeft");
-        sp.registerUniform("cutBottomRight");
-        sp.registerUniform("cutRadius");
-        sp.registerUniform("slope");
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME);
         return sp; // return created and initialized shader program
     }
 
@@ -691,7 +820,7 @@ public abstract class Block {
     private static void endBlockFormatting(ShaderProgram sp) {
         sp.cleanup(); // cleanup the shader program
         // change GL viewport back to the window's framebuffer size
-        glViewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
+        GLState.viewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
     }
 
     /**
@@ -727,42 +856,42 @@ public abstract class Block {
         int[] IDs = Utils.createFBOWithTextureAttachment(base.getWidth(), base.getHeight());
 
         // combine the textures by rendering them to the frame buffer using the block formatting shader program
-        glBindFramebuffer(GL_FRAMEBUFFER, IDs[0]); // bind the frame buffer object
-        glViewport(0, 0, base.getWidth(), base.getHeight()); // set the viewport to the size of the texture
+        RenderStats.Pass pass = RenderStats.setPass(RenderStats.Pass.OFFSCREEN); // record work as offscreen
+        GLState.bindFramebuffer(IDs[0]); // bind the frame buffer object
+        GLState.viewport(0, 0, base.getWidth(), base.getHeight()); // set the viewport to the size of the texture
         glClear(GL_COLOR_BUFFER_BIT);
         sp.bind(); // bind the shader program
-        sp.setUniform("base", 0); // set the base texture sampler uniform
-        sp.setUniform("cutRadius", cutRadius); // set the cut radius uniform
-        sp.setUniform("cutTopLeft", cutTopLeft ? 1 : 0); // set the top-left cutting uniform
-        sp.setUniform("cutTopRight", cutTopRight ? 1 : 0); // set the top-right cutting uniform
-        sp.setUniform("cutBottomLeft", cutBottomLeft ? 1 : 0); // set the bottom-left cutting uniform
-        sp.setUniform("cutBottomRight", cutBottomRight ? 1 : 0); // set the bottom-right cutting uniform
+        baseUniform.set(0); // set the base texture sampler uniform
+        cutRadiusUniform.set(cutRadius); // set the cut radius uniform
+        cutTopLeftUniform.set(cutTopLeft ? 1 : 0); // set the top-left cutting uniform
+        cutTopRightUniform.set(cutTopRight ? 1 : 0); // set the top-right cutting uniform
+        cutBottomLeftUniform.set(cutBottomLeft ? 1 : 0); // set the bottom-left cutting uniform
+        cutBottomRightUniform.set(cutBottomRight ? 1 : 0); // set the bottom-right cutting uniform
         // set the frames uniform based on the base texture's animation properties
-        sp.setUniform("frames", base instanceof AnimatedTexture ? ((AnimatedTexture) base).getFrameCount() : 1);
-        sp.setUniform("slope", slope ? 1 : 0); // set slopes uniform
-        glActiveTexture(GL_TEXTURE0); // set active texture to the one in slot 0
-        glBindTexture(GL_TEXTURE_2D, base.getID()); // bind base texture to slot 0
+        framesUniform.set(base instanceof AnimatedTexture ? ((AnimatedTexture) base).getFrameCount() : 1);
+        slopeUniform.set(slope ? 1 : 0); // set slopes uniform
+        GLState.bindTexture(0, base.getID()); // bind base texture to slot 0
         for (int i = 0; i < MAX_OVERLAYS; i++) {
-            glActiveTexture(GL_TEXTURE1 + i); // activate the corresponding texture slot
             if (i < overlays.size()) { // if there are more overlays
                 // set the overlay and rotation uniforms
-                sp.setUniform("overlays[" + i + "]", i + 1);
-                sp.setUniform("rotations[" + i + "]", rotations.get(i));
-                glBindTexture(GL_TEXTURE_2D, overlays.get(i).getID()); // bind the overlay texture
+                overlayUniforms[i].set(i + 1);
+                rotationUniforms[i].set(rotations.get(i));
+                GLState.bindTexture(i + 1, overlays.get(i).getID()); // bind the overlay texture to its slot
             } else { // if there are no more overlays
                 // unbind textures
-                glBindTexture(GL_TEXTURE_2D, 0);
+                GLState.bindTexture(i + 1, 0);
                 // set uniforms to appropriate values to denote no more overlays
-                sp.setUniform("rotations[" + i + "]", -1);
-                sp.setUniform("overlays[" + i + "]", 0);
+                rotationUniforms[i].set(-1);
+                overlayUniforms[i].set(0);
             }
         }
-        m.render(); // render the model
+        m.render(sp); // render the model
         sp.unbind(); // unbind the shader program
+        RenderStats.setPass(pass); // restore previous pass
 
         // post render
-        glBindFramebuffer(GL_FRAMEBUFFER, 0); // unbind the frame buffer object
-        glDeleteFramebuffers(IDs[0]); // delete the frame buffer object
+        GLState.bindFramebuffer(0); // unbind the frame buffer object
+        GLState.deleteFramebuffer(IDs[0]); // delete the frame buffer object
         Texture formatted = new Texture(IDs[1], base.getWidth(), base.getHeight()); // create the formatted texture
         if (base instanceof AnimatedTexture) { // if the base texture was animated
             AnimatedTexture at = (AnimatedTexture) base; // cast it to an animated texture
@@ -771,50 +900,258 @@ public abstract class Block {
     }
 
     /**
-     * Extends a normal model by providing optimizations for rendering many blocks at once. Specifically, it will simply
-     * render a bunch of blocks at once using the same model, only updating the position in between each rather than
-     * enabling and then disabling VAOs and VBOs for each individual block
+     * Extends a normal model by providing optimizations for rendering many blocks at once. Specifically, it will render
+     * every visible chunk of blocks of a material with a single instanced draw call, where each instance's position is
+     * read from the block instances' VBO rather than set as a uniform for each individual block
      */
     public static class BlockModel extends Model {
 
+        /**
+         * Static Data
+         */
+        private static final int INSTANCE_ATTRIB = 2; // the attribute location of the per-instance offsets and layers
+
         /**
          * Constructor
          */
         public BlockModel() {
             super(Model.getGridRectModelCoords(1, 1), Model.getStdRectTexCoords(), Model.getStdRectIdx());
+            GLState.bindVertexArray(this.ids[0]); // bind vao
+            glVertexAttribDivisor(INSTANCE_ATTRIB, 1); // advance instance data once per instance
+            // the instance vbo is pointed to per draw in renderBlocks(), but the attribute only needs enabled once
+            glEnableVertexAttribArray(INSTANCE_ATTRIB);
         }
 
         /**
-         * Renders the set of blocks corresponding to the given list of block positions. Note that all blocks in the
-         * given list should have the same material and that this method should be called once for each material
+         * Renders the chunks of the given block instances that are within the given camera view. Visible chunks in the
+         * same column of chunks are contiguous in the instance VBO, so each visible column of chunks is rendered
+         * with one instanced draw call. Note that all of the given block instances should have the same material and
+         * that this method should be called once for each material. The x and y uniforms should be set to zero
+         * beforehand
          *
-         * @param sp      the shader program to use to render
-         * @param blocks  the positions of the blocks to render
-         * @param camView the axis-aligned bounding box to check the block's position against. If the block is not
-         *                within the camera's view, it will not be rendered
+         * @param bi      the block instances to render
+         * @param camView the axis-aligned bounding box to check the chunks' bounds against. Only chunks that overlap
+         *                the camera's view will be rendered
          * @return the amount of blocks rendered
          */
-        public int renderBlocks(ShaderProgram sp, List<Pair<Integer>> blocks, PhysicsEngine.AABB camView) {
+        public int renderBlocks(BlockInstances bi, PhysicsEngine.AABB camView) {
+            // find the range of chunks that overlap the camera's view
+            int minCX = Math.max(0, BlockInstances.chunkOf((int) Math.ceil(camView.getCX() - camView.getW2())));
+            int maxCX = Math.min(bi.chunkCols - 1,
+                    BlockInstances.chunkOf((int) Math.floor(camView.getCX() + camView.getW2())));
+            int minCY = Math.max(0, BlockInstances.chunkOf((int) Math.ceil(camView.getCY() - camView.getH2())));
+            int maxCY = Math.min(bi.chunkRows - 1,
+                    BlockInstances.chunkOf((int) Math.floor(camView.getCY() + camView.getH2())));
+            if (minCX > maxCX || minCY > maxCY) return 0; // if no chunks are in view, there is nothing to render
             int renderCount = 0; // keep track of amount of blocks rendered
-            glBindVertexArray(this.ids[0]); // bind vao
-            glEnableVertexAttribArray(0); // enable model coordinate vbo
-            glEnableVertexAttribArray(1); // enable texture coordinate vbo
-            for (Pair<Integer> b : blocks) { // loop through all blocks
-                if (camView.contains(b.x, b.y)) { // if the block is within the camera's view
-                    // set the position of the block in the shader program
-                    sp.setUniform("x", Transformation.getCenterOfCellComponent(b.x));
-                    sp.setUniform("y", Transformation.getCenterOfCellComponent(b.y));
-                    glDrawElements(GL_TRIANGLES, this.idx, GL_UNSIGNED_INT, 0); // draw model at that position
-                    renderCount++; // iterate render count
+            GLState.bindVertexArray(this.ids[0]); // bind vao
+            glBindBuffer(GL_ARRAY_BUFFER, bi.vbo); // bind the instance vbo
+            for (int cx = minCX; cx <= maxCX; cx++) { // for each column of chunks in view
+                // find the range of instances belonging to the visible chunks in the column
+                int first = bi.chunkStart(cx, minCY), count = bi.chunkStart(cx, maxCY + 1) - first;
+                if (count > 0) { // if there are any blocks in those chunks
+                    // point the instance attribute at the first instance (each instance is three floats, or 12 bytes)
+                    glVertexAttribPointer(INSTANCE_ATTRIB, 3, GL_FLOAT, false, 0, first * 12L);
+                    // draw the instances
+                    GLState.drawElementsInstanced(this.idx, count);
+                    renderCount += count; // keep track of amount of blocks rendered
                 }
             }
-            glDisableVertexAttribArray(0); // disable model coordinate vbo
-            glDisableVertexAttribArray(1); // disable texture coordinate vbo
-            glBindVertexArray(0); // disable vao
+            glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind the instance vbo
             return renderCount; // return amount of rendered blocks
         }
     }
 
+    /**
+     * Holds the positions of every block of a single material in a VBO so that they can be rendered with instanced
+     * draw calls (see BlockModel.renderBlocks()). Blocks never move once loaded, so the instances are baked into static
+     * chunks of CHUNK_SIZE x CHUNK_SIZE cells once during creation. The VBO is ordered by chunk column, then chunk row,
+     * and the starting index of each chunk is recorded. Since chunks are aligned to the grid, the chunks within the
+     * camera's view can be found directly from the view's bounds. This way, the cost of culling each frame depends only
+     * on the amount of visible chunks rather than the total amount of blocks
+     */
+    public static class BlockInstances {
+
+        /**
+         * Static Data
+         */
+        public static final int CHUNK_SIZE = 16; // the width and height of a chunk in cells
+
+        /**
+         * Members
+         */
+        private final int[] chunkStarts; /* the index in the VBO of the first instance of each chunk, indexed by
+                                            chunk column * chunkRows + chunk row. There is one extra entry at the end
+                                            holding the total amount of instances */
+        private final int chunkCols;     // the amount of columns of chunks
+        private final int chunkRows;     // the amount of rows of chunks
+        private final int vbo;           // the id of the VBO containing the world offset and layer of each instance
+
+        /**
+         * Constructor
+         *
+         * @param positions the grid positions of the blocks
+         * @param layers    the texture array layer of each block, kept as a parallel list. If null, every block will
+         *                  use layer zero
+         */
+        public BlockInstances(List<Pair<Integer>> positions, List<Integer> layers) {
+            int cols = 0, rows = 0; // calculate the amount of columns and rows of chunks needed
+            for (Pair<Integer> p : positions) {
+                cols = Math.max(cols, chunkOf(p.x) + 1);
+                rows = Math.max(rows, chunkOf(p.y) + 1);
+            }
+            this.chunkCols = cols; // save amount of chunk columns
+            this.chunkRows = rows; // save amount of chunk rows
+            this.chunkStarts = new int[cols * rows + 1]; // create array to hold the start of each chunk
+            // count the blocks in each chunk, offset by one so that the counts can be turned into starting indices
+            for (Pair<Integer> p : positions) this.chunkStarts[this.chunkIndex(p) + 1]++;
+            // turn the counts into starting indices by summing the counts of the chunks before each chunk
+            for (int i = 1; i < this.chunkStarts.length; i++) this.chunkStarts[i] += this.chunkStarts[i - 1];
+            int[] next = new int[cols * rows]; // the next free index in each chunk
+            System.arraycopy(this.chunkStarts, 0, next, 0, next.length); // begin at the start of each chunk
+            float[] data = new float[positions.size() * 3]; // create array to hold instance data ordered by chunk
+            for (int b = 0; b < positions.size(); b++) { // for each block
+                Pair<Integer> p = positions.get(b); // get its position
+                int i = next[this.chunkIndex(p)]++ * 3; // find its place in its chunk
+                data[i] = Transformation.getCenterOfCellComponent(p.x); // and put the center of its cell there
+                data[i + 1] = Transformation.getCenterOfCellComponent(p.y);
+                data[i + 2] = layers == null ? 0 : layers.get(b); // along with its layer
+            }
+            FloatBuffer fb = MemoryUtil.memAllocFloat(data.length); // allocate buffer space for instance data
+            fb.put(data).flip(); // put instance data into buffer
+            this.vbo = GLState.genBuffer(); // generate instance vertex buffer object
+            glBindBuffer(GL_ARRAY_BUFFER, this.vbo); // bind instance vertex buffer object
+            glBufferData(GL_ARRAY_BUFFER, fb, GL_STATIC_DRAW); // put instance data into instance VBO
+            GPUResources.setSize(GPUResources.Kind.BUFFER, this.vbo, data.length * 4L); // record size
+            glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind VBO
+            MemoryUtil.memFree(fb); // free buffer
+        }
+
+        /**
+         * Calculates which chunk a grid cell component belongs to
+         *
+         * @param cell the x or y of the grid cell
+         * @return the x or y of the chunk containing it
+         */
+        private static int chunkOf(int cell) {
+            return Math.floorDiv(cell, CHUNK_SIZE);
+        }
+
+        /**
+         * Calculates the index into the chunk starts array of the chunk containing the given grid cell
+         *
+         * @param p the grid cell
+         * @return the index of the chunk containing it
+         */
+        private int chunkIndex(Pair<Integer> p) {
+            return chunkOf(p.x) * this.chunkRows + chunkOf(p.y);
+        }
+
+        /**
+         * Finds the index in the VBO of the first instance of the given chunk. Because chunks are ordered by column,
+         * then row, giving a row one past the last row of a column gives the end of that column's instances
+         *
+         * @param col the column of the chunk
+         * @param row the row of the chunk
+         * @return the index of the chunk's first instance
+         */
+        private int chunkStart(int col, int row) {
+            return this.chunkStarts[col * this.chunkRows + row];
+        }
+
+        /**
+         * @return the total amount of instances
+         */
+        public int size() {
+            return this.chunkStarts[this.chunkStarts.length - 1];
+        }
+
+        /**
+         * Cleans up the block instances by deleting the instance VBO
+         */
+        public void cleanup() {
+            GLState.deleteBuffer(this.vbo); // delete instance VBO
+        }
+    }
+
+    /**
+     * A render command which renders every visible block of a single material (see RenderQueue). Each material's block
+     * instances in each layout layer get their own block command, created once when the area loads, which is submitted
+     * to the area's render queue every frame along with the view to cull the blocks against. Submitting blocks this way
+     * lets the render queue order them by texture and material along with everything else in the same layer
+     */
+    public static class BlockCommand implements RenderQueue.Command {
+
+        /**
+         * Members
+         */
+        private final BlockModel bm;     // the block model to render with
+        private final Material m;        // the material of the blocks
+        private final BlockInstances bi; // the instances of the blocks
+        private PhysicsEngine.AABB view; // the view to cull the blocks against
+        private int rendered;            // the amount of blocks rendered the last time the command was executed
+
+        /**
+         * Constructor
+         *
+         * @param bm the block model to render with
+         * @param m  the material of the blocks
+         * @param bi the instances of the blocks
+         */
+        public BlockCommand(BlockModel bm, Material m, BlockInstances bi) {
+            this.bm = bm;
+            this.m = m;
+            this.bi = bi;
+        }
+
+        /**
+         * Prepares the command to be submitted to a render queue
+         *
+         * @param view the axis-aligned bounding box to check the blocks' positions against when the command is
+         *             executed. Blocks that are not within the view will not be rendered
+         * @return the block command, for convenience
+         */
+        public BlockCommand prepare(PhysicsEngine.AABB view) {
+            this.view = view; // save view as member
+            this.rendered = 0; // nothing has been rendered yet
+            return this;
+        }
+
+        /**
+         * Renders all the visible blocks at once using the block model
+         *
+         * @param sp the shader program to render with
+         */
+        @Override
+        public void execute(ShaderProgram sp) {
+            // block positions come from the instance offsets so the object position is zero
+            sp.uniform(ShaderProgram.Common.X).set(0f);
+            sp.uniform(ShaderProgram.Common.Y).set(0f);
+            Texture t = this.m.getTexture(); // get texture for material
+            if (t instanceof AnimatedTexture) this.bm.useTexCoordVBO(((AnimatedTexture) t).getTexCoordVBO(false),
+                    false); // if the texture is animated, tell the model which tex coords (frame) to use
+                // if the texture isn't animated, just use the entire texture
+            else this.bm.useTexCoordVBO(AnimatedTexture.getTexCoordVBO(0, 1, false), false);
+            this.m.setUniforms(sp); // set the appropriate material uniforms
+            this.bm.setTransformUniform(sp); // set the block model's transform uniform
+            this.rendered = this.bm.renderBlocks(this.bi, this.view); // render all the blocks at once
+        }
+
+        /**
+         * @return the material of the blocks
+         */
+        public Material getMaterial() {
+            return this.m;
+        }
+
+        /**
+         * @return the amount of blocks rendered the last time the command was executed
+         */
+        public int getRendered() {
+            return this.rendered;
+        }
+    }
+
     /**
      * Encapsulates info about a block as laid out in a node-file. For info on node-files, see utils.Node. For info on
      * how nodes are loaded, see utils.NodeLoader. See the constructor for info on how to format a block info node. When
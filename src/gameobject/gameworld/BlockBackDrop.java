@@ -5,6 +5,8 @@ import graphics.*;
 import utils.Node;
 import utils.NodeLoader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /*
@@ -19,18 +21,28 @@ import java.util.Map;
  * more convenient alternative to filling out the background layer of the area node-file with the block. This also frees
  * up the background layer for more decorations. In addition, a border block is defined (which can be the same as or
  * different from the blockmap background block) that will be used as a border around the blockmap. This border's
- * thickness is configurable. The border fades out to black for an aesthetic touch. Block backdrops are loaded from
- * node-files. For information on how to format a block backdrop node-file, see the constructor
+ * thickness is configurable. The border fades out to black for an aesthetic touch. Cells of the blockmap background
+ * that are covered by opaque blocks are left out of its model since they can never be seen. Block backdrops are loaded
+ * from node-files. For information on how to format a block backdrop node-file, see the constructor.
+ * <p>
+ * Rather than aggregating the blocks into large textures, each block's texture is repeated directly by giving the
+ * backgrounds texture coordinates measured in cells, so that the texture wraps once per cell (textures use GL's
+ * default wrap mode of GL_REPEAT). The blockmap background's texture coordinates are part of its model, while the
+ * borders use standard rectangle models whose texture coordinates are scaled by the world shader program (see the
+ * TEX_TRANSFORM define in world_vertex.glsl) and whose fade is calculated by the world shader program as well (see the
+ * FADE define in world_fragment.glsl). As such, the texture memory used by block backdrops does not depend on the size
+ * of the area
  */
 public class BlockBackDrop implements Area.BackDrop {
 
     /**
      * Members
      */
-    private GameObject[] backgrounds; /* the background game objects to render, where backgrounds[0] is the blockmap
-        background, backgrounds[1] is the left-side border, backgrounds[2] is the right-side border, backgrounds[3]
-        is the top-side border, and backgrounds[4] is the bottom-side border. Each game object is created by aggregating
-        the corresponding blocks into a single large texture */
+    private GameObject bmBackground; /* the blockmap background, or null if every cell of the block map is covered
+                                        by opaque blocks */
+    private Border[] borders;        // the left, right, top, and bottom borders
+    private Material borderMat;      // the material shared by each border
+    private Model ver, hor;          // the models shared by the vertical and horizontal borders
 
     /**
      * Constructs the block backdrop by compiling information from a given node. If the value of the root node starts
@@ -52,11 +64,12 @@ public class BlockBackDrop implements Area.BackDrop {
      * <p>
      * border_thickness [optional][default: 5][1, 20]: how many blocks thick the border around the block map should be
      *
-     * @param data the node to use to construct the block backdrop
-     * @param bmw  the width of the area's block map
-     * @param bmh  the height of the area's block map
+     * @param data    the node to use to construct the block backdrop
+     * @param bmw     the width of the area's block map
+     * @param bmh     the height of the area's block map
+     * @param covered the occlusion map of cells covered by opaque blocks, where the backdrop cannot be seen
      */
-    public BlockBackDrop(Node data, int bmw, int bmh) {
+    public BlockBackDrop(Node data, int bmw, int bmh, boolean[][] covered) {
 
         /*
          * Load block backdrop information using node loader
@@ -79,52 +92,80 @@ public class BlockBackDrop implements Area.BackDrop {
         // make block info from border background block node
         Block.BlockInfo borderBI = new Block.BlockInfo(borderBackNode == null ? new Node() : borderBackNode);
         this.createBackgrounds(bmBI.createMaterial(false), borderBI.createMaterial(false),
-                (Integer) blockBackDrop.get("border_thickness"), bmw, bmh); // create backgrounds
+                (Integer) blockBackDrop.get("border_thickness"), bmw, bmh, covered); // create backgrounds
     }
 
     /**
-     * Creates the block map background game object and the four border background game objects by aggregating blocks
-     * into larger textures for each
+     * Creates the block map background game object and the four borders
      *
      * @param bmBack     the material to use for the block map background blocks
      * @param borderBack the material to use for the border background
      * @param thickness  the thickness of the border around the block map
      * @param bmw        the width of the area's block map
      * @param bmh        the height of the area's block map
+     * @param covered    the occlusion map of cells covered by opaque blocks
      */
-    private void createBackgrounds(Material bmBack, Material borderBack, int thickness, int bmw, int bmh) {
+    private void createBackgrounds(Material bmBack, Material borderBack, int thickness, int bmw, int bmh,
+                                   boolean[][] covered) {
+        Model bmModel = createUncoveredModel(bmw, bmh, covered); // create model of the uncovered block map cells
+        if (bmModel == null) bmBack.cleanup(); // if every cell is covered, the material is not needed
+        else this.bmBackground = new GameObject((float) bmw / 2, (float) bmh / 2, bmModel, bmBack); // create background
+        this.borderMat = borderBack; // save border material as member
         // create models for vertical and horizontal borders
-        Model ver = Model.getStdGridRect(thickness, bmh + (2 * thickness));
-        Model hor = Model.getStdGridRect(bmw, thickness);
-        // calculate width/height of an individual block's texture (32 if no texture)
-        int w = borderBack.isTextured() ? borderBack.getTexture().getWidth() : 32;
-        int h = borderBack.isTextured() ? borderBack.getTexture().getHeight() : 32;
-        Model mod = Model.getStdGridRect(2, 2);
-        this.backgrounds = new GameObject[]{ // compile background game objects
-                // blockmap background
-                new GameObject((float) bmw / 2, (float) bmh / 2, Model.getStdGridRect(bmw, bmh),
-                        new Material(Texture.makeSheet(bmBack, mod, bmw, bmh,
-                                bmBack.isTextured() ? bmBack.getTexture().getWidth() : 32,
-                                bmBack.isTextured() ? bmBack.getTexture().getHeight() : 32, 0, false))),
+        this.ver = Model.getStdGridRect(thickness, bmh + (2 * thickness));
+        this.hor = Model.getStdGridRect(bmw, thickness);
+        this.borders = new Border[]{ // compile borders
                 // left border
-                new GameObject(-(float) thickness / 2f, ((float) bmh) / 2f, ver,
-                        new Material(Texture.makeSheet(borderBack, mod, thickness, bmh + (2 * thickness),
-                                w, h, 1, true))),
+                new Border(this.ver, -(float) thickness / 2f, ((float) bmh) / 2f, thickness, bmh + (2 * thickness),
+                        1, true),
                 // right border
-                new GameObject((float) bmw + (float) thickness / 2, ((float) bmh) / 2f, ver,
-                        new Material(Texture.makeSheet(borderBack, mod, thickness, bmh + (2 * thickness),
-                                w, h, 2, true))),
+                new Border(this.ver, (float) bmw + (float) thickness / 2, ((float) bmh) / 2f, thickness,
+                        bmh + (2 * thickness), 2, true),
                 // top border
-                new GameObject(((float) bmw) / 2f, (float) bmh + (float) thickness / 2f, hor,
-                        new Material(Texture.makeSheet(borderBack, mod, bmw, thickness,
-                                w, h, 3, false))),
+                new Border(this.hor, ((float) bmw) / 2f, (float) bmh + (float) thickness / 2f, bmw, thickness, 3,
+                        false),
                 // bottom border
-                new GameObject(((float) bmw) / 2f, -(float) thickness / 2f, hor,
-                        new Material(Texture.makeSheet(borderBack, mod, bmw, thickness,
-                                w, h, 4, false)))
+                new Border(this.hor, ((float) bmw) / 2f, -(float) thickness / 2f, bmw, thickness, 4, false)
         };
     }
 
+    /**
+     * Creates a model of the block map background that only covers the cells that are not covered by opaque blocks.
+     * Each row's consecutive uncovered cells are combined into a single quad whose texture coordinates are measured in
+     * cells so that the block's texture repeats once per cell
+     *
+     * @param bmw     the width of the area's block map
+     * @param bmh     the height of the area's block map
+     * @param covered the occlusion map of cells covered by opaque blocks
+     * @return the model, or null if every cell is covered
+     */
+    private static Model createUncoveredModel(int bmw, int bmh, boolean[][] covered) {
+        List<float[]> quads = new ArrayList<>(); // the left, bottom, right, and top cell edges of each quad
+        for (int y = 0; y < bmh; y++) for (int x = 0; x < bmw; x++) { // for each cell
+            if (covered[x][y]) continue; // skip covered cells
+            int start = x; // find the end of the run of uncovered cells starting here
+            while (x + 1 < bmw && !covered[x + 1][y]) x++;
+            quads.add(new float[]{start, y, x + 1, y + 1}); // and add a quad covering the run
+        }
+        if (quads.isEmpty()) return null; // no model is needed if every cell is covered
+        float[] mc = new float[quads.size() * 8], tc = new float[quads.size() * 8]; // model and texture coordinates
+        int[] idx = new int[quads.size() * 6]; // indices
+        float w2 = bmw / 2f, h2 = bmh / 2f; // model coordinates are centered on the block map
+        int[] std = Model.getStdRectIdx(); // use the standard rectangle indices for each quad
+        for (int i = 0; i < quads.size(); i++) { // for each quad
+            float[] q = quads.get(i);
+            float[] corners = {q[0], q[3], q[0], q[1], q[2], q[1], q[2], q[3]}; // top left, bottom left, etc.
+            for (int c = 0; c < 8; c += 2) { // for each corner, convert from cells to model and texture coordinates
+                mc[i * 8 + c] = corners[c] - w2;
+                mc[i * 8 + c + 1] = corners[c + 1] - h2;
+                tc[i * 8 + c] = corners[c]; // texture coordinates are in cells and increase downwards
+                tc[i * 8 + c + 1] = bmh - corners[c + 1];
+            }
+            for (int j = 0; j < 6; j++) idx[i * 6 + j] = i * 4 + std[j]; // offset standard indices to the quad
+        }
+        return new Model(mc, tc, idx); // create and return the model
+    }
+
     /**
      * Block backdrops do not a use a camera
      *
@@ -140,18 +181,82 @@ public class BlockBackDrop implements Area.BackDrop {
     }
 
     /**
-     * Renders the block backdrop by rendering the background game objects
+     * Renders the block backdrop by rendering the blockmap background and then the borders
      *
      * @param sp the world shader program
      */
     public void render(ShaderProgram sp) {
-        for (GameObject background : this.backgrounds) background.render(sp); // render background game objects
+        if (this.bmBackground != null) this.bmBackground.render(sp); // render blockmap background
+        sp.setDefine("TEX_TRANSFORM", 1); // repeat the border texture by scaling texture coordinates
+        sp.setDefine("FADE", 1); // fade the borders
+        this.borderMat.setUniforms(sp); // set border material uniforms
+        for (Border border : this.borders) border.render(sp); // render borders
+        sp.setDefine("FADE", 0); // turn fading back off
+        sp.setDefine("TEX_TRANSFORM", 0); // and texture coordinate transforms
     }
 
     /**
-     * Cleans up the block backdrop by cleaning up its background game objects
+     * Cleans up the block backdrop by cleaning up its blockmap background, border material, and border models
      */
     public void cleanup() {
-        for (GameObject background : this.backgrounds) background.cleanup(); // clean up background game objects
+        if (this.bmBackground != null) this.bmBackground.cleanup(); // clean up blockmap background
+        this.borderMat.cleanup(); // clean up border material
+        this.ver.cleanup(); // clean up border models
+        this.hor.cleanup();
+    }
+
+    /**
+     * A single border around the block map, which fades out away from the block map
+     */
+    private static class Border {
+
+        /**
+         * Members
+         */
+        private final Model mod;         // the model to render the border with
+        private final float x, y;        // the position of the center of the border
+        private final int cols, rows;    // the width and height of the border in cells
+        private final int fadeDir;       /* the direction to fade out towards: 1 - left; 2 - right; 3 - above; 4 -
+                                            below */
+        private final boolean corners;   // whether to fade using corners on the caps
+
+        /**
+         * Constructor
+         *
+         * @param mod     the model to render the border with
+         * @param x       the x position of the center of the border
+         * @param y       the y position of the center of the border
+         * @param cols    the width of the border in cells
+         * @param rows    the height of the border in cells
+         * @param fadeDir the direction to fade out towards: 1 - left; 2 - right; 3 - above; 4 - below
+         * @param corners whether to fade using corners on the caps
+         */
+        private Border(Model mod, float x, float y, int cols, int rows, int fadeDir, boolean corners) {
+            this.mod = mod; // save model as member
+            this.x = x; // save position as members
+            this.y = y;
+            this.cols = cols; // save size as members
+            this.rows = rows;
+            this.fadeDir = fadeDir; // save fade properties as members
+            this.corners = corners;
+        }
+
+        /**
+         * Renders the border, assuming the border material's uniforms have already been set
+         *
+         * @param sp the world shader program
+         */
+        private void render(ShaderProgram sp) {
+            sp.uniform(ShaderProgram.Common.X).set(this.x); // set position
+            sp.uniform(ShaderProgram.Common.Y).set(this.y);
+            // repeat the texture once per cell
+            sp.uniform(ShaderProgram.Common.TEX_TRANSFORM).set(this.cols, this.rows, 0f, 0f);
+            sp.uniform(ShaderProgram.Common.FADE_DIR).set(this.fadeDir); // set fade properties
+            sp.uniform(ShaderProgram.Common.FADE_CORNERS).set(this.corners ? 1 : 0);
+            // set the fade bounds to the border's top left corner and size
+            sp.uniform(ShaderProgram.Common.FADE_BOUNDS).set(this.x - this.cols / 2f, this.y + this.rows / 2f,
+                    this.cols, this.rows);
+            this.mod.render(sp); // render the model
+        }
     }
-}
\ No newline at end of file
+}
@@ -118,14 +118,16 @@ public abstract class Decor {
                         mm.put(mmKey, m); // save in material map
                     }
 
-                    // create a game object using the material, scaling it to a 32x32 bit resolution per grid cell
+                    // create a game object using the material, scaling it to a 32x32 bit resolution per grid cell. Decor
+                    // uses shared models so that decor with the same geometry does not each need its own buffers
+                    Model mod = ModelCache.getGridRect(1, 1, di.animated()); // get shared model
                     GameObject go = null;
                     if (di.gatePath != null) { // if the decor is a gate
                         // create the game object as a gate
-                        go = new Area.Gate(Model.getStdGridRect(1, 1), m, di.gatePath, di.gatePos);
+                        go = new Area.Gate(mod, m, di.gatePath, di.gatePos);
                         gates.add((Area.Gate)go); // and add it to the gates list
                     }
-                    else go = new GameObject(Model.getStdGridRect(1, 1), m);
+                    else go = new GameObject(mod, m);
                     if (m.isTextured()) go.setScale((m.getTexture().getWidth() / (float)di.animFrames) / 32f,
                             m.getTexture().getHeight() / 32f); // scale to correct resolution if decor is textured
 
@@ -160,30 +160,26 @@ public class Entity extends WorldObject implements MouseInputEngine.MouseInterac
      */
     @Override
     protected void onMove() {
+        super.onMove(); // call super's onMove
         if (this.nameplate.visible()) this.positionNameplate(); // reposition the nameplate if visible
     }
 
     /**
-     * Renders the entity and the nameplate of the entity
+     * Renders the nameplate of the entity after everything else
      *
-     * @param sp the shader program to use to render the game object
+     * @param sp the shader program being rendered with
      */
     @Override
-    public void render(ShaderProgram sp) {
-        super.render(sp); // render the entity
+    public void renderExtras(ShaderProgram sp) {
         sp.addToPostRender(this.nameplate); // render nameplate after everything else
     }
 
     /**
-     * Tells the model with VBO to use based on the animated texture's current frame and whether the entity is facing
-     * left or right
-     *
-     * @param at   the animated texture to consider
-     * @param flip whether to flip the texture or not (not actually used in this overridden method)
+     * @return whether the entity's animated texture should be flipped, which it is when the entity faces right
      */
     @Override
-    protected void updateAnimatedTexture(AnimatedTexture at, boolean flip) {
-        super.updateAnimatedTexture(at, this.right);
+    public boolean isTextureFlipped() {
+        return this.right;
     }
 
     /**
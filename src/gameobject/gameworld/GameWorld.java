@@ -3,6 +3,11 @@ package gameobject.gameworld;
 import gameobject.ROC;
 import graphics.AnimatedTexture;
 import graphics.Camera;
+import graphics.Model;
+import graphics.RenderScale;
+import graphics.RenderStats;
+import graphics.ScaledRenderTarget;
+import graphics.ShaderCache;
 import graphics.ShaderProgram;
 import story.Story;
 import utils.*;
@@ -43,6 +48,9 @@ public class GameWorld {
     private Entity player;                      // the player
     private DayNightCycle dnc;                  // the world's day/night cycle
     private ShaderProgram sp;                   // the shader program used to render the game world
+    private ShaderProgram.Uniform arraySampler; // the handle of the texture array sampler uniform
+    private ShaderProgram.Uniform sunPresence;  // the handle of the sun presence uniform
+    private final ScaledRenderTarget target;    // the target to render into when rendering below full resolution
     private Camera cam;                         // the camera used to see the game world
     private Area area;                          // the area currently in use in the game world
     private Area.Gate enteredGate;              // when switching areas, this stores the gate entered
@@ -58,7 +66,9 @@ public class GameWorld {
      */
     public GameWorld(MouseInputEngine mip, Entity player, Area startingArea, ROC roc) {
         this.objects = new ArrayList<>(); // create empty objects list
+        this.target = new ScaledRenderTarget(); // create scaled render target
         this.initSP(); // initialize shader program
+        this.sp.clearLights(); // the shader program is shared, so remove any lights from a previous game world
         this.area = startingArea; // save the starting area as a member
         this.area.useCam(this.cam = new Camera()); // give area a reference to the camera
         this.area.useMouseInputEngine(this.mip = mip);
@@ -68,6 +78,7 @@ public class GameWorld {
         PhysicsEngine.giveSlopeMap(this.area.getSlopeMap()); // give the area's slope map to the physics engine
         if ((this.player = player) != null) { // if the player isn't null
             this.objects.add(player); // add it to world objects
+            this.area.addObject(player); // and to the area
             this.cam.follow(this.player); // and tell the camera to follow it
         }
         this.roc = roc; // save reference to ROC
@@ -87,23 +98,31 @@ public class GameWorld {
      * Initializes the game world's shader program
      */
     private void initSP() {
-        // create the shader program with the appropriate source files
-        this.sp = new ShaderProgram(new Utils.Path("/shaders/world_vertex.glsl", true),
+        // get the shared shader program with the appropriate source files
+        this.sp = ShaderCache.get(new Utils.Path("/shaders/world_vertex.glsl", true),
                 new Utils.Path("/shaders/world_fragment.glsl", true));
-        sp.registerUniform("ar"); // register aspect ratio uniform
-        sp.registerUniform("arAction"); // register aspect ratio action uniform
         sp.registerUniform("x"); // register object x uniform
         sp.registerUniform("y"); // register object y uniform
-        sp.registerUniform("isTextured"); // register texture flag uniform
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME); // register model transform uniform
+        sp.registerDefine("TEX_TRANSFORM"); // register texture coordinate transform define
+        sp.registerUniform("texTransform"); // register texture coordinate transform uniform
+        sp.registerDefine("FADE"); // register fade define
+        sp.registerUniform("fadeDir"); // register fade direction uniform
+        sp.registerUniform("fadeCorners"); // register fade corner uniform
+        sp.registerUniform("fadeBounds"); // register fade bounds uniform
+        sp.registerDefine("TEXTURED"); // register texture flag define
         sp.registerUniform("color"); // register material color uniform
-        sp.registerUniform("blend"); // register material blend uniform
+        sp.registerDefine("BLEND"); // register material blend define
+        sp.registerDefine("USE_DNC"); // register day/night cycle usage define
+        sp.registerDefine("USE_LIGHTS"); // register light usage define
         sp.registerUniform("texSampler"); // register texture sampler uniform
+        this.arraySampler = sp.registerUniform("arraySampler"); // register texture array sampler uniform
+        sp.registerUniform("ar"); // register aspect ratio uniform
+        sp.registerUniform("arAction"); // register aspect ratio action uniform
         sp.registerUniform("camX"); // register camera x uniform
         sp.registerUniform("camY"); // register camera y uniform
         sp.registerUniform("camZoom"); // register camera zoom uniform
-        sp.registerUniform("sunPresence"); // register sun presence uniform
-        sp.registerUniform("useDNC"); // register day/night cycle usage uniform
-        sp.registerUniform("useLights"); // register light usage uniform
+        this.sunPresence = sp.registerUniform("sunPresence"); // register sun presence uniform
         sp.registerUniform("flicker"); // register flicker uniform
         sp.registerLightArrayUniform(); // register light array uniform
     }
@@ -126,6 +145,7 @@ public class GameWorld {
     public void switchAreas(Utils.Path path, Pair<Integer> startingPos) {
         this.area.cleanup(); // cleanup old area
         this.area = new Area(Node.pathContentsToNode(path)); // create new area with given path
+        for (WorldObject wo : this.objects) this.area.addObject(wo); // give the world objects to the new area
         this.area.useCam(this.cam); // give camera to the area
         this.area.useMouseInputEngine(this.mip); // give mouse input engine to area
         float ssr = area.getStartingSunRotation(); // get the starting sun rotation from the area
@@ -137,8 +157,7 @@ public class GameWorld {
         if (this.story != null) this.area.useStoryPath(this.story.getFolderPath()); // give new area the story path
         this.enteredGate = null; // reset entered gate reference
         this.timer = 0f; // reset time
-        this.sp.cleanup(); // cleanup SP to remove old area's lights
-        this.initSP(); // re-initialize
+        this.sp.clearLights(); // remove old area's lights
     }
 
     /**
@@ -176,19 +195,25 @@ public class GameWorld {
     }
 
     /**
-     * Sets up world rendering and then gives the world objects to the area to render at the appropriate time
+     * Sets up world rendering and then gives the world objects to the area to render at the appropriate time. If the
+     * render scale (see graphics.RenderScale) is below full, the world is rendered at that scale and then upscaled
      */
     public void render() {
+        RenderStats.Pass pass = RenderStats.setPass(RenderStats.Pass.WORLD); // record work as world rendering
+        boolean scaled = this.target.begin(RenderScale.get()); // render at a lower resolution if the scale calls for it
         this.sp.bind(); // bind shader program
-        this.sp.setUniform("texSampler", 0); // set texture sampler uniform to use texture unit 0
-        this.sp.setUniform("ar", Global.ar); // set aspect ratio uniform
-        this.sp.setUniform("arAction", Global.arAction ? 1 : 0); // set aspect ratio action uniform
-        this.sp.setUniform("camX", this.cam.getX()); // set camera x uniform
-        this.sp.setUniform("camY", this.cam.getY()); // set camera y uniform
-        this.sp.setUniform("camZoom", this.cam.getZoom()); // set camera zoom uniform
-        this.sp.setUniform("sunPresence", this.dnc.getSunPresence()); // set sun presence uniform
-        this.area.render(this.sp, this.objects, this.cam.getView(), this.cam); // render the area with the current world objects
+        this.sp.uniform(ShaderProgram.Common.TEX_SAMPLER).set(0); // set texture sampler uniform to use texture unit 0
+        this.arraySampler.set(1); // set texture array sampler uniform to use texture unit 1
+        this.sp.uniform(ShaderProgram.Common.AR).set(Global.ar); // set aspect ratio uniform
+        this.sp.uniform(ShaderProgram.Common.AR_ACTION).set(Global.arAction ? 1 : 0); // set aspect ratio action uniform
+        this.sp.uniform(ShaderProgram.Common.CAM_X).set(this.cam.getX()); // set camera x uniform
+        this.sp.uniform(ShaderProgram.Common.CAM_Y).set(this.cam.getY()); // set camera y uniform
+        this.sp.uniform(ShaderProgram.Common.CAM_ZOOM).set(this.cam.getZoom()); // set camera zoom uniform
+        this.sunPresence.set(this.dnc.getSunPresence()); // set sun presence uniform
+        this.area.render(this.sp, this.cam.getView(), this.cam); // render the area with the current world objects
         this.sp.unbind(); // unbind shader program
+        if (scaled) this.target.end(); // upscale into the window if rendered at a lower resolution
+        RenderStats.setPass(pass); // restore previous pass
     }
 
     /**
@@ -199,6 +224,7 @@ public class GameWorld {
     public void addObject(WorldObject wo) {
         wo.setCollidables(this.objects); // give it the game world's collidables to use
         this.objects.add(wo); // add it to the list
+        this.area.addObject(wo); // and to the area
     }
 
     /**
@@ -236,6 +262,7 @@ public class GameWorld {
      */
     public void cleanup() {
         if (this.sp != null) this.sp.cleanup(); // cleanup shader program
+        this.target.cleanup(); // cleanup scaled render target
         this.area.cleanup(); // cleanup area
         for (WorldObject o : this.objects) o.cleanup(); // cleanup world objects
     }
@@ -7,6 +7,7 @@ import utils.NodeLoader;
 import utils.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -18,32 +19,31 @@ import java.util.Map;
  */
 
 /**
- * Material backdrops render a single material behind the area as a backdrop. If this material is textured, texture
- * coordinates will automatically be updated to make sure its aspect ratio stays correct when display. Additionally,
- * textured material backdrops can optionally scroll. If scrolling is enabled, a specific scale can be applied to how
- * much of the view is showed. Material backdrops are loaded through node-files but will not render until a camera
- * reference is provided to them via useCam(). For more information on how to format a material backdrop node, see the
- * constructor
+ * Material backdrops render one or more materials behind the area as a backdrop. Each material is a layer, and layers
+ * are rendered in order so that later layers appear in front of earlier ones. If a layer's material is textured, its
+ * texture coordinates are transformed to make sure its aspect ratio stays correct when displayed. Additionally,
+ * textured layers can optionally scroll as the camera moves, each at its own scroll factor so that layers can be used
+ * for parallax. If scrolling is enabled, a specific scale can be applied to how much of the view is showed. The
+ * backdrop is a single static model that fits the window. Each layer's texture coordinate transform is calculated from
+ * the camera's position and given to the world shader program as a uniform (see the TEX_TRANSFORM define in
+ * world_vertex.glsl), so scrolling never changes the model. Material backdrops are loaded through node-files but will
+ * not render until a camera reference is provided to them via useCam(). For more information on how to format a
+ * material backdrop node, see the constructor
  */
 public class MaterialBackDrop implements Area.BackDrop {
 
     /**
      * Members
      */
-    private Model mod;              // the model to render the material onto, fitting the window perfectly
-    private Material mat;           // the material to use for rendering the backdrop
-    private Camera cam;             // a reference to the camera whose position will be followed by the backdrop
-    private float viewScale = 1f;   /* how much of the material's texture's smaller component (width or height) to
-                                       display if scrolling is enabled and the material is textured */
-    private float texAr;            // the aspect ratio of the material's texture if it is textured
-    private int bmw, bmh;           // the width and height of the area's block map
-    private boolean scrolls = true; // whether or not the backdrop scrolls if it is textured
-    private boolean textured;       // a flag denoting if the material is textured
+    private final List<Layer> layers = new ArrayList<>(); // the layers of the backdrop in the order to render them
+    private final Model mod;                               // the model to render each layer onto, fitting the window
+    private final int bmw, bmh;                            // the width and height of the area's block map
+    private Camera cam;                                    // the camera whose position will be followed by the backdrop
 
     /**
      * Constructs the material backdrop by compiling information from a given node. Material backdrops can use (res)from
-     * statements. See utils.NodeLoader for more information on (res)from statements. A material backdrop node can have
-     * the following children:
+     * statements. See utils.NodeLoader for more information on (res)from statements. A material backdrop node describes
+     * the backmost layer of the backdrop and can have the following children:
      * <p>
      * - texture_paths [optional][default: no texture]: specifies what paths to look for textures at. This node
      * itself should have one or more children nodes formatted as path nodes. If more than one texture path is
@@ -62,49 +62,81 @@ public class MaterialBackDrop implements Area.BackDrop {
      * <p>
      * view_scale [optional][default: 1f][0.01f, 1f]: how much of the material's texture's smaller component (width or
      * height) to display if scrolling is enabled (1f if disabled) and the material is textured
+     * <p>
+     * scroll_factor [optional][default: 1f][0f, 1f]: how much the layer scrolls as the camera moves if scrolling is
+     * enabled and the material is textured. At 1f, the layer scrolls across its entire view as the camera moves across
+     * the area. Lower values scroll less, making the layer appear further away, and at 0f it does not scroll at all
+     * <p>
+     * layers [optional][default: none]: additional layers to render in front of the backmost layer, in order. This
+     * node itself should have one or more children nodes which are each formatted just like a material backdrop node
+     * (except that they cannot have their own layers). Layers in front should use textures with transparent areas so
+     * that the layers behind them remain visible
      *
      * @param data the node to use to construct the material backdrop
      * @param bmw  the width of the area's block map
      * @param bmh  the height of the area's block map
      */
     public MaterialBackDrop(Node data, int bmw, int bmh) {
+        List<Node> layerData = new ArrayList<>(); // the nodes of any additional layers
+        this.layers.add(loadLayer(data, layerData)); // load backmost layer
+        for (Node child : layerData) this.layers.add(loadLayer(child, null)); // load additional layers
+        this.bmw = bmw; // save block map width as member
+        this.bmh = bmh; // save block map height as member
+        this.mod = Model.getStdGridRect(2, 2); // create model
+        this.resized(); // fit model to window
+    }
+
+    /**
+     * Loads a single layer of a material backdrop from a node. See the constructor for how to format the node
+     *
+     * @param data      the node to load the layer from
+     * @param layerData the list to add any additional layer nodes to, or null if the node cannot have layers
+     * @return the loaded layer
+     */
+    private static Layer loadLayer(Node data, List<Node> layerData) {
 
         /*
          * Load material backdrop information using node loader
          */
         List<Utils.Path> texturePaths = new ArrayList<>();
         data = NodeLoader.checkForFromStatement("MaterialBackDrop", data);
+        List<NodeLoader.LoadItem> items = new ArrayList<>(Arrays.asList(
+                new NodeLoader.LoadItem<>("texture_paths", null, Node.class)
+                        .useTest((v, sb) -> {
+                    boolean issue = false;
+                    for (Node child : ((Node) v).getChildren()) {
+                        Utils.Path p = new Utils.Path(child);
+                        if (!p.exists()) {
+                            sb.append("Texture at path does not exist: '").append(p).append('\n');
+                            issue = true;
+                        } else texturePaths.add(p);
+                    }
+                    return !issue;
+                }),
+                new NodeLoader.LoadItem<>("color", "1f 1f 1f 1f", String.class)
+                        .useTest((v, sb) -> {
+                    float[] c = Utils.strToColor(v);
+                    if (c == null) {
+                        sb.append("Must be four valid rgba float values separated by a space");
+                        sb.append("\nFor example: '1f 0f 1f 0.5' for a half-transparent purple");
+                        return false;
+                    }
+                    return true;
+                }),
+                new NodeLoader.LoadItem<>("blend_mode", "none", String.class)
+                        .setAllowedValues(new String[]{"none", "multiplicative", "averaged"}),
+                new NodeLoader.LoadItem<>("scrolls", true, Boolean.class),
+                new NodeLoader.LoadItem<>("view_scale", 1f, Float.class)
+                        .setLowerBound(0.01f).setUpperBound(1f),
+                new NodeLoader.LoadItem<>("scroll_factor", 1f, Float.class)
+                        .setLowerBound(0f).setUpperBound(1f)));
+        if (layerData != null) items.add(new NodeLoader.LoadItem<>("layers", null, Node.class)
+                .useTest((v, sb) -> {
+            layerData.addAll(((Node) v).getChildren());
+            return true;
+        }));
         Map<String, Object> materialBackDrop = NodeLoader.loadFromNode("MaterialBackDrop", data,
-                new NodeLoader.LoadItem[]{
-                        new NodeLoader.LoadItem<>("texture_paths", null, Node.class)
-                                .useTest((v, sb) -> {
-                            boolean issue = false;
-                            for (Node child : ((Node) v).getChildren()) {
-                                Utils.Path p = new Utils.Path(child);
-                                if (!p.exists()) {
-                                    sb.append("Texture at path does not exist: '").append(p).append('\n');
-                                    issue = true;
-                                } else texturePaths.add(p);
-                            }
-                            return !issue;
-                        }),
-                        new NodeLoader.LoadItem<>("color", "1f 1f 1f 1f", String.class)
-                                .useTest((v, sb) -> {
-                            float[] c = Utils.strToColor(v);
-                            if (c == null) {
-                                sb.append("Must be four valid rgba float values separated by a space");
-                                sb.append("\nFor example: '1f 0f 1f 0.5' for a half-transparent purple");
-                                return false;
-                            }
-                            return true;
-                        }),
-                        new NodeLoader.LoadItem<>("blend_mode", "none", String.class)
-                                .setAllowedValues(new String[]{"none", "multiplicative", "averaged"}),
-                        new NodeLoader.LoadItem<>("scrolls", true, Boolean.class),
-                        new NodeLoader.LoadItem<>("view_scale", 1f, Float.class)
-                                .setLowerBound(0.01f).setUpperBound(1f)
-                });
-
+                items.toArray(new NodeLoader.LoadItem[0]));
 
         /*
          * Apply loaded information
@@ -114,16 +146,12 @@ public class MaterialBackDrop implements Area.BackDrop {
         float[] color = colorData == null ? Global.getThemeColor(Global.ThemeColor.WHITE) : Utils.strToColor(colorData);
         Texture t = texturePaths.size() > 0 ? new Texture(texturePaths.get((int) (Math.random() * texturePaths.size())))
                 : null; // create texture to use for the material
-        // create the material to use for the backdrop
-        this.mat = new Material(t, color, Material.BlendMode.valueOf(((String) materialBackDrop.get("blend_mode"))
+        // create the material to use for the layer
+        Material mat = new Material(t, color, Material.BlendMode.valueOf(((String) materialBackDrop.get("blend_mode"))
                 .toUpperCase()));
-        this.bmw = bmw; // save block map width as member
-        this.bmh = bmh; // save block map height as member
-        this.mod = Model.getStdGridRect(2, 2); // create model
-        this.resized(); // fit model to window
-        this.textured = this.mat.isTextured(); // save textured flag
-        if (this.textured) // if the material is textured, calculate its aspect ratio
-            this.texAr = (float) this.mat.getTexture().getWidth() / (float) this.mat.getTexture().getHeight();
+        boolean scrolls = (Boolean) materialBackDrop.get("scrolls"); // get scrolling flag
+        return new Layer(mat, scrolls ? (Float) materialBackDrop.get("view_scale") : 1f,
+                scrolls ? (Float) materialBackDrop.get("scroll_factor") : 0f); // create layer
     }
 
     /**
@@ -134,16 +162,15 @@ public class MaterialBackDrop implements Area.BackDrop {
      */
     public void useCam(Camera cam) {
         this.cam = cam; // save camera reference as member
-        this.updateTexCoords(); // calculate starting texture coordinates
     }
 
     /**
-     * Responds to window resizing by resizing the model to fit the window and re-calculating texture coordinates
+     * Responds to window resizing by resizing the model to fit the window. Texture coordinate transforms are calculated
+     * while rendering and will account for the new aspect ratio automatically
      */
     public void resized() {
         // resize model to fit the window
         mod.setScale(2f * (Global.ar > 1f ? Global.ar : 1), 2f / (Global.ar < 1f ? Global.ar : 1));
-        this.updateTexCoords(); // re-calculate texture coordinate
     }
 
     /**
@@ -157,59 +184,96 @@ public class MaterialBackDrop implements Area.BackDrop {
                     "render", false); // log and ignore
             return; // and return without rendering
         }
-        if (this.scrolls) this.updateTexCoords(); // if this scrolls, updating the texture coordinates
-        sp.setUniform("camZoom", 1f); // temporarily set camera zoom to 1f to show entire backdrop
-        sp.setUniform("useLights", 0); // do not use individual lights for background
+        sp.uniform(ShaderProgram.Common.CAM_ZOOM).set(1f); // temporarily set camera zoom to 1f to show entire backdrop
+        sp.setDefine("USE_LIGHTS", 0); // do not use individual lights for background
+        sp.setDefine("TEX_TRANSFORM", 1); // transform texture coordinates to scroll each layer
         // set position offset to camera's position
-        sp.setUniform("x", this.cam.getX());
-        sp.setUniform("y", this.cam.getY());
-        this.mat.setUniforms(sp); // set material uniforms
-        this.mod.render(); // render the model
-        sp.setUniform("useLights", 1); // turn light usage back on
-        sp.setUniform("camZoom", this.cam.getZoom()); // and reset the zoom to camera's actual zoom
-    }
-
-    /**
-     * Update's the models texture coordinates if the material backdrop is textured, based on the view scale and the
-     * scrolling flag
-     */
-    private void updateTexCoords() {
-        if (!this.textured) return; // if not textured, return
-        if (this.cam == null) return; // if no camera has been given, return
-
+        sp.uniform(ShaderProgram.Common.X).set(this.cam.getX());
+        sp.uniform(ShaderProgram.Common.Y).set(this.cam.getY());
         // calculate how far the camera is in proportion to the area width and height
-        float xProp = this.scrolls ? Math.max(0f, Math.min(1f, this.cam.getX() / (float) this.bmw)) : 0.5f;
-        float yProp = this.scrolls ? Math.max(0f, Math.min(1f, 1f - this.cam.getY() / (float) this.bmh)) : 0.5f;
-
-        // calculate the width and height of the view depending on the ratio of aspect ratios
-        float viewWidth = 1f, viewHeight = 1f;
-        if (Global.ar > texAr) { // screen is wider than backdrop in proportion to height
-            viewHeight = texAr / Global.ar; // apply ratio of ratios on view height
-        } else { // backdrop is wider than screen in proportion to height
-            viewWidth = Global.ar / texAr; // apply ratio of ratios on view width
+        float xProp = Math.max(0f, Math.min(1f, this.cam.getX() / (float) this.bmw));
+        float yProp = Math.max(0f, Math.min(1f, 1f - this.cam.getY() / (float) this.bmh));
+        for (Layer layer : this.layers) { // for each layer
+            layer.setTexTransform(sp, xProp, yProp); // set its texture coordinate transform
+            layer.mat.setUniforms(sp); // set its material uniforms
+            this.mod.render(sp); // and render the model
         }
-
-        // apply view scale
-        viewWidth *= this.viewScale;
-        viewHeight *= this.viewScale;
-
-        // calculate final texture coordinates
-        float lx = xProp * (1 - viewWidth); // calculate left x tex coordinate
-        float ly = yProp * (1 - viewHeight); // calculate lower y tex coordinate
-        this.mod.useTexCoords(new float[]{ // compile info into finalized texture coordinate float array
-                lx, ly, // top left
-                lx, ly + viewHeight, // bottom left
-                lx + viewWidth, ly + viewHeight, // bottom right
-                lx + viewWidth, ly // top right
-        });
+        sp.setDefine("TEX_TRANSFORM", 0); // turn texture coordinate transforms back off
+        sp.setDefine("USE_LIGHTS", 1); // turn light usage back on
+        sp.uniform(ShaderProgram.Common.CAM_ZOOM).set(this.cam.getZoom()); // and reset the zoom to camera's actual zoom
     }
 
     /**
-     * Cleans up the material backdrop by cleaning up its material and model
+     * Cleans up the material backdrop by cleaning up each layer's material and the model
      */
     @Override
     public void cleanup() {
-        this.mat.cleanup(); // cleanup material
+        for (Layer layer : this.layers) layer.mat.cleanup(); // cleanup materials
         this.mod.cleanup(); // cleanup model
     }
+
+    /**
+     * A single layer of a material backdrop
+     */
+    private static class Layer {
+
+        /**
+         * Members
+         */
+        private final Material mat;       // the material to use for rendering the layer
+        private final float viewScale;    /* how much of the material's texture's smaller component (width or height)
+                                             to display if the material is textured */
+        private final float scrollFactor; // how much the layer scrolls as the camera moves if the material is textured
+        private final float texAr;        // the aspect ratio of the material's texture if it is textured
+
+        /**
+         * Constructor
+         *
+         * @param mat          the material to use for rendering the layer
+         * @param viewScale    how much of the material's texture's smaller component (width or height) to display
+         * @param scrollFactor how much the layer scrolls as the camera moves, where 0f is not at all
+         */
+        private Layer(Material mat, float viewScale, float scrollFactor) {
+            this.mat = mat; // save material as member
+            this.viewScale = viewScale; // save view scale as member
+            this.scrollFactor = scrollFactor; // save scroll factor as member
+            this.texAr = mat.isTextured() ? (float) mat.getTexture().getWidth() / (float) mat.getTexture().getHeight()
+                    : 1f; // if the material is textured, calculate its aspect ratio
+        }
+
+        /**
+         * Sets the texture coordinate transform uniform for the layer based on the camera's position, the view scale,
+         * and the scroll factor
+         *
+         * @param sp    the world shader program
+         * @param xProp how far the camera is horizontally in proportion to the area width
+         * @param yProp how far the camera is vertically in proportion to the area height (from the top)
+         */
+        private void setTexTransform(ShaderProgram sp, float xProp, float yProp) {
+            if (!this.mat.isTextured()) { // if not textured, there is nothing to transform
+                sp.uniform(ShaderProgram.Common.TEX_TRANSFORM).set(1f, 1f, 0f, 0f);
+                return;
+            }
+
+            // calculate the width and height of the view depending on the ratio of aspect ratios
+            float viewWidth = 1f, viewHeight = 1f;
+            if (Global.ar > this.texAr) { // screen is wider than backdrop in proportion to height
+                viewHeight = this.texAr / Global.ar; // apply ratio of ratios on view height
+            } else { // backdrop is wider than screen in proportion to height
+                viewWidth = Global.ar / this.texAr; // apply ratio of ratios on view width
+            }
+
+            // apply view scale
+            viewWidth *= this.viewScale;
+            viewHeight *= this.viewScale;
+
+            // apply scroll factor, moving the camera's proportions towards the center as the factor decreases
+            xProp = 0.5f + (xProp - 0.5f) * this.scrollFactor;
+            yProp = 0.5f + (yProp - 0.5f) * this.scrollFactor;
+
+            // scale standard texture coordinates to the view and offset them
+            sp.uniform(ShaderProgram.Common.TEX_TRANSFORM).set(viewWidth, viewHeight, xProp * (1 - viewWidth),
+                    yProp * (1 - viewHeight));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package gameobject.gameworld;
 import gameobject.GameObject;
 import graphics.Material;
 import graphics.Model;
+import utils.FrameArena;
 import utils.PhysicsEngine;
 
 import java.util.ArrayList;
@@ -201,11 +202,12 @@ public class WorldObject extends GameObject {
      * @return the axis-aligned bounding box representing the world object. By default, this will return an AABB with
      * the full width and height of the object itself. Changing the world object's bounding width and bounding height
      * will make the AABB bigger/smaller. This may be useful if, for example, the object's texture doesn't fit the
-     * entire model
+     * entire model. The AABB is obtained from the frame arena (see utils.FrameArena) and so it should not be kept past
+     * the current frame
      */
     public PhysicsEngine.AABB getAABB() {
-        return new PhysicsEngine.AABB(this.getX(), this.getY(), this.getWidth() * this.bw,
-                this.getHeight() * this.bh); // create and return corresponding axis-aligned bounding box
+        return FrameArena.aabb(this.getX(), this.getY(), this.getWidth() * this.bw,
+                this.getHeight() * this.bh); // obtain and return corresponding axis-aligned bounding box
     }
 
     /**
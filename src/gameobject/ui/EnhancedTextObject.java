@@ -160,6 +160,14 @@ public class EnhancedTextObject extends GameObject {
         }
     }
 
+    /**
+     * @return false, since enhanced text objects render their lines of text along with their background
+     */
+    @Override
+    public boolean batchable() {
+        return false;
+    }
+
     /**
      * Solidifies the enhanced text object into a single-quad modeled game object. For enhanced text objects whose text
      * won't change often, this is imperative as it results in much more efficient rendering. Note that the resulting
@@ -169,21 +177,23 @@ public class EnhancedTextObject extends GameObject {
      * of 1f
      */
     public GameObject solidify() {
-        // create the aggregation shader program
-        ShaderProgram sp = new ShaderProgram(new Utils.Path("/shaders/aggregate_vertex.glsl", true),
+        // get the shared aggregation shader program
+        ShaderProgram sp = ShaderCache.get(new Utils.Path("/shaders/aggregate_vertex.glsl", true),
                 new Utils.Path("/shaders/aggregate_fragment.glsl", true));
-        sp.registerUniform("texSampler"); // register the texture sampler uniform
+        ShaderProgram.Uniform texSampler = sp.registerUniform("texSampler"); // register the texture sampler uniform
         sp.registerUniform("color"); // register the material color uniform
-        sp.registerUniform("isTextured"); // register the texture flag uniform
-        sp.registerUniform("blend"); // register the material blend uniform
-        sp.registerUniform("w"); // register texture width uniform
-        sp.registerUniform("h"); // register texture height uniform
+        sp.registerDefine("TEXTURED"); // register the texture flag define
+        sp.registerDefine("BLEND"); // register the material blend define
+        ShaderProgram.Uniform tw = sp.registerUniform("w"); // register texture width uniform
+        ShaderProgram.Uniform th = sp.registerUniform("h"); // register texture height uniform
+        ShaderProgram.Uniform fadeDir = sp.registerUniform("fadeDir"); // register fade direction uniform
         // register offset uniforms
         sp.registerUniform("x");
         sp.registerUniform("y");
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME); // register model transform uniform
         // register width/height division uniforms
-        sp.registerUniform("wDiv");
-        sp.registerUniform("hDiv");
+        ShaderProgram.Uniform wDiv = sp.registerUniform("wDiv");
+        ShaderProgram.Uniform hDiv = sp.registerUniform("hDiv");
 
         // figure out a horizontal resolution to use to size the resulting texture
         float resolutionX = 0;
@@ -203,17 +213,19 @@ public class EnhancedTextObject extends GameObject {
         int[] IDs = Utils.createFBOWithTextureAttachment(w, h);
 
         // pre-render
-        glBindFramebuffer(GL_FRAMEBUFFER, IDs[0]); // bind the frame buffer object
-        glViewport(0, 0, w, h); // set the viewport to the size of the texture
+        RenderStats.Pass pass = RenderStats.setPass(RenderStats.Pass.OFFSCREEN); // record work as offscreen
+        GLState.bindFramebuffer(IDs[0]); // bind the frame buffer object
+        GLState.viewport(0, 0, w, h); // set the viewport to the size of the texture
         glClear(GL_COLOR_BUFFER_BIT); // clear color
         sp.bind(); // bind the shader program
-        sp.setUniform("texSampler", 0); // tell the texture sampler to look in texture bank 0
+        texSampler.set(0); // tell the texture sampler to look in texture bank 0
         // set texture width/height uniforms
-        sp.setUniform("w", w);
-        sp.setUniform("h", h);
+        tw.set(w);
+        th.set(h);
+        fadeDir.set(0); // do not fade
         // set width/height division uniforms to normalize model coordinates
-        sp.setUniform("wDiv", this.model.getWidth() / 2f);
-        sp.setUniform("hDiv", this.model.getHeight() / 2f);
+        wDiv.set(this.model.getWidth() / 2f);
+        hDiv.set(this.model.getHeight() / 2f);
 
         // render
         float x = this.getX();
@@ -224,12 +236,13 @@ public class EnhancedTextObject extends GameObject {
 
         // post-render
         sp.unbind(); // unbind shader program
+        RenderStats.setPass(pass); // restore previous pass
         sp.cleanup(); // cleanup shader program
         Texture t = new Texture(IDs[1], w, h); // create final texture
-        glBindFramebuffer(GL_FRAMEBUFFER, 0); // unbind the frame buffer object
-        glDeleteFramebuffers(IDs[0]); // delete the frame buffer object
+        GLState.bindFramebuffer(0); // unbind the frame buffer object
+        GLState.deleteFramebuffer(IDs[0]); // delete the frame buffer object
         // reset GL viewport to window's framebuffer size
-        glViewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
+        GLState.viewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
 
         // create and return game object
         Model m = new Model(t.getModelCoords(resolutionY / this.getHeight()),
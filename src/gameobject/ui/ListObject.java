@@ -6,7 +6,6 @@ import graphics.Model;
 import graphics.ShaderProgram;
 import utils.Global;
 import utils.MouseInputEngine;
-import utils.Pair;
 import utils.Utils;
 
 import java.util.List;
@@ -156,11 +155,19 @@ public class ListObject extends GameObject implements MouseInputEngine.MouseInte
         super.render(sp); // render the list background first
         this.scrollBar.render(sp); // render scrollbar
         // set bounds on y to only render the parts of clipped list objects that are within the list
-        sp.setUniform("maxY", this.getY() + this.getHeight() / 2);
-        sp.setUniform("minY", this.getY() - this.getHeight() / 2);
-        sp.setUniform("boundY", 1); // tell shader to use the Y bounds
+        sp.uniform(ShaderProgram.Common.MAX_Y).set(this.getY() + this.getHeight() / 2);
+        sp.uniform(ShaderProgram.Common.MIN_Y).set(this.getY() - this.getHeight() / 2);
+        sp.uniform(ShaderProgram.Common.BOUND_Y).set(1); // tell shader to use the Y bounds
         if (this.visible) for (ListItem li : this.items) li.render(sp); // render list objects
-        sp.setUniform("boundY", 0); // tell shader to not use the Y bounds for anything else
+        sp.uniform(ShaderProgram.Common.BOUND_Y).set(0); // tell shader to not use the Y bounds for anything else
+    }
+
+    /**
+     * @return false, since list objects render their scroll bar and list items along with their background
+     */
+    @Override
+    public boolean batchable() {
+        return false;
     }
 
     /**
@@ -168,6 +175,7 @@ public class ListObject extends GameObject implements MouseInputEngine.MouseInte
      */
     @Override
     protected void onMove() {
+        super.onMove(); // call super's onMove
         this.position(false); // reposition list and list items
     }
 
@@ -269,9 +277,8 @@ public class ListObject extends GameObject implements MouseInputEngine.MouseInte
     public void mouseInteraction(MouseInputEngine.MouseInputType type, float x, float y) {
         MouseInputEngine.MouseInteractive.invokeCallback(type, this.mcs, x, y); // invoke appropriate callback
         ListItem item = null; // create a null list item reference
-        Pair<Float> pos = new Pair<>(x, y); // bundle mouse position into a pair
         for (ListItem li : this.items) { // for each list item
-            if (li.getFittingBox().contains(pos)) { // if the mouse is hovering it
+            if (li.getFittingBox().contains(x, y)) { // if the mouse is hovering it
                 item = li; // save its reference
                 break; // break from the loop - no items should overlap anyways unless a negative padding is given
             }
@@ -82,18 +82,23 @@ public class TextButton extends TextObject implements MouseInputEngine.MouseInte
         int w = this.getPixelWidth() * 3; // width is the pixel width of the text for each mouse state
         int h = (int)this.font.getCharHeight(); // height is the font's character height
 
-        // create the aggregation shader program
-        ShaderProgram sp = new ShaderProgram(new Utils.Path("/shaders/aggregate_vertex.glsl", true),
+        // get the shared aggregation shader program
+        ShaderProgram sp = ShaderCache.get(new Utils.Path("/shaders/aggregate_vertex.glsl", true),
                 new Utils.Path("/shaders/aggregate_fragment.glsl", true));
-        sp.registerUniform("texSampler"); // register the texture sampler uniform
+        ShaderProgram.Uniform texSampler = sp.registerUniform("texSampler"); // register the texture sampler uniform
         sp.registerUniform("color"); // register the material color uniform
-        sp.registerUniform("isTextured"); // register the texture flag uniform
-        sp.registerUniform("blend"); // register the material blend uniform
-        sp.registerUniform("w"); // register texture width uniform
-        sp.registerUniform("h"); // register texture height uniform
+        sp.registerDefine("TEXTURED"); // register the texture flag define
+        sp.registerDefine("BLEND"); // register the material blend define
+        ShaderProgram.Uniform tw = sp.registerUniform("w"); // register texture width uniform
+        ShaderProgram.Uniform th = sp.registerUniform("h"); // register texture height uniform
+        ShaderProgram.Uniform fadeDir = sp.registerUniform("fadeDir"); // register fade direction uniform
+        // register width/height division uniforms
+        ShaderProgram.Uniform wDiv = sp.registerUniform("wDiv");
+        ShaderProgram.Uniform hDiv = sp.registerUniform("hDiv");
         // register offset uniforms
-        sp.registerUniform("x");
-        sp.registerUniform("y");
+        ShaderProgram.Uniform x = sp.registerUniform("x");
+        ShaderProgram.Uniform y = sp.registerUniform("y");
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME); // register model transform uniform
 
         // create other necessary items
         int[] IDs = Utils.createFBOWithTextureAttachment(w, h); // create FBO w/ texture attached
@@ -109,37 +114,43 @@ public class TextButton extends TextObject implements MouseInputEngine.MouseInte
         this.model.scaleScale(1f / 3f, 1);
 
         // pre-render
-        glBindFramebuffer(GL_FRAMEBUFFER, IDs[0]); // bind the frame buffer object
-        glViewport(0, 0, w, h); // set the viewport to the size of the texture
+        RenderStats.Pass pass = RenderStats.setPass(RenderStats.Pass.OFFSCREEN); // record work as offscreen
+        GLState.bindFramebuffer(IDs[0]); // bind the frame buffer object
+        GLState.viewport(0, 0, w, h); // set the viewport to the size of the texture
         glClear(GL_COLOR_BUFFER_BIT); // clear color
         sp.bind(); // bind the shader program
-        sp.setUniform("texSampler", 0); // tell the texture sampler to look in texture bank 0
+        texSampler.set(0); // tell the texture sampler to look in texture bank 0
         // set the texture width/height uniforms
-        sp.setUniform("w", w);
-        sp.setUniform("h", h);
+        tw.set(w);
+        th.set(h);
+        fadeDir.set(0); // do not fade
+        wDiv.set(0f); // the model is already normalized so it should not be divided
+        hDiv.set(0f);
+        y.set(0f); // each third of the texture is vertically centered
 
         // render
         this.material.setColor(defaultC); // default color first
         this.material.setUniforms(sp); // set material uniforms
-        sp.setUniform("x", -2f / 3f); // set x to first third of texture
-        this.model.render(); // render model
+        x.set(-2f / 3f); // set x to first third of texture
+        this.model.render(sp); // render model
         this.material.setColor(hoverC); // hover color second
         this.material.setUniforms(sp); // set material uniforms
-        sp.setUniform("x", 0f); // set x to second third of texture
-        this.model.render(); // render model
+        x.set(0f); // set x to second third of texture
+        this.model.render(sp); // render model
         this.material.setColor(pressC); // press color third
         this.material.setUniforms(sp); // set material uniforms
-        sp.setUniform("x", 2f / 3f); // set x to final third of texture
-        this.model.render(); // render model
+        x.set(2f / 3f); // set x to final third of texture
+        this.model.render(sp); // render model
 
         // post-render
         sp.unbind(); // unbind shader program
+        RenderStats.setPass(pass); // restore previous pass
         sp.cleanup(); // cleanup shader program
         Texture t = new Texture(IDs[1], w, h); // create final texture
-        glBindFramebuffer(GL_FRAMEBUFFER, 0); // unbind the frame buffer object
-        glDeleteFramebuffers(IDs[0]); // delete the frame buffer object
+        GLState.bindFramebuffer(0); // unbind the frame buffer object
+        GLState.deleteFramebuffer(IDs[0]); // delete the frame buffer object
         // reset GL viewport to window's framebuffer size
-        glViewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
+        GLState.viewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
 
         // scale model to original scale and return material to original color
         this.model.setXScale(osx);
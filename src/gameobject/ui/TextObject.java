@@ -3,6 +3,7 @@ package gameobject.ui;
 import gameobject.GameObject;
 import graphics.*;
 import utils.Global;
+import utils.Profiler;
 
 /*
  * TextObject.java
@@ -135,6 +136,7 @@ public class TextObject extends GameObject {
             idx[s + 5] = i * 4 + 2;
         }
         float sx = this.model.getXScale(), sy = this.model.getYScale(); // get scaling factor of previous model
+        this.model.cleanup(); // cleanup previous model
         this.model = new Model(modelCoords, texCoords, idx); // create and set new model
         this.setScale(sx, sy); // re-apply scale
     }
@@ -148,7 +150,9 @@ public class TextObject extends GameObject {
     public boolean setText(String text) {
         if (!text.equals(this.text)) { // check if text actually changed since model refreshing is relatively heavy
             this.text = text; // set text
+            Profiler.begin("text"); // profile text
             this.refreshModel(text); // refresh model
+            Profiler.end("text");
             return true; // return that text was changed
         }
         return false; // if not, return not actually changed
@@ -182,7 +186,18 @@ public class TextObject extends GameObject {
      */
     @Override
     public void render(ShaderProgram sp) {
-        if (!this.text.equals("")) super.render(sp); // only render if there is actually text
+        if (this.text.equals("")) return; // only render if there is actually text
+        Profiler.begin(this.getProfileSection()); // profile text
+        super.render(sp); // render
+        Profiler.end(this.getProfileSection());
+    }
+
+    /**
+     * @return the name of the profiler section that text rendering is timed under, whether batched or not
+     */
+    @Override
+    public String getProfileSection() {
+        return "text";
     }
 
     /**
@@ -25,12 +25,14 @@ public class AnimatedTexture extends Texture {
     /**
      * Static Data
      */
-    public static Map<Integer, int[][]> texCoords = new HashMap<>(); /* this maps from amount of frames of an animation
-        to two sets of texture coordinate VBOs to used when rendering a frame, where value[0] is the set of texture
-        coordinate VBOs for un-flipped textures for the amount of frames given by the key and texCoords[1] is the set of
-        texture coordinate VBOs for flipped textures for the amount of frames given by the key. Since many textures may
-        be animated, this saves from having tons of repeat lists/arrays of texture coordinates. The fact that there is a
-        different set for each amount of frames also means that less variance in frame count is more space efficient */
+    private static final Map<Integer, int[][]> texCoords = new HashMap<>(); /* this maps from amount of frames of an
+        animation to two sets of texture coordinate VBOs to used when rendering a frame, where value[0] is the set of
+        texture coordinate VBOs for un-flipped textures for the amount of frames given by the key and texCoords[1] is
+        the set of texture coordinate VBOs for flipped textures for the amount of frames given by the key. Since many
+        textures may be animated, this saves from having tons of repeat lists/arrays of texture coordinates. The fact
+        that there is a different set for each amount of frames also means that less variance in frame count is more
+        space efficient. These VBOs are shared by everything animated, so they are kept until clearTexCoordVBOs() is
+        called once nothing is using them anymore */
 
     /**
      * Will get the correct texture coordinate vertex buffer object to give to a model given the current frame of the
@@ -46,11 +48,23 @@ public class AnimatedTexture extends Texture {
         // get the two sets of texture coordinate VBOs for the given amount of frames
         int[][] texCoordVBOs = AnimatedTexture.texCoords.computeIfAbsent(of, k -> new int[2][]);
         int[] vbos = texCoordVBOs[flip ? 1 : 0]; // get the VBOss corresponding to the flip flag
-        // if there are no VBOs for the given frame count and flip flag, create them
-        if (vbos == null) vbos = texCoordVBOs[flip ? 1 : 0] = Model.calcTexCoordVBOs(of, flip);
+        if (vbos == null) { // if there are no VBOs for the given frame count and flip flag, create them
+            GPUResources.beginOwner(GPUResources.SHARED); // the VBOs are shared by everything animated
+            vbos = texCoordVBOs[flip ? 1 : 0] = Model.calcTexCoordVBOs(of, flip);
+            GPUResources.endOwner();
+        }
         return vbos[frame]; // return the texture coordinate VBO for the current frame
     }
 
+    /**
+     * Cleans up every shared texture coordinate VBO. This should only be done once nothing is using them anymore
+     */
+    public static void clearTexCoordVBOs() {
+        for (int[][] sets : texCoords.values()) for (int[] vbos : sets) // for each set of VBOs
+            if (vbos != null) for (int vbo : vbos) GLState.deleteBuffer(vbo); // delete each VBO
+        texCoords.clear(); // and forget them
+    }
+
     /**
      * Members
      */
@@ -127,6 +141,13 @@ public class AnimatedTexture extends Texture {
         return AnimatedTexture.getTexCoordVBO(this.frame, this.frames, flip);
     }
 
+    /**
+     * @return the current frame of the animated texture
+     */
+    public int getFrame() {
+        return this.frame;
+    }
+
     /**
      * @return the amount of frames the animated texture has
      */
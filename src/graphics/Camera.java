@@ -1,10 +1,9 @@
 package graphics;
 
 import gameobject.GameObject;
+import utils.FrameArena;
 import utils.Global;
-import utils.Pair;
 import utils.PhysicsEngine;
-import utils.Transformation;
 
 /*
  * ROC.java
@@ -144,12 +143,26 @@ public class Camera {
     }
 
     /**
-     * @return an axis-aligned bounding box defining the camera's view
+     * @return an axis-aligned bounding box defining the camera's view. It is obtained from the frame arena (see
+     * utils.FrameArena) and so it should not be kept past the current frame
      */
     public PhysicsEngine.AABB getView() {
-        // get the width/height of the bounding box based off zoom and aspect ratio
-        Pair<Float> size = Transformation.deaspect(new Pair<>(2 / this.zoom, 2 / this.zoom), Global.ar);
-        return new PhysicsEngine.AABB(this.x, this.y, size.x, size.y); // create and return bounding box
+        // get the width/height of the bounding box based off zoom and aspect ratio (see Transformation.deaspect())
+        float w = 2 / this.zoom, h = 2 / this.zoom;
+        if (Global.ar > 1.0f) w *= Global.ar; // widen if necessary
+        else h /= Global.ar; // thin if necessary
+        return FrameArena.aabb(this.x, this.y, w, h); // obtain and return bounding box
+    }
+
+    /**
+     * Calculates how many pixels one world unit covers at the camera's current zoom
+     *
+     * @param w the width of the surface being rendered to in pixels
+     * @param h the height of the surface being rendered to in pixels
+     * @return the amount of pixels along one world unit. The view always fits 2 / zoom units along its shorter side
+     */
+    public float getPixelsPerUnit(int w, int h) {
+        return this.zoom * Math.min(w, h) / 2f;
     }
 
     /**
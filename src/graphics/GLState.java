@@ -0,0 +1,362 @@
+package graphics;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL13C.glActiveTexture;
+import static org.lwjgl.opengl.GL20.glCreateProgram;
+import static org.lwjgl.opengl.GL20.glDeleteProgram;
+import static org.lwjgl.opengl.GL20.glUseProgram;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
+
+/*
+ * GLState.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Tracks the GL state that the engine changes while rendering (the current program, vertex array object, texture
+ * bindings for each texture unit, blending, framebuffer, and viewport) so that changes to state that is already set
+ * can be skipped. For this to work, all engine code must change this state through these methods rather than by calling
+ * GL directly, and must delete programs, vertex array objects, textures, and framebuffers through these methods as well
+ * so that a deleted (and possibly re-used) id is never assumed to still be bound. If GL state is ever changed behind
+ * the tracker's back, invalidate() should be called. Draw calls and buffer creations go through here as well so that,
+ * along with the binds that are actually performed, they can be recorded (see RenderStats). Likewise, every GL object
+ * should be created and deleted through here so that live GL objects can be tracked (see GPUResources)
+ */
+public abstract class GLState {
+
+    /**
+     * Static Data
+     */
+    private static final int MAX_UNITS = 8;                        // the amount of texture units tracked
+    private static final int UNKNOWN = -1;                         // used to denote that a piece of state is not known
+    private static final int[] textures2D = new int[MAX_UNITS];    // the 2D texture bound to each texture unit
+    private static final int[] textureArrays = new int[MAX_UNITS]; // the array texture bound to each texture unit
+    private static final int[] viewport = new int[4];              // the current viewport (x, y, width, height)
+    private static int program, vao, framebuffer, activeUnit;      // current program, vao, framebuffer, and unit
+    private static int blend, blendSrc, blendDst;                  // current blend flag (0 or 1) and color factors
+    private static int blendSrcA, blendDstA;                       // current alpha blend factors
+
+    /**
+     * Static initializer which starts out with all state unknown
+     */
+    static {
+        invalidate(); // nothing is known to begin with
+    }
+
+    /**
+     * Forgets all tracked state so that the next change to each piece of state will be performed no matter what. This
+     * should be called whenever GL state may have been changed without going through this class
+     */
+    public static void invalidate() {
+        for (int i = 0; i < MAX_UNITS; i++) textures2D[i] = textureArrays[i] = UNKNOWN; // forget texture bindings
+        for (int i = 0; i < 4; i++) viewport[i] = UNKNOWN; // forget viewport
+        program = vao = framebuffer = activeUnit = UNKNOWN; // forget program, vao, framebuffer, and active unit
+        blend = blendSrc = blendDst = blendSrcA = blendDstA = UNKNOWN; // forget blending
+    }
+
+    /**
+     * Uses the given shader program if it is not already in use
+     *
+     * @param id the id of the program to use, or 0 to use no program
+     */
+    public static void useProgram(int id) {
+        if (program == id) return; // skip if already in use
+        glUseProgram(id); // use program
+        program = id; // remember program
+    }
+
+    /**
+     * Binds the given vertex array object if it is not already bound
+     *
+     * @param id the id of the vertex array object to bind, or 0 to bind none
+     */
+    public static void bindVertexArray(int id) {
+        if (vao == id) return; // skip if already bound
+        glBindVertexArray(id); // bind vertex array object
+        vao = id; // remember vertex array object
+    }
+
+    /**
+     * Binds the given 2D texture to the given texture unit if it is not already bound there
+     *
+     * @param unit the texture unit to bind to, starting at 0
+     * @param id   the id of the texture to bind, or 0 to bind none
+     */
+    public static void bindTexture(int unit, int id) {
+        bindTexture(unit, GL_TEXTURE_2D, id); // bind as a 2D texture
+    }
+
+    /**
+     * Binds the given texture to the given texture unit if it is not already bound there
+     *
+     * @param unit   the texture unit to bind to, starting at 0
+     * @param target the texture target to bind to. Either GL_TEXTURE_2D or GL_TEXTURE_2D_ARRAY
+     * @param id     the id of the texture to bind, or 0 to bind none
+     */
+    public static void bindTexture(int unit, int target, int id) {
+        int[] bound = target == GL_TEXTURE_2D_ARRAY ? textureArrays : textures2D; // get bindings for the target
+        if (unit < MAX_UNITS && bound[unit] == id) return; // skip if already bound
+        if (activeUnit != unit) { // if the unit is not already active
+            glActiveTexture(GL_TEXTURE0 + unit); // activate it
+            activeUnit = unit; // remember active unit
+        }
+        glBindTexture(target, id); // bind texture
+        if (unit < MAX_UNITS) bound[unit] = id; // remember texture
+        RenderStats.record(RenderStats.Counter.TEXTURE_BINDS, 1); // record bind
+    }
+
+    /**
+     * Binds the given framebuffer if it is not already bound
+     *
+     * @param id the id of the framebuffer to bind, or 0 to bind the window's framebuffer
+     */
+    public static void bindFramebuffer(int id) {
+        if (framebuffer == id) return; // skip if already bound
+        glBindFramebuffer(GL_FRAMEBUFFER, id); // bind framebuffer
+        framebuffer = id; // remember framebuffer
+        RenderStats.record(RenderStats.Counter.FBO_SWITCHES, 1); // record switch
+    }
+
+    /**
+     * Copies the color of one framebuffer into another, stretching it with nearest filtering if the sizes differ. The
+     * destination framebuffer is left bound
+     *
+     * @param src  the id of the framebuffer to copy from, or 0 for the window's framebuffer
+     * @param srcW the width of the area to copy from
+     * @param srcH the height of the area to copy from
+     * @param dst  the id of the framebuffer to copy into, or 0 for the window's framebuffer
+     * @param dstW the width of the area to copy into
+     * @param dstH the height of the area to copy into
+     */
+    public static void blitFramebuffer(int src, int srcW, int srcH, int dst, int dstW, int dstH) {
+        glBindFramebuffer(GL_READ_FRAMEBUFFER, src); // bind source for reading
+        glBindFramebuffer(GL_DRAW_FRAMEBUFFER, dst); // bind destination for drawing
+        glBlitFramebuffer(0, 0, srcW, srcH, 0, 0, dstW, dstH, GL_COLOR_BUFFER_BIT, GL_NEAREST); // copy
+        glBindFramebuffer(GL_FRAMEBUFFER, dst); // leave destination bound for both
+        framebuffer = dst; // remember framebuffer
+        RenderStats.record(RenderStats.Counter.FBO_SWITCHES, 1); // record switch
+    }
+
+    /**
+     * @return the id of the currently bound framebuffer, or -1 if it is not known
+     */
+    public static int getFramebuffer() {
+        return framebuffer;
+    }
+
+    /**
+     * Sets the viewport if it is not already set to the given values
+     *
+     * @param x the x of the lower left corner of the viewport
+     * @param y the y of the lower left corner of the viewport
+     * @param w the width of the viewport
+     * @param h the height of the viewport
+     */
+    public static void viewport(int x, int y, int w, int h) {
+        if (viewport[0] == x && viewport[1] == y && viewport[2] == w && viewport[3] == h) return; // skip if same
+        glViewport(x, y, w, h); // set viewport
+        viewport[0] = x; // remember viewport
+        viewport[1] = y;
+        viewport[2] = w;
+        viewport[3] = h;
+    }
+
+    /**
+     * @return the width of the current viewport, or -1 if it is not known
+     */
+    public static int getViewportWidth() {
+        return viewport[2];
+    }
+
+    /**
+     * @return the height of the current viewport, or -1 if it is not known
+     */
+    public static int getViewportHeight() {
+        return viewport[3];
+    }
+
+    /**
+     * Enables or disables blending if it is not already enabled or disabled
+     *
+     * @param enabled whether blending should be enabled
+     */
+    public static void setBlend(boolean enabled) {
+        if (blend == (enabled ? 1 : 0)) return; // skip if already set
+        if (enabled) glEnable(GL_BLEND); // enable blending
+        else glDisable(GL_BLEND); // or disable it
+        blend = enabled ? 1 : 0; // remember blending
+    }
+
+    /**
+     * Sets the blend function if it is not already set to the given factors
+     *
+     * @param src the source blend factor
+     * @param dst the destination blend factor
+     */
+    public static void blendFunc(int src, int dst) {
+        if (blendSrc == src && blendDst == dst && blendSrcA == src && blendDstA == dst) return; // skip if same
+        glBlendFunc(src, dst); // set blend function
+        blendSrc = blendSrcA = src; // remember blend function
+        blendDst = blendDstA = dst;
+    }
+
+    /**
+     * Sets separate blend functions for color and alpha if they are not already set to the given factors
+     *
+     * @param src  the source color blend factor
+     * @param dst  the destination color blend factor
+     * @param srcA the source alpha blend factor
+     * @param dstA the destination alpha blend factor
+     */
+    public static void blendFuncSeparate(int src, int dst, int srcA, int dstA) {
+        if (blendSrc == src && blendDst == dst && blendSrcA == srcA && blendDstA == dstA) return; // skip if same
+        glBlendFuncSeparate(src, dst, srcA, dstA); // set blend functions
+        blendSrc = src; // remember blend functions
+        blendDst = dst;
+        blendSrcA = srcA;
+        blendDstA = dstA;
+    }
+
+    /**
+     * Draws triangles using the given amount of indices from the index buffer of the bound vertex array object
+     *
+     * @param count the amount of indices to draw
+     */
+    public static void drawElements(int count) {
+        glDrawElements(GL_TRIANGLES, count, GL_UNSIGNED_INT, 0); // draw
+        RenderStats.record(RenderStats.Counter.DRAW_CALLS, 1); // record draw call
+        RenderStats.record(RenderStats.Counter.VERTICES, count); // and vertices
+    }
+
+    /**
+     * Draws the given amount of instances of triangles using the given amount of indices from the index buffer of the
+     * bound vertex array object
+     *
+     * @param count     the amount of indices to draw per instance
+     * @param instances the amount of instances to draw
+     */
+    public static void drawElementsInstanced(int count, int instances) {
+        glDrawElementsInstanced(GL_TRIANGLES, count, GL_UNSIGNED_INT, 0, instances); // draw
+        RenderStats.record(RenderStats.Counter.DRAW_CALLS, 1); // record draw call
+        RenderStats.record(RenderStats.Counter.VERTICES, (long) count * instances); // and vertices
+    }
+
+    /**
+     * Creates a new buffer object
+     *
+     * @return the id of the new buffer object
+     */
+    public static int genBuffer() {
+        RenderStats.record(RenderStats.Counter.BUFFER_CREATIONS, 1); // record creation
+        int id = glGenBuffers(); // create buffer
+        GPUResources.created(GPUResources.Kind.BUFFER, id); // track it
+        return id;
+    }
+
+    /**
+     * Creates a new vertex array object
+     *
+     * @return the id of the new vertex array object
+     */
+    public static int genVertexArray() {
+        int id = glGenVertexArrays(); // create vertex array object
+        GPUResources.created(GPUResources.Kind.VERTEX_ARRAY, id); // track it
+        return id;
+    }
+
+    /**
+     * Creates a new texture
+     *
+     * @return the id of the new texture
+     */
+    public static int genTexture() {
+        int id = glGenTextures(); // create texture
+        GPUResources.created(GPUResources.Kind.TEXTURE, id); // track it
+        return id;
+    }
+
+    /**
+     * Creates a new framebuffer
+     *
+     * @return the id of the new framebuffer
+     */
+    public static int genFramebuffer() {
+        int id = glGenFramebuffers(); // create framebuffer
+        GPUResources.created(GPUResources.Kind.FRAMEBUFFER, id); // track it
+        return id;
+    }
+
+    /**
+     * Creates a new shader program
+     *
+     * @return the id of the new program
+     */
+    public static int createProgram() {
+        int id = glCreateProgram(); // create program
+        GPUResources.created(GPUResources.Kind.PROGRAM, id); // track it
+        return id;
+    }
+
+    /**
+     * Deletes the given buffer object
+     *
+     * @param id the id of the buffer object to delete
+     */
+    public static void deleteBuffer(int id) {
+        glDeleteBuffers(id); // delete buffer
+        GPUResources.deleted(GPUResources.Kind.BUFFER, id); // stop tracking it
+    }
+
+    /**
+     * Deletes the given shader program, forgetting it if it is in use
+     *
+     * @param id the id of the program to delete
+     */
+    public static void deleteProgram(int id) {
+        glDeleteProgram(id); // delete program
+        GPUResources.deleted(GPUResources.Kind.PROGRAM, id); // stop tracking it
+        if (program == id) program = UNKNOWN; // forget it if it was in use
+    }
+
+    /**
+     * Deletes the given vertex array object, forgetting it if it is bound
+     *
+     * @param id the id of the vertex array object to delete
+     */
+    public static void deleteVertexArray(int id) {
+        glDeleteVertexArrays(id); // delete vertex array object
+        GPUResources.deleted(GPUResources.Kind.VERTEX_ARRAY, id); // stop tracking it
+        if (vao == id) vao = 0; // deleting a bound vertex array object reverts the binding to zero
+    }
+
+    /**
+     * Deletes the given texture, forgetting it anywhere it is bound
+     *
+     * @param id the id of the texture to delete
+     */
+    public static void deleteTexture(int id) {
+        glDeleteTextures(id); // delete texture
+        GPUResources.deleted(GPUResources.Kind.TEXTURE, id); // stop tracking it
+        for (int i = 0; i < MAX_UNITS; i++) { // deleting a bound texture reverts the binding to zero
+            if (textures2D[i] == id) textures2D[i] = 0;
+            if (textureArrays[i] == id) textureArrays[i] = 0;
+        }
+    }
+
+    /**
+     * Deletes the given framebuffer, forgetting it if it is bound
+     *
+     * @param id the id of the framebuffer to delete
+     */
+    public static void deleteFramebuffer(int id) {
+        glDeleteFramebuffers(id); // delete framebuffer
+        GPUResources.deleted(GPUResources.Kind.FRAMEBUFFER, id); // stop tracking it
+        if (framebuffer == id) framebuffer = 0; // deleting a bound framebuffer reverts the binding to zero
+    }
+}
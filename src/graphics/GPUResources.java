@@ -0,0 +1,256 @@
+package graphics;
+
+import utils.Global;
+import utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * GPUResources.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Keeps track of every live GL object (vertex array objects, buffers, textures, framebuffers, and programs) so that GL
+ * objects that are never deleted can be found. GL objects are created and deleted through GLState, which tells the
+ * registry about them, and their sizes in bytes are given to the registry once they are known so that the amount of
+ * video memory in use can be estimated. Live counts and the estimate are shown in the debug info (see
+ * updateDebugInfo()).
+ * <p>
+ * Each GL object is owned by whatever owner is current when it is created. Owners are made current with beginOwner()
+ * and stop being current with endOwner(), and owners can be nested. Game logics own everything created while they are
+ * the engine's logic, and areas own everything created while they are being constructed. Objects created by the shared
+ * caches (see ModelCache and ShaderCache) are owned by SHARED and objects created when there is no current owner are
+ * owned by GLOBAL, since both are meant to live until the engine cleans up. Once an owner is cleaned up, checkReleased()
+ * reports any GL objects it still owns as leaks. The registry is not thread-safe, but GL objects can only be created on
+ * the main thread anyway
+ */
+public abstract class GPUResources {
+
+    /**
+     * Static Data
+     */
+    public static final String SHARED = "shared";  // the owner of GL objects created by shared caches
+    public static final String GLOBAL = "global";  // the owner of GL objects created when there is no current owner
+    private static final Map<Kind, Map<Integer, Resource>> LIVE = new EnumMap<>(Kind.class); // live GL objects by kind
+    private static final Deque<String> OWNERS = new ArrayDeque<>(); // the current owner is at the top
+    private static final long[] BYTES = new long[Kind.values().length]; // estimated bytes in use by kind
+
+    /**
+     * Static initializer which creates the live GL object maps
+     */
+    static {
+        for (Kind kind : Kind.values()) LIVE.put(kind, new HashMap<>()); // create a map for each kind
+    }
+
+    /**
+     * Makes the given owner the current owner until endOwner() is called
+     *
+     * @param owner the owner. This can be SHARED, GLOBAL, or any object, such as a game logic or an area
+     */
+    public static void beginOwner(Object owner) {
+        OWNERS.push(name(owner)); // make the owner current
+    }
+
+    /**
+     * Makes the owner that was current before the last call to beginOwner() current again
+     */
+    public static void endOwner() {
+        if (OWNERS.isEmpty()) // if there is no current owner, there is a mismatched call
+            Utils.handleException(new Exception("Ended an owner without beginning one"), GPUResources.class,
+                    "endOwner", false); // log and ignore
+        else OWNERS.pop(); // otherwise, make the previous owner current
+    }
+
+    /**
+     * Records the creation of a GL object
+     *
+     * @param kind the kind of GL object created
+     * @param id   the id of the GL object
+     */
+    static void created(Kind kind, int id) {
+        Resource old = LIVE.get(kind).put(id, new Resource(OWNERS.isEmpty() ? GLOBAL : OWNERS.peek()));
+        if (old != null) BYTES[kind.ordinal()] -= old.bytes; // GL re-used an id that was not deleted through GLState
+    }
+
+    /**
+     * Records the deletion of a GL object
+     *
+     * @param kind the kind of GL object deleted
+     * @param id   the id of the GL object
+     */
+    static void deleted(Kind kind, int id) {
+        Resource r = LIVE.get(kind).remove(id); // forget the GL object
+        if (r != null) BYTES[kind.ordinal()] -= r.bytes; // and stop counting its size
+    }
+
+    /**
+     * Records the size of the data given to a GL object
+     *
+     * @param kind  the kind of GL object
+     * @param id    the id of the GL object
+     * @param bytes the size of the GL object's data in bytes
+     */
+    public static void setSize(Kind kind, int id, long bytes) {
+        Resource r = LIVE.get(kind).get(id); // find the GL object
+        if (r == null) return; // ignore GL objects not created through GLState
+        BYTES[kind.ordinal()] += bytes - r.bytes; // update estimate
+        r.bytes = bytes; // and save the new size
+    }
+
+    /**
+     * Reports any GL objects still owned by the given owner as leaks. This should be called once the owner has been
+     * cleaned up
+     *
+     * @param owner the owner to check
+     * @param fatal whether the program should exit if there are any leaks
+     * @return the amount of leaked GL objects
+     */
+    public static int checkReleased(Object owner, boolean fatal) {
+        return report(name(owner), fatal);
+    }
+
+    /**
+     * Reports any GL objects that are still alive as leaks. This should be called once everything, including the
+     * shared caches and global members, has been cleaned up
+     *
+     * @param fatal whether the program should exit if there are any leaks
+     * @return the amount of leaked GL objects
+     */
+    public static int checkAllReleased(boolean fatal) {
+        return report(null, fatal);
+    }
+
+    /**
+     * Reports live GL objects owned by the given owner as leaks
+     *
+     * @param owner the name of the owner whose GL objects to report, or null to report every live GL object
+     * @param fatal whether the program should exit if there are any leaks
+     * @return the amount of leaked GL objects
+     */
+    private static int report(String owner, boolean fatal) {
+        StringBuilder sb = new StringBuilder(); // describe the leaks of each kind
+        int total = 0; // count the leaks
+        for (Kind kind : Kind.values()) { // for each kind of GL object
+            int count = 0;
+            long bytes = 0;
+            for (Resource r : LIVE.get(kind).values()) { // for each live GL object of that kind
+                if (owner != null && !owner.equals(r.owner)) continue; // skip if not owned by the given owner
+                count++; // count it
+                bytes += r.bytes;
+            }
+            if (count == 0) continue; // no need to describe kinds with no leaks
+            sb.append(sb.length() > 0 ? ", " : "").append(count).append(' ').append(kind.label)
+                    .append(" (").append(formatBytes(bytes)).append(')'); // describe the leaks
+            total += count;
+        }
+        if (total > 0) // if there are leaks, report them
+            Utils.handleException(new Exception(total + " GL object(s) outlived " + (owner == null ?
+                    "cleanup" : "their owner '" + owner + "'") + ": " + sb), GPUResources.class, "report", fatal);
+        return total;
+    }
+
+    /**
+     * Shows the amount of live GL objects of each kind and the estimated amount of video memory they use in the debug
+     * info
+     */
+    public static void updateDebugInfo() {
+        StringBuilder sb = new StringBuilder(); // describe the amount of live GL objects of each kind
+        long bytes = 0; // and sum up their sizes
+        for (Kind kind : Kind.values()) {
+            sb.append(sb.length() > 0 ? ", " : "").append(kind.label).append(' ').append(LIVE.get(kind).size());
+            bytes += BYTES[kind.ordinal()];
+        }
+        Global.debugInfo.setField("gl objects", sb.toString());
+        Global.debugInfo.setField("vram (est.)", formatBytes(bytes));
+    }
+
+    /**
+     * @param kind the kind of GL object
+     * @return the amount of live GL objects of the given kind
+     */
+    public static int getLive(Kind kind) {
+        return LIVE.get(kind).size();
+    }
+
+    /**
+     * @return the estimated amount of video memory used by live GL objects in bytes
+     */
+    public static long getBytes() {
+        long bytes = 0;
+        for (long b : BYTES) bytes += b;
+        return bytes;
+    }
+
+    /**
+     * Names an owner
+     *
+     * @param owner the owner to name
+     * @return the name, which is the owner itself if it is a string, or the owner's class and identity otherwise so
+     * that two owners of the same class are never confused
+     */
+    private static String name(Object owner) {
+        if (owner instanceof String) return (String) owner;
+        return owner.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(owner));
+    }
+
+    /**
+     * Formats an amount of bytes into a readable string
+     *
+     * @param bytes the amount of bytes
+     * @return the formatted string
+     */
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024f);
+        return String.format("%.1f MB", bytes / (1024f * 1024f));
+    }
+
+    /**
+     * The kinds of GL objects tracked
+     */
+    public enum Kind {
+        VERTEX_ARRAY("vao"), BUFFER("buf"), TEXTURE("tex"), FRAMEBUFFER("fbo"), PROGRAM("prog");
+
+        /**
+         * Members
+         */
+        private final String label; // a short label for the kind used in the debug info and leak reports
+
+        /**
+         * Constructor
+         *
+         * @param label a short label for the kind used in the debug info and leak reports
+         */
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * A live GL object
+     */
+    private static class Resource {
+
+        /**
+         * Members
+         */
+        private final String owner; // the name of the GL object's owner
+        private long bytes;         // the size of the GL object's data in bytes, if known
+
+        /**
+         * Constructor
+         *
+         * @param owner the name of the GL object's owner
+         */
+        private Resource(String owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -68,6 +68,13 @@ public class LightSourceMaterial extends Material {
         sp.putInLightArrayUniform(this.light, this.lightX, this.lightY); // insert material's light into light array
     }
 
+    /**
+     * @return the material's light source
+     */
+    public LightSource getLight() {
+        return this.light;
+    }
+
     /**
      * Sets the position of the light in the material. A defined offset will be added to the given position
      *
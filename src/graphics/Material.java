@@ -3,10 +3,7 @@ package graphics;
 import utils.Global;
 import utils.Utils;
 
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
-import static org.lwjgl.opengl.GL11.glBindTexture;
-import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
-import static org.lwjgl.opengl.GL13C.glActiveTexture;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
 
 /*
  * Material.java
@@ -20,10 +17,16 @@ import static org.lwjgl.opengl.GL13C.glActiveTexture;
  */
 public class Material {
 
+    /**
+     * Static Data
+     */
+    private static int nextID = 1; // the id to give to the next material created
+
     /**
      * Members
      */
     private final BlendMode blendMode; // how this Material blends its texture and color when it has both
+    private final int id = nextID++;   // a unique id used to sort render commands by material (see RenderQueue)
     private float[] color;             // the color of this material if it has one
     protected Texture texture;         // the texture of this material if it has one
 
@@ -77,20 +80,25 @@ public class Material {
     }
 
     /**
-     * Sets the necessary uniforms in the given shader program to render using the material
+     * Sets the necessary uniforms in the given shader program to render using the material. The material's texture
+     * flag and blend mode are set as the TEXTURED and BLEND defines so that the shader program uses the variant
+     * specialized for them (see ShaderProgram.setDefine())
      *
      * @param sp the shader program whose uniforms are to be sed
      */
     public void setUniforms(ShaderProgram sp) {
-        if (this.isTextured()) { // if the material is textured
-            sp.setUniform("isTextured", 1); // set textured flag to true
-            glActiveTexture(GL_TEXTURE0); // set active texture to one in slot 0
-            glBindTexture(GL_TEXTURE_2D, this.texture.getID()); // bind texture
-        } else sp.setUniform("isTextured", 0); // set textured flag to false otherwise
-        if (this.isColored()) // if the material is colored
-            sp.setUniform("color", this.color[0], this.color[1], this.color[2], this.color[3]); // color uniforms
-        sp.setUniform("blend", this.blendMode == Material.BlendMode.NONE ? 0 :
-                (this.blendMode == Material.BlendMode.MULTIPLICATIVE ? 1 : 2)); // set blend uniform
+        if (this.texture instanceof TextureArray) { // if the material's texture is a texture array
+            sp.setDefine("TEXTURED", 2); // set textured flag to denote a texture array
+            GLState.bindTexture(1, GL_TEXTURE_2D_ARRAY, this.texture.getID()); // bind texture array to slot 1
+        } else if (this.isTextured()) { // if the material is textured
+            sp.setDefine("TEXTURED", 1); // set textured flag to true
+            GLState.bindTexture(0, this.texture.getID()); // bind texture to slot 0
+        } else sp.setDefine("TEXTURED", 0); // set textured flag to false otherwise
+        if (this.isColored()) // if the material is colored, set color uniform
+            sp.uniform(ShaderProgram.Common.COLOR).set(this.color[0], this.color[1], this.color[2], this.color[3]);
+        // set blend define. Blending only matters when textured, so untextured materials share a single variant
+        sp.setDefine("BLEND", !this.isTextured() || this.blendMode == Material.BlendMode.NONE ? 0 :
+                (this.blendMode == Material.BlendMode.MULTIPLICATIVE ? 1 : 2));
     }
 
     /**
@@ -139,6 +147,13 @@ public class Material {
         return this.texture;
     }
 
+    /**
+     * @return the material's unique id
+     */
+    public int getID() {
+        return this.id;
+    }
+
     /**
      * Cleans up the material
      */
@@ -2,14 +2,13 @@ package graphics;
 
 import org.lwjgl.system.MemoryUtil;
 import utils.FittingBox;
-import utils.Pair;
 import utils.Utils;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 
 import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL30.*;
 
@@ -23,10 +22,31 @@ import static org.lwjgl.opengl.GL30.*;
 /**
  * Represents a model with model coordinates, texture coordinates, and indices
  * This model supports scaling, rotating, and bounding box generation. However, in order for these to work as intended,
- * the center of the model MUST be (0, 0)
+ * the center of the model MUST be (0, 0). A model's model coordinates are uploaded once and never change. Scaling and
+ * rotation are instead applied in the vertex shader using a transform (see Model.Transform), which is set as a
+ * uniform whenever the model is rendered (see render()). Thus, every shader program used to render models must have a
+ * vec4 uniform named TRANSFORM_UNIFORM_NAME holding the horizontal scale, vertical scale, cosine of the rotation, and
+ * sine of the rotation, and must scale and then rotate model coordinates by it. Every model has its own transform, but
+ * a model can also be rendered with any other transform of it (see createTransform()), which is how game objects scale
+ * and rotate shared models (see ModelCache) without affecting each other
  */
 public class Model {
 
+    /**
+     * Static Data
+     */
+    public static final String TRANSFORM_UNIFORM_NAME = "transform"; // the name of transform uniforms in shaders
+
+    /**
+     * Sets the transform uniform of the given shader program to have no scaling or rotation. This should be used when
+     * rendering vertices that are already transformed (see SpriteBatch)
+     *
+     * @param sp the shader program whose transform uniform to set
+     */
+    public static void useIdentityTransform(ShaderProgram sp) {
+        sp.uniform(ShaderProgram.Common.TRANSFORM).set(1f, 1f, 1f, 0f); // no scaling and a rotation of zero
+    }
+
     /**
      * Calculates the sets of texture coordinates for each frame
      *
@@ -39,9 +59,10 @@ public class Model {
             float[] texCoords = getTexCoordsForFrame(i, frameCount, flip); // calc the texture coordinates
             FloatBuffer fb = MemoryUtil.memAllocFloat(texCoords.length); // allocate buffer space for tex coord data
             fb.put(texCoords).flip(); // put texture coordinate data into buffer
-            VBOs[i] = glGenBuffers(); // generate texture coordinate vertex buffer object
+            VBOs[i] = GLState.genBuffer(); // generate texture coordinate vertex buffer object
             glBindBuffer(GL_ARRAY_BUFFER, VBOs[i]); // bind texture coordinate vertex buffer object
             glBufferData(GL_ARRAY_BUFFER, fb, GL_STATIC_DRAW); // put tex coord data into tex coord VBO
+            GPUResources.setSize(GPUResources.Kind.BUFFER, VBOs[i], texCoords.length * 4L); // record size
             MemoryUtil.memFree(fb); // free buffer
         }
         glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind any VBOs
@@ -134,32 +155,58 @@ public class Model {
      * @return whether the model is rectangular
      */
     public static boolean isRectangular(Model m) {
-        if (m.modelCoords.length != 8) return false;
-        float dax = m.modelCoords[2] - m.modelCoords[0];
-        float day = m.modelCoords[3] - m.modelCoords[1];
+        return isRectangular(m.getModelCoords()); // check transformed model coordinates
+    }
+
+    /**
+     * Checks if the given model coordinates are rectangular
+     *
+     * @param mc the model coordinates to check
+     * @return whether the model coordinates are rectangular
+     */
+    private static boolean isRectangular(float[] mc) {
+        if (mc.length != 8) return false;
+        float dax = mc[2] - mc[0];
+        float day = mc[3] - mc[1];
         float da = (float) Math.sqrt(dax * dax + day * day);
-        float dbx = m.modelCoords[4] - m.modelCoords[6];
-        float dby = m.modelCoords[5] - m.modelCoords[7];
+        float dbx = mc[4] - mc[6];
+        float dby = mc[5] - mc[7];
         float db = (float) Math.sqrt(dbx * dbx + dby * dby);
         return (Math.abs(db - da) < 0.0001f);
     }
 
+    /**
+     * Checks if the given indices draw separate quads the way standard rectangle indices do (see getStdRectIdx()), with
+     * four vertices per quad
+     *
+     * @param vertices the amount of vertices
+     * @param indices  the indices to check
+     * @return whether the indices draw separate quads
+     */
+    private static boolean isQuads(int vertices, int[] indices) {
+        if (vertices % 4 != 0 || indices.length != vertices / 4 * 6) return false; // must be six indices per quad
+        int[] std = getStdRectIdx(); // get standard rectangle indices
+        for (int i = 0; i < indices.length; i++) if (indices[i] != (i / 6) * 4 + std[i % 6]) return false; // compare
+        return true;
+    }
+
     /**
      * Members
      */
-    protected final float[] modelCoords; // the model's model coordinates
+    protected final float[] modelCoords; // the model's model coordinates, before scaling and rotation
+    private float[] texCoords;           // the texture coordinates in the texture coordinate VBO that belongs to it
+    private final Transform transform;   // the model's own scale and rotation
     protected final int[] ids;           /* integer array to store the various GL object ids: [0] - VAO ID,
                                             [1] - model coordinate VBO ID, [2] - texture coordinate VBO ID,
                                             [3] - index VBO ID */
     protected final int idx;             // the amount of vertices this shape has
-    private final float uw, uh;          // width and height of the model when not rotated
-    private float sx = 1f, sy = 1f;      // horizontal and vertical scale
-    private float r = 0f;                // rotation in radians
-    private float w = 0, h = 0;          // width and height of the model in model coordinates
-    private boolean outdatedSize = true; /* whenever scale or rotation of the model is changed, this flag will be set
-                                            to true but the model won't re-calculate width and height until the
-                                            corresponding methods are called while this flag is true to save computing
-                                            power */
+    private int ownTexCoords;            /* the texture coordinate VBO that belongs to the model. This is kept even
+                                            while the model uses a VBO that belongs to something else (such as an
+                                            animated texture) so that it can be cleaned up with the model */
+    private final float uw, uh;          // width and height of the model when not scaled or rotated
+    private final boolean quads;         // whether the model is made up of separate quads (see isQuads())
+    boolean shared;                      // whether the model is shared through the model cache (see ModelCache)
+    boolean animatedTexCoords;           // if shared, whether the model is in the animated texture coordinate set
 
     /**
      * Constructs the model
@@ -175,112 +222,131 @@ public class Model {
         // set and initialize members
         this.modelCoords = new float[modelCoords.length]; // create new array for model coordinates
         for (int i = 0; i < modelCoords.length; i++) this.modelCoords[i] = modelCoords[i]; // copy model coordinates
+        this.texCoords = texCoords.clone(); // copy texture coordinates
+        this.transform = new Transform(); // create the model's own transform
         this.idx = indices.length; // save index count
+        // check if the model is made up of quads with a texture coordinate for each vertex
+        this.quads = texCoords.length == modelCoords.length && isQuads(modelCoords.length / 2, indices);
         this.ids = new int[4]; // initialize ID array
 
         // create buffers, generation VAO
         FloatBuffer fb; // buffer to use for loading float data into VBOs
         IntBuffer ib; // buffer to use for loading integer data into VBOs
-        this.ids[0] = glGenVertexArrays(); // generate the vertex array object
-        glBindVertexArray(this.ids[0]); // bind the vertex array object
+        this.ids[0] = GLState.genVertexArray(); // generate the vertex array object
+        GLState.bindVertexArray(this.ids[0]); // bind the vertex array object
 
         // process model coordinate data
-        this.updateModelCoordsVBO(); // update model coordinates
-        glBindVertexArray(this.ids[0]); // bind the vertex array object
+        fb = MemoryUtil.memAllocFloat(this.modelCoords.length); // allocate buffer space for position data
+        fb.put(this.modelCoords).flip(); // put position data into buffer
+        this.ids[1] = GLState.genBuffer(); // generate position vertex buffer object
+        glBindBuffer(GL_ARRAY_BUFFER, this.ids[1]); // bind position vertex buffer object
+        glBufferData(GL_ARRAY_BUFFER, fb, GL_STATIC_DRAW); // put position data into position VBO
+        GPUResources.setSize(GPUResources.Kind.BUFFER, this.ids[1], modelCoords.length * 4L); // record size
+        glVertexAttribPointer(0, 2, GL_FLOAT, false, 0, 0); // put VBO into VAO
+        MemoryUtil.memFree(fb); // free buffer
 
         // process texture coordinate data
         fb = MemoryUtil.memAllocFloat(texCoords.length); // allocate buffer space for tex coord data
         fb.put(texCoords).flip(); // put texture coordinate data into buffer
-        this.ids[2] = glGenBuffers(); // generate texture coordinate vertex buffer object
+        this.ids[2] = GLState.genBuffer(); // generate texture coordinate vertex buffer object
         glBindBuffer(GL_ARRAY_BUFFER, this.ids[2]); // bind texture coordinate vertex buffer object
         glBufferData(GL_ARRAY_BUFFER, fb, GL_STATIC_DRAW); // put tex coord data into tex coord VBO
+        GPUResources.setSize(GPUResources.Kind.BUFFER, this.ids[2], texCoords.length * 4L); // record size
+        this.ownTexCoords = this.ids[2]; // the model owns its texture coordinate VBO
         glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0); // put VBO into VAO
         MemoryUtil.memFree(fb); // free buffer
 
         // process index data
         ib = MemoryUtil.memAllocInt(indices.length); // allocate buffer space for index data
         ib.put(indices).flip(); // put index data into buffer
-        this.ids[3] = glGenBuffers(); // generate index vertex buffer object
+        this.ids[3] = GLState.genBuffer(); // generate index vertex buffer object
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, this.ids[3]); // bind index vertex buffer object
         glBufferData(GL_ELEMENT_ARRAY_BUFFER, ib, GL_STATIC_DRAW); // put index data into index VBO
+        GPUResources.setSize(GPUResources.Kind.BUFFER, this.ids[3], indices.length * 4L); // record size
         MemoryUtil.memFree(ib); // free buffer
 
-        // unbind VBO, VAO
+        // enable the attributes once. The VAO remembers this so rendering does not need to enable and disable them
+        glEnableVertexAttribArray(0); // enable model coordinate vbo
+        glEnableVertexAttribArray(1); // enable texture coordinate vbo
         glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind VBO
-        glBindVertexArray(0); // unbind VAO
 
         // calculate initial size
-        this.calculateSize(); // calculate size
-        this.uw = this.w; // save width as un-rotated width
-        this.uh = this.h; // save height as un-rotated height
+        this.uw = this.transform.getWidth(); // save width as un-scaled and un-rotated width
+        this.uh = this.transform.getHeight(); // save height as un-scaled and un-rotated height
     }
 
     /**
-     * Renders the model
+     * Renders the model with its own transform
+     *
+     * @param sp the shader program to render with. It should already be bound
      */
-    public void render() {
-        glBindVertexArray(this.ids[0]); // bind vao
-        glEnableVertexAttribArray(0); // enable model coordinate vbo
-        glEnableVertexAttribArray(1); // enable texture coordinate vbo
-        glDrawElements(GL_TRIANGLES, this.idx, GL_UNSIGNED_INT, 0); // draw model
-        glDisableVertexAttribArray(0); // disable model coordinate vbo
-        glDisableVertexAttribArray(1); // disable texture coordinate vbo
-        glBindVertexArray(0); // disable vao
-    }
-
-    /**
-     * Updates the width and height members of the model
-     */
-    private void calculateSize() {
-        if (modelCoords.length == 0) { // if empty model
-            this.w = this.h = 0; // set width and height to 0
-        } else { // otherwise
-            float minX = modelCoords[0], minY = modelCoords[1]; // initialize minimum x and y to the first x and y
-            float maxX = minX, maxY = minY; // initialize max x and y to the first x and y
-            for (int i = 2; i < modelCoords.length; i++) { // for the rest of the model coordinates
-                if (i % 2 == 0) { // if an x coordinate
-                    minX = Math.min(minX, modelCoords[i]); // check for smaller x
-                    maxX = Math.max(maxX, modelCoords[i]); // check for larger x
-                } else { // if a y coordinate
-                    minY = Math.min(minY, modelCoords[i]); // check for smaller y
-                    maxY = Math.max(maxY, modelCoords[i]); // check for larger y
-                }
-            }
-            this.w = Math.abs(maxX - minX); // store width of model
-            this.h = Math.abs(maxY - minY); // store height of model
-        }
-        this.outdatedSize = false; // set size update flag to false
+    public void render(ShaderProgram sp) {
+        this.render(sp, this.transform); // render with own transform
     }
 
     /**
-     * Updates the model coordinates VBO with the current model coordinates member of the model
+     * Renders the model by setting the given shader program's transform uniform to the given transform and then
+     * drawing the model
+     *
+     * @param sp the shader program to render with. It should already be bound
+     * @param t  the transform of the model to render with (see createTransform())
      */
-    private void updateModelCoordsVBO() {
-        glBindVertexArray(this.ids[0]); // bind the vertex array object
-        FloatBuffer b = MemoryUtil.memAllocFloat(this.modelCoords.length); // allocate buffer space for position data
-        b.put(this.modelCoords).flip(); // put position data into buffer
-        this.ids[1] = glGenBuffers(); // generate position vertex buffer object
-        glBindBuffer(GL_ARRAY_BUFFER, this.ids[1]); // bind position vertex buffer object
-        glBufferData(GL_ARRAY_BUFFER, b, GL_STATIC_DRAW); // put position data into position VBO
-        glVertexAttribPointer(0, 2, GL_FLOAT, false, 0, 0); // put VBO into VAO
-        glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind VBO
-        glBindVertexArray(0); // unbind the vertex array object
+    public void render(ShaderProgram sp, Transform t) {
+        t.setUniform(sp); // set transform uniform
+        GLState.bindVertexArray(this.ids[0]); // bind vao
+        GLState.drawElements(this.idx); // draw model
+    }
+
+    /**
+     * Sets the given shader program's transform uniform to the model's own scale and rotation
+     *
+     * @param sp the shader program whose transform uniform to set
+     */
+    public void setTransformUniform(ShaderProgram sp) {
+        this.transform.setUniform(sp); // set transform uniform
+    }
+
+    /**
+     * Creates a new transform of the model with no scaling or rotation. The model can be rendered with it, and it can
+     * be scaled and rotated, without affecting the model's own transform. This is how game objects scale and rotate
+     * shared models
+     *
+     * @return the new transform
+     */
+    public Transform createTransform() {
+        return new Transform();
+    }
+
+    /**
+     * @return the model's own transform. This should not be modified directly if the model is shared
+     */
+    public Transform getTransform() {
+        return this.transform;
     }
 
     /**
      * Updates the texture coordinate VBO the model should use when rendering
      *
      * @param id      the id of the new VBO to use
-     * @param cleanup whether to cleanup the previous vbo
+     * @param cleanup whether the new VBO belongs to the model, in which case the VBO that belonged to the model before
+     *                is cleaned up. VBOs that do not belong to the model (such as those of animated textures) are never
+     *                cleaned up by it
      */
     public void useTexCoordVBO(int id, boolean cleanup) {
-        if (cleanup) glDeleteBuffers(this.ids[2]); // delete old VBO if cleanup enabled
+        if (id == this.ids[2]) return; // if the VBO is already in use, there is nothing to do
+        if (this.shared && (cleanup || !this.animatedTexCoords)) { // shared models' texture coordinates can't change
+            this.modifiedShared("useTexCoordVBO"); // unless they are animated and the VBO is being kept
+            return;
+        }
+        if (cleanup) { // if the new VBO belongs to the model
+            GLState.deleteBuffer(this.ownTexCoords); // delete the VBO that belonged to it before
+            this.ownTexCoords = id; // and take ownership of the new one
+        }
         this.ids[2] = id; // save new VBO ID
-        glBindVertexArray(this.ids[0]); // bind the vertex array object
+        GLState.bindVertexArray(this.ids[0]); // bind the vertex array object
         glBindBuffer(GL_ARRAY_BUFFER, id); // bind texture coordinate vertex buffer object
         glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0); // put VBO into VAO
         glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind VBO
-        glBindVertexArray(0); // unbind vao
     }
 
     /**
@@ -292,31 +358,34 @@ public class Model {
      * @param texCoords the new texture coordinates to use
      */
     public void useTexCoords(float[] texCoords) {
+        if (this.shared) { // shared models' texture coordinates can't change, so don't create a VBO that would leak
+            this.modifiedShared("useTexCoords");
+            return;
+        }
         FloatBuffer fb = MemoryUtil.memAllocFloat(texCoords.length); // allocate buffer space for tex coord data
         fb.put(texCoords).flip(); // put texture coordinate data into buffer
-        int id = glGenBuffers(); // generate texture coordinate vertex buffer object
+        int id = GLState.genBuffer(); // generate texture coordinate vertex buffer object
         glBindBuffer(GL_ARRAY_BUFFER, id); // bind texture coordinate vertex buffer object
         glBufferData(GL_ARRAY_BUFFER, fb, GL_STATIC_DRAW); // put tex coord data into tex coord VBO
+        GPUResources.setSize(GPUResources.Kind.BUFFER, id, texCoords.length * 4L); // record size
+        MemoryUtil.memFree(fb); // free buffer
         this.useTexCoordVBO(id, true); // use the new VBO
+        this.texCoords = texCoords.clone(); // and copy the texture coordinates
     }
 
     /**
-     * Sets the scaling factors of the model to the given scaling factors. . This assumes the center of the model is
-     * (0, 0)
+     * Sets the scaling factors of the model to the given scaling factors. This assumes the center of the model is
+     * (0, 0). Only the model's transform changes, so this is cheap
      *
      * @param x the x scaling factor to use
      * @param y the y scaling factor to use
      */
     public void setScale(float x, float y) {
-        float mx = x / this.sx, my = y / this.sy; // get multiplicative factor to use on each model coordinate
-        this.sx = x;
-        this.sy = y; // update members
-        for (int i = 0; i < this.modelCoords.length; i++) { // for each model coordinate
-            if (i % 2 == 0) this.modelCoords[i] *= mx; // if x coordinate, use x factor on it
-            else this.modelCoords[i] *= my; // if y coordinate, use y factor on it
+        if (this.shared) { // shared models can't be scaled
+            this.modifiedShared("setScale");
+            return;
         }
-        this.updateModelCoordsVBO(); // update VBO
-        this.outdatedSize = true; // flag that the size members are outdated
+        this.transform.setScale(x, y); // update transform
     }
 
     /**
@@ -326,7 +395,7 @@ public class Model {
      * @param y the vertical factor to multiply the current vertical scaling factor by
      */
     public void scaleScale(float x, float y) {
-        this.setScale(x * this.sx, y * this.sy);
+        this.setScale(x * this.transform.sx, y * this.transform.sy);
     }
 
     /**
@@ -336,7 +405,7 @@ public class Model {
      * @param x the x scaling factor to use
      */
     public void setXScale(float x) {
-        this.setScale(x, this.sy); // call other method
+        this.setScale(x, this.transform.sy); // call other method
     }
 
     /**
@@ -346,76 +415,113 @@ public class Model {
      * @param y the y scaling factor to use
      */
     public void setYScale(float y) {
-        this.setScale(this.sx, y); // call other method
+        this.setScale(this.transform.sx, y); // call other method
     }
 
     /**
-     * Sets the rotation of the model. This assumes the center of the model is (0, 0)
+     * Sets the rotation of the model. This assumes the center of the model is (0, 0). Only the model's transform
+     * changes, so this is cheap
      *
      * @param r the new rotation in radians
      */
     public void setRotationRad(float r) {
-        r = r % (2 * (float) Math.PI); // keep within one full rotation
-        float dr = r - this.r; // calculate difference from current rotation
-        this.r = r; // save member
-        for (int i = 0; i < this.modelCoords.length; i += 2) { // for each coordinate
-            Pair<Float> rp = Utils.rotatePoint(0f, 0f, modelCoords[i], modelCoords[i + 1], dr); // rotate it
-            this.modelCoords[i] = rp.x; // save rotated x
-            this.modelCoords[i + 1] = rp.y; // save rotated y
+        if (this.shared) { // shared models can't be rotated
+            this.modifiedShared("setRotationRad");
+            return;
         }
-        this.updateModelCoordsVBO(); // update VBO
-        this.outdatedSize = true; // flag that the size members are outdated
+        this.transform.setRotationRad(r); // update transform
+    }
+
+    /**
+     * Logs an attempt to modify a shared model. Shared models are used by many game objects at once, so modifying one
+     * would modify all of them. The modification is ignored
+     *
+     * @param method the method through which the modification was attempted
+     */
+    private void modifiedShared(String method) {
+        Utils.handleException(new Exception("Attempted to modify a shared model. Scale or rotate a transform of it " +
+                "instead (see createTransform())"), this.getClass(), method, false); // log it
+    }
+
+    /**
+     * @return whether the model is shared through the model cache (see ModelCache)
+     */
+    public boolean isShared() {
+        return this.shared;
     }
 
     /**
      * @return this model's width in model coordinates
      */
     public float getWidth() {
-        if (this.outdatedSize) this.calculateSize(); // if outdated width member, recalculate
-        return this.w; // return width
+        return this.transform.getWidth();
     }
 
     /**
      * @return this model's width when not rotated
      */
     public float getUnrotatedWidth() {
-        return this.uw * this.sx; // take scale into account and return
+        return this.transform.getUnrotatedWidth();
     }
 
     /**
      * @return this model's horizontal scaling factor
      */
     public float getXScale() {
-        return this.sx;
+        return this.transform.sx;
     }
 
     /**
      * @return this model's height in model coordinates
      */
     public float getHeight() {
-        if (this.outdatedSize) this.calculateSize(); // if outdated height member, recalculate
-        return this.h; // return height
+        return this.transform.getHeight();
     }
 
     /**
      * @return this model's height when not rotated
      */
     public float getUnrotatedHeight() {
-        return this.uh * this.sy; // take scale into account and return
+        return this.transform.getUnrotatedHeight();
     }
 
     /**
      * @return this model's vertical scaling factor
      */
     public float getYScale() {
-        return this.sy;
+        return this.transform.sy;
     }
 
     /**
      * @return the model's rotation in radians
      */
     public float getRotationRad() {
-        return this.r;
+        return this.transform.r;
+    }
+
+    /**
+     * @return the model's current model coordinates with its scale and rotation applied. Note that this is the model's
+     * own array and should not be modified
+     */
+    public float[] getModelCoords() {
+        return this.transform.getModelCoords();
+    }
+
+    /**
+     * @return the texture coordinates in the texture coordinate VBO that belongs to the model (see useTexCoords()).
+     * While the model uses a VBO that belongs to something else (see useTexCoordVBO()), these are not the texture
+     * coordinates being rendered with. Note that this is the model's own array and should not be modified
+     */
+    public float[] getTexCoords() {
+        return this.texCoords;
+    }
+
+    /**
+     * @return whether the model is made up of separate quads, four vertices each, indexed like standard rectangles
+     * (see getStdRectIdx()). Such models can be drawn as part of a sprite batch (see SpriteBatch)
+     */
+    public boolean isQuads() {
+        return this.quads;
     }
 
     /**
@@ -425,30 +531,197 @@ public class Model {
      * @return the fitting box described above
      */
     public FittingBox getFittingBox() {
-        if (isRectangular(this)) { // if rectangular
-            float[] corners = new float[this.modelCoords.length]; // create corners array
-            for (int i = 0; i < corners.length; i += 2) { // fill it with model coordinates
-                corners[i] = modelCoords[i]; // copy x
-                corners[i + 1] = modelCoords[i + 1]; // copy y
-            }
-            return new FittingBox(corners, this.r, 0f, 0f); // return perfect fitting box
-        } else { // if not rectangular
-            float w2 = this.getWidth() / 2; // calculate half of width of fitting box
-            float h2 = this.getHeight() / 2; // calculate half of height of fitting box
-            // create un-rotated fitting box that fits all points
-            return new FittingBox(new float[]{-w2, h2, -w2, -h2, w2, -h2, w2, h2}, 0f, 0f, 0f);
-        }
+        return this.getFittingBox(new FittingBox()); // set a new fitting box
+    }
+
+    /**
+     * Sets the given fitting box to the model's fitting box (see getFittingBox()). This allows fitting boxes to be
+     * re-used instead of created each time, for example by obtaining them from the frame arena (see utils.FrameArena)
+     *
+     * @param fb the fitting box to set
+     * @return the given fitting box after being set
+     */
+    public FittingBox getFittingBox(FittingBox fb) {
+        return this.transform.getFittingBox(fb);
     }
 
     /**
-     * Cleans up this model by deleting buffers and unbinding any buffer objects or array objects
+     * Cleans up this model by deleting buffers and unbinding any buffer objects or array objects. Shared models are
+     * not cleaned up since others may still be using them (see ModelCache)
      */
     public void cleanup() {
-        glDisableVertexAttribArray(0); // disable model coordinate vbo in vao
-        glDisableVertexAttribArray(1); // disable texture coordinate vbo in vao
+        if (this.shared) return; // leave shared models for the model cache to clean up
         glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind any vbo
-        for (int i = 1; i < this.ids.length; i++) glDeleteBuffers(this.ids[i]); // delete VBOs
-        glBindVertexArray(0); // unbind vao
-        glDeleteVertexArrays(this.ids[0]); // delete vao
+        GLState.deleteBuffer(this.ids[1]); // delete model coordinate VBO
+        GLState.deleteBuffer(this.ownTexCoords); // delete the texture coordinate VBO that belongs to the model
+        GLState.deleteBuffer(this.ids[3]); // delete index VBO
+        GLState.deleteVertexArray(this.ids[0]); // delete vao
+    }
+
+    /**
+     * A scale and rotation of the model. Every model has its own transform, which its scaling and rotation methods
+     * change, but any amount of other transforms can be created (see createTransform()) and the model can be rendered
+     * with any of them
+     */
+    public class Transform {
+
+        /**
+         * Members
+         */
+        private final float[] transformed;   // the model's model coordinates after scaling and rotation
+        private float sx = 1f, sy = 1f;      // horizontal and vertical scale
+        private float r = 0f;                // rotation in radians
+        private float cos = 1f, sin = 0f;    // cosine and sine of the rotation
+        private float w = 0, h = 0;          // width and height of the model in model coordinates
+        private boolean outdatedSize = true; /* whenever scale or rotation is changed, this flag will be set to true
+                                                but width, height, and transformed model coordinates won't be
+                                                re-calculated until they are needed to save computing power */
+
+        /**
+         * Constructs the transform with no scaling or rotation
+         */
+        private Transform() {
+            this.transformed = new float[Model.this.modelCoords.length]; // create array for transformed coordinates
+        }
+
+        /**
+         * Sets the scaling factors to the given scaling factors. This assumes the center of the model is (0, 0)
+         *
+         * @param x the x scaling factor to use
+         * @param y the y scaling factor to use
+         */
+        public void setScale(float x, float y) {
+            this.sx = x;
+            this.sy = y; // update members
+            this.outdatedSize = true; // flag that the size members are outdated
+        }
+
+        /**
+         * Sets the rotation. This assumes the center of the model is (0, 0)
+         *
+         * @param r the new rotation in radians
+         */
+        public void setRotationRad(float r) {
+            r = r % (2 * (float) Math.PI); // keep within one full rotation
+            this.r = r; // save member
+            this.cos = (float) Math.cos(r); // save cosine and sine for the uniform
+            this.sin = (float) Math.sin(r);
+            this.outdatedSize = true; // flag that the size members are outdated
+        }
+
+        /**
+         * Sets the given shader program's transform uniform to the transform's scale and rotation
+         *
+         * @param sp the shader program whose transform uniform to set
+         */
+        public void setUniform(ShaderProgram sp) {
+            sp.uniform(ShaderProgram.Common.TRANSFORM).set(this.sx, this.sy, this.cos, this.sin); // set uniform
+        }
+
+        /**
+         * Updates the width, height, and transformed model coordinate members of the transform
+         */
+        private void calculateSize() {
+            float[] mc = Model.this.modelCoords; // get the model's un-transformed coordinates
+            for (int i = 0; i < mc.length; i += 2) { // for each coordinate, scale and then rotate it
+                float x = mc[i] * this.sx, y = mc[i + 1] * this.sy; // scale it
+                this.transformed[i] = x * this.cos - y * this.sin; // rotate x
+                this.transformed[i + 1] = y * this.cos + x * this.sin; // rotate y
+            }
+            float[] modelCoords = this.transformed; // calculate size using transformed coordinates
+            if (modelCoords.length == 0) { // if empty model
+                this.w = this.h = 0; // set width and height to 0
+            } else { // otherwise
+                float minX = modelCoords[0], minY = modelCoords[1]; // initialize minimum x and y to the first x and y
+                float maxX = minX, maxY = minY; // initialize max x and y to the first x and y
+                for (int i = 2; i < modelCoords.length; i++) { // for the rest of the model coordinates
+                    if (i % 2 == 0) { // if an x coordinate
+                        minX = Math.min(minX, modelCoords[i]); // check for smaller x
+                        maxX = Math.max(maxX, modelCoords[i]); // check for larger x
+                    } else { // if a y coordinate
+                        minY = Math.min(minY, modelCoords[i]); // check for smaller y
+                        maxY = Math.max(maxY, modelCoords[i]); // check for larger y
+                    }
+                }
+                this.w = Math.abs(maxX - minX); // store width
+                this.h = Math.abs(maxY - minY); // store height
+            }
+            this.outdatedSize = false; // set size update flag to false
+        }
+
+        /**
+         * @return the width of the model in model coordinates with this transform applied
+         */
+        public float getWidth() {
+            if (this.outdatedSize) this.calculateSize(); // if outdated width member, recalculate
+            return this.w; // return width
+        }
+
+        /**
+         * @return the height of the model in model coordinates with this transform applied
+         */
+        public float getHeight() {
+            if (this.outdatedSize) this.calculateSize(); // if outdated height member, recalculate
+            return this.h; // return height
+        }
+
+        /**
+         * @return the width of the model with this transform's scale but not its rotation applied
+         */
+        public float getUnrotatedWidth() {
+            return Model.this.uw * this.sx; // take scale into account and return
+        }
+
+        /**
+         * @return the height of the model with this transform's scale but not its rotation applied
+         */
+        public float getUnrotatedHeight() {
+            return Model.this.uh * this.sy; // take scale into account and return
+        }
+
+        /**
+         * @return the horizontal scaling factor
+         */
+        public float getXScale() {
+            return this.sx;
+        }
+
+        /**
+         * @return the vertical scaling factor
+         */
+        public float getYScale() {
+            return this.sy;
+        }
+
+        /**
+         * @return the rotation in radians
+         */
+        public float getRotationRad() {
+            return this.r;
+        }
+
+        /**
+         * @return the model's model coordinates with this transform applied. Note that this is the transform's own
+         * array and should not be modified
+         */
+        public float[] getModelCoords() {
+            if (this.outdatedSize) this.calculateSize(); // if outdated transformed coordinates, recalculate
+            return this.transformed;
+        }
+
+        /**
+         * Sets the given fitting box to the model's fitting box with this transform applied. If the model is
+         * rectangular, it will be a perfectly-sized and rotated fitting box. Otherwise, it will be the smallest
+         * possible fitting box that can house all vertices
+         *
+         * @param fb the fitting box to set
+         * @return the given fitting box after being set
+         */
+        public FittingBox getFittingBox(FittingBox fb) {
+            float[] mc = this.getModelCoords(); // get transformed model coordinates
+            // if rectangular, set a perfect fitting box. The coordinates are copied by the fitting box
+            if (isRectangular(mc)) return fb.set(mc, this.r, 0f, 0f);
+            else return fb.setRect(this.getWidth(), this.getHeight()); // otherwise, set one that fits all points
+        }
     }
 }
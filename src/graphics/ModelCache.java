@@ -0,0 +1,74 @@
+package graphics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * ModelCache.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Provides shared rectangular grid models so that game objects with the same geometry do not each need their own
+ * vertex array object and buffers. Models are keyed only by their size in grid cells and texture coordinate set, so
+ * the cache never grows past one model for each of those. Shared models cannot be scaled, rotated, or given new
+ * texture coordinates. Instead, game objects with shared models keep their own transform of the model (see
+ * Model.Transform), which they scale and rotate and render the model with. Cleaning up a shared model does nothing,
+ * since others may still be using it. Shared models are only actually cleaned up when the cache is cleared
+ * <p>
+ * There are two texture coordinate sets: standard and animated. Models in the standard set always use the standard
+ * rectangle texture coordinates. Models in the animated set are meant for game objects with animated textures, which
+ * tell their model which texture coordinates (frame) to use right before every render. Since every game object using
+ * an animated model does this, they can safely share it with each other, but not with game objects whose textures are
+ * not animated
+ */
+public abstract class ModelCache {
+
+    /**
+     * Static Data
+     */
+    private static final Map<String, Model> MODELS = new HashMap<>(); // the shared models mapped by their keys
+
+    /**
+     * Finds or creates the shared rectangular model with the given size in grid cells
+     *
+     * @param w        the width of the model in grid cells
+     * @param h        the height of the model in grid cells
+     * @param animated whether the model should be in the animated texture coordinate set (see class description)
+     * @return the shared model
+     */
+    public static Model getGridRect(int w, int h, boolean animated) {
+        String key = w + "x" + h + (animated ? ":a" : ""); // create key
+        Model m = MODELS.get(key); // look for an existing model
+        if (m == null) { // if there isn't one, create it
+            GPUResources.beginOwner(GPUResources.SHARED); // the model belongs to the cache
+            m = Model.getStdGridRect(w, h); // create rectangular model
+            GPUResources.endOwner();
+            m.animatedTexCoords = animated; // remember its texture coordinate set
+            m.shared = true; // mark it as shared
+            MODELS.put(key, m); // and save it
+        }
+        return m; // return the model
+    }
+
+    /**
+     * @return the amount of shared models in the cache
+     */
+    public static int size() {
+        return MODELS.size();
+    }
+
+    /**
+     * Cleans up every shared model and empties the cache. This should only be done once nothing is using the shared
+     * models anymore
+     */
+    public static void clear() {
+        for (Model m : MODELS.values()) { // for each shared model
+            m.shared = false; // un-share it so that cleaning it up actually does something
+            m.cleanup(); // and clean it up
+        }
+        MODELS.clear(); // empty the cache
+    }
+}
@@ -0,0 +1,244 @@
+package graphics;
+
+import gameobject.GameObject;
+import utils.Utils;
+
+/*
+ * RenderQueue.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Collects render commands for a frame and executes them in an order that minimizes GL state changes. Instead of
+ * rendering immediately, objects are submitted to a layer along with the material they will render with. Each
+ * submission is given a sort key made up of its layer, texture, and material (from most to least significant) and,
+ * when the queue is executed, the submissions are sorted by key using a radix sort and then rendered. Layers are always
+ * rendered in order, so layering works exactly as if everything were rendered immediately layer by layer, but within
+ * a layer everything sharing a texture and material is rendered together. Since the radix sort is stable, submissions
+ * with equal keys are rendered in the order they were submitted.
+ * <p>
+ * Game objects are rendered through a sprite batch, so runs of simple sprites sharing a material cost a single draw
+ * call. Anything else can be submitted as a command. Commands and game objects that render other things may submit
+ * more to the queue while it is executing (nameplates being submitted to the post-render layer, for example). These are
+ * sorted and executed once everything submitted before them has been executed, so they should be submitted to the same
+ * or a later layer than the one being executed. Each layer can also be given a setup command that is executed when
+ * the queue reaches that layer, for changing uniforms that apply to the whole layer
+ */
+public class RenderQueue {
+
+    /**
+     * Static Data
+     */
+    public static final int MAX_LAYERS = 16;          // the amount of layers in a render queue
+    public static final int POST_RENDER_LAYER = 15;   // the last layer, rendered after everything else
+    private static final int MATERIAL_BITS = 24;      // the amount of key bits given to a material's id
+    private static final int TEXTURE_BITS = 20;       // the amount of key bits given to a texture's id
+    private static final int KEY_BITS = 48;           // layer, texture, and material bits combined
+    private static final int TEXTURE_SHIFT = 24;      // where the texture bits start in a key
+    private static final int LAYER_SHIFT = 44;        // where the layer bits start in a key
+    private static final int RADIX_BITS = 8;          // how many key bits are sorted per radix sort pass
+    private static final int RADIX = 1 << RADIX_BITS; // how many buckets there are per radix sort pass
+
+    /**
+     * Members
+     */
+    private final Command[] setups = new Command[MAX_LAYERS]; // the setup command for each layer, if any
+    private final int[] counts = new int[RADIX];              // bucket counts used during radix sort passes
+    private final SpriteBatch batch;                          // the sprite batch used to render game objects
+    private long[] keys;                                      // the sort key of each submission
+    private Object[] items;                                   // each submission (a game object or a command)
+    private int[] order, temp;                                // the sorted order of submissions and sorting space
+    private int size;                                         // the amount of submissions
+
+    /**
+     * Constructor
+     *
+     * @param capacity      the amount of submissions to make space for initially. The queue will grow as needed
+     * @param batchCapacity the maximum amount of sprites the queue's sprite batch can draw with a single draw call
+     */
+    public RenderQueue(int capacity, int batchCapacity) {
+        this.keys = new long[capacity]; // create key array
+        this.items = new Object[capacity]; // create item array
+        this.order = new int[capacity]; // create order array
+        this.temp = new int[capacity]; // create sorting space
+        this.batch = new SpriteBatch(batchCapacity); // create sprite batch
+    }
+
+    /**
+     * Submits a game object to be rendered in the given layer
+     *
+     * @param layer the layer to render the game object in
+     * @param go    the game object to render
+     */
+    public void submit(int layer, GameObject go) {
+        this.add(layer, go.getMaterial(), go); // add game object with its material
+    }
+
+    /**
+     * Submits a command to be executed in the given layer
+     *
+     * @param layer    the layer to execute the command in
+     * @param material the material the command will render with, or null if it does not have a single material. This
+     *                 is only used to sort the command
+     * @param command  the command to execute
+     */
+    public void submit(int layer, Material material, Command command) {
+        this.add(layer, material, command); // add command with its material
+    }
+
+    /**
+     * Sets a command to execute when the queue reaches the given layer during execution. Setup commands are executed
+     * even if nothing was submitted to their layer, and are kept until changed
+     *
+     * @param layer the layer to set the setup command of
+     * @param setup the setup command, or null for no setup command
+     */
+    public void setLayerSetup(int layer, Command setup) {
+        this.setups[layer] = setup; // save setup command
+    }
+
+    /**
+     * Adds a submission to the queue, growing it if necessary
+     *
+     * @param layer    the layer of the submission
+     * @param material the material of the submission, or null if none
+     * @param item     the submission
+     */
+    private void add(int layer, Material material, Object item) {
+        if (layer < 0 || layer >= MAX_LAYERS) // if an invalid layer is given, throw an exception
+            Utils.handleException(new Exception("Invalid render queue layer: " + layer), this.getClass(),
+                    "add", true);
+        if (this.size == this.keys.length) this.grow(); // grow if full
+        long key = (long) layer << LAYER_SHIFT; // start the key with the layer
+        if (material != null) { // if there is a material, add its texture and its own id to the key
+            Texture t = material.getTexture(); // get material's texture
+            if (t != null) key |= (long) (t.getID() & ((1 << TEXTURE_BITS) - 1)) << TEXTURE_SHIFT;
+            key |= material.getID() & ((1 << MATERIAL_BITS) - 1);
+        }
+        this.keys[this.size] = key; // save key
+        this.items[this.size++] = item; // save item
+    }
+
+    /**
+     * Doubles the capacity of the queue
+     */
+    private void grow() {
+        int capacity = this.keys.length * 2; // calculate new capacity
+        long[] keys = new long[capacity]; // create new arrays and copy old contents into them
+        System.arraycopy(this.keys, 0, keys, 0, this.size);
+        Object[] items = new Object[capacity];
+        System.arraycopy(this.items, 0, items, 0, this.size);
+        int[] order = new int[capacity];
+        System.arraycopy(this.order, 0, order, 0, this.size);
+        this.keys = keys; // save new arrays
+        this.items = items;
+        this.order = order;
+        this.temp = new int[capacity];
+    }
+
+    /**
+     * Executes all submissions in order of layer, texture, and material, and then clears the queue. The given shader
+     * program should already be bound
+     *
+     * @param sp the shader program to render with
+     * @return the amount of draw calls made (where each command counts as one)
+     */
+    public int execute(ShaderProgram sp) {
+        this.batch.begin(sp); // begin batching
+        int start = 0, layer = -1, draws = 0; // start at the first submission before the first layer
+        while (start < this.size) { // while there are submissions left to execute
+            int end = this.size; // submissions made during the following loop will be handled in the next pass
+            this.sort(start, end); // sort the submissions
+            for (int i = start; i < end; i++) { // for each submission in sorted order
+                int s = this.order[i]; // get the submission's index
+                layer = this.enterLayer(sp, layer, (int) (this.keys[s] >>> LAYER_SHIFT)); // enter its layer
+                Object item = this.items[s]; // get the submission
+                this.items[s] = null; // forget it now that it is being executed
+                if (item instanceof GameObject) this.batch.render((GameObject) item); // batch game objects
+                else { // if it is a command
+                    this.batch.flush(); // render any waiting sprites to keep order correct
+                    ((Command) item).execute(sp); // execute the command
+                    draws++; // keep track of the draw call
+                }
+            }
+            start = end; // move on to submissions made during execution
+        }
+        this.enterLayer(sp, layer, MAX_LAYERS - 1); // execute the setups of any remaining layers
+        draws += this.batch.end(); // finish batching
+        this.size = 0; // clear the queue
+        return draws; // return the amount of draw calls made
+    }
+
+    /**
+     * Executes the setup commands of every layer after the current layer up to and including the given layer
+     *
+     * @param sp      the shader program being rendered with
+     * @param current the current layer
+     * @param layer   the layer to enter
+     * @return the new current layer
+     */
+    private int enterLayer(ShaderProgram sp, int current, int layer) {
+        while (current < layer) { // while there are layers between the current one and the one to enter
+            current++; // move to the next layer
+            if (this.setups[current] != null) { // if the layer has a setup command
+                this.batch.flush(); // render any waiting sprites so that the setup does not affect them
+                this.setups[current].execute(sp); // execute the setup command
+            }
+        }
+        return Math.max(current, layer); // return the new current layer
+    }
+
+    /**
+     * Sorts the submissions in the given range by key using a least significant digit radix sort. The sorted order is
+     * stored in the order array over the same range. Passes where every key has the same digit are skipped, so sorting
+     * costs little when keys have few distinct values
+     *
+     * @param start the index of the first submission to sort
+     * @param end   the index after the last submission to sort
+     */
+    private void sort(int start, int end) {
+        for (int i = start; i < end; i++) this.order[i] = i; // start in submission order
+        for (int shift = 0; shift < KEY_BITS; shift += RADIX_BITS) { // for each digit from least significant
+            for (int b = 0; b < RADIX; b++) this.counts[b] = 0; // reset bucket counts
+            for (int i = start; i < end; i++) this.counts[(int) (this.keys[i] >>> shift) & (RADIX - 1)]++; // count
+            if (this.counts[(int) (this.keys[start] >>> shift) & (RADIX - 1)] == end - start)
+                continue; // if every key has the same digit, this pass would not change anything
+            int pos = start; // convert bucket counts into bucket starting positions
+            for (int b = 0; b < RADIX; b++) {
+                int c = this.counts[b];
+                this.counts[b] = pos;
+                pos += c;
+            }
+            for (int i = start; i < end; i++) { // move each submission into its bucket, keeping order within buckets
+                int s = this.order[i];
+                this.temp[this.counts[(int) (this.keys[s] >>> shift) & (RADIX - 1)]++] = s;
+            }
+            int[] swap = this.order; // the sorted order is now in the sorting space, so swap them
+            this.order = this.temp;
+            this.temp = swap;
+        }
+    }
+
+    /**
+     * Cleans up the render queue by cleaning up its sprite batch
+     */
+    public void cleanup() {
+        this.batch.cleanup(); // cleanup sprite batch
+    }
+
+    /**
+     * Defines a render command that can be submitted to a render queue
+     */
+    @FunctionalInterface
+    public interface Command {
+
+        /**
+         * Executes the command
+         *
+         * @param sp the shader program to render with. It will already be bound
+         */
+        void execute(ShaderProgram sp);
+    }
+}
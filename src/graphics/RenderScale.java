@@ -0,0 +1,103 @@
+package graphics;
+
+import utils.Global;
+import utils.Settings;
+
+/*
+ * RenderScale.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Chooses the scale, relative to the window's framebuffer, at which the game world is rendered (see
+ * ScaledRenderTarget). The world shader's lighting is done per fragment, so rendering the world at a lower resolution
+ * and upscaling it makes it far cheaper on large or high density displays, and since the art is pixel art, upscaling
+ * with nearest filtering loses very little. The scale is set by the render scale setting, where a value of 0 (the
+ * default) means that it should be chosen automatically. When chosen automatically, update() should be called with
+ * the time each frame spent working, excluding any time spent sleeping or waiting for vsync, and should not be called
+ * for frames that are deliberately slowed down (such as while the window is idle). Frame times are averaged over a
+ * short window and, if frames are too slow to reach the target frame rate, the scale is lowered by a step. Once frames
+ * have been fast enough for a while, a higher scale is tried again. If a higher scale turns out to be too slow, the
+ * wait before trying again is doubled so that the scale does not keep flipping between two steps
+ */
+public abstract class RenderScale {
+
+    /**
+     * Static Data
+     */
+    public static final float MIN_SCALE = 0.5f;       // the lowest scale that will be used
+    private static final float STEP = 0.125f;         // how much the scale changes by at a time
+    private static final float WINDOW = 1f;           // how many seconds of frames to average before deciding
+    private static final float SLOW = 1.15f;          // how many times the target frame time is considered too slow
+    private static final float HITCH = 0.25f;         // frames longer than this many seconds are ignored
+    private static final float PROBE_WAIT = 4f;       // how many seconds frames must be fast before scaling up
+    private static final float MAX_PROBE_WAIT = 64f;  // the longest the wait before scaling up can become
+    private static float scale = 1f;                  // the current scale
+    private static boolean automatic;                 // whether the scale is chosen automatically
+    private static float sum;                         // the sum of the frame times in the current window
+    private static int count;                         // the amount of frame times in the current window
+    private static float fastTime;                    // how long frames have been fast since the scale last changed
+    private static float probeWait = PROBE_WAIT;      // how long frames must be fast before scaling up
+    private static boolean probing;                   // whether the scale was just raised and is still being judged
+
+    /**
+     * Initializes the render scale from the render scale setting. This should be called after settings are loaded
+     */
+    public static void init() {
+        float setting = (Float) Settings.getSetting(Settings.Setting.RENDER_SCALE); // get setting
+        automatic = setting == 0f; // zero means the scale is chosen automatically
+        scale = automatic ? 1f : Math.max(MIN_SCALE, setting); // start at full scale if automatic
+        sum = fastTime = 0f; // start with no measurements
+        count = 0;
+        probeWait = PROBE_WAIT;
+        probing = false;
+    }
+
+    /**
+     * Considers the given frame time in choosing the scale. If the scale is not chosen automatically, or the frame is
+     * a hitch (such as one that included loading), nothing happens
+     *
+     * @param frameTime the time the frame spent working in seconds, excluding sleeping and waiting for vsync
+     */
+    public static void update(float frameTime) {
+        if (!automatic || frameTime > HITCH) return; // ignore if not automatic or if a hitch
+        sum += frameTime; // add to current window
+        count++;
+        if (sum < WINDOW) return; // wait until the window is full before deciding
+        float average = sum / count; // calculate the average frame time over the window
+        float window = sum; // remember how long the window was
+        sum = 0f; // and start a new window
+        count = 0;
+        if (average > SLOW / Global.TARGET_FPS) { // if frames are too slow
+            if (probing) probeWait = Math.min(MAX_PROBE_WAIT, probeWait * 2); // the last raise was too much
+            probing = false;
+            fastTime = 0f;
+            scale = Math.max(MIN_SCALE, scale - STEP); // lower the scale
+        } else { // if frames are fast enough
+            if (probing) probeWait = PROBE_WAIT; // the last raise held up
+            probing = false;
+            fastTime += window; // keep track of how long frames have been fast
+            if (fastTime >= probeWait && scale < 1f) { // if they have been fast for long enough, try a higher scale
+                scale = Math.min(1f, scale + STEP);
+                probing = true;
+                fastTime = 0f;
+            }
+        }
+    }
+
+    /**
+     * Shows the current scale in the debug info
+     */
+    public static void updateDebugInfo() {
+        Global.debugInfo.setField("render scale", String.format("%.3f", scale) + (automatic ? " (auto)" : ""));
+    }
+
+    /**
+     * @return the scale at which the game world should be rendered, from MIN_SCALE to 1f (full resolution)
+     */
+    public static float get() {
+        return scale;
+    }
+}
@@ -0,0 +1,254 @@
+package graphics;
+
+import utils.Global;
+import utils.Utils;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/*
+ * RenderStats.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Records how much GL work is done each frame so that expensive content can be found. GLState and shader program
+ * uniform handles report every draw call, vertex, uniform upload, texture bind, buffer creation, and framebuffer switch
+ * here (see RenderStats.Counter). Work is recorded separately for each pass (see RenderStats.Pass), where the current
+ * pass is set by whatever is rendering. Recording is disabled by default, in which case recording costs nothing more
+ * than a single check. When enabled, endFrame() should be called at the end of each frame to finish the frame's
+ * counts. The counts of the last finished frame can be shown in the debug info and, along with the averages over every
+ * frame recorded, exported as JSON
+ */
+public abstract class RenderStats {
+
+    /**
+     * Defines the kinds of GL work that are counted
+     */
+    public enum Counter {
+        DRAW_CALLS("draw calls"),            // draw calls made
+        VERTICES("vertices"),                // vertices (indices, for indexed draws) processed by draw calls
+        UNIFORM_UPLOADS("uniform uploads"),  // uniform values uploaded
+        TEXTURE_BINDS("texture binds"),      // textures bound
+        BUFFER_CREATIONS("buffers created"), // buffer objects created
+        FBO_SWITCHES("fbo switches");        // framebuffer bindings changed
+
+        /**
+         * Members
+         */
+        private final String label; // the label to use in the debug info and exports
+
+        /**
+         * Constructor
+         *
+         * @param label the label to use in the debug info and exports
+         */
+        Counter(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Defines the passes that work is recorded separately for
+     */
+    public enum Pass {
+        WORLD("world"),         // rendering the game world
+        STATIC_CACHE("cache"),  // rendering static content into the static cache (see TileCache)
+        HUD("hud"),             // rendering static objects on top of the world (see gameobject.ROC)
+        OFFSCREEN("offscreen"), // rendering text and textures into textures
+        OTHER("other");         // anything else
+
+        /**
+         * Members
+         */
+        private final String label; // the label to use in the debug info and exports
+
+        /**
+         * Constructor
+         *
+         * @param label the label to use in the debug info and exports
+         */
+        Pass(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Static Data
+     */
+    private static final int PASSES = Pass.values().length;             // the amount of passes
+    private static final int COUNTERS = Counter.values().length;        // the amount of counters
+    private static final long[][] current = new long[PASSES][COUNTERS]; // counts for the frame in progress
+    private static final long[][] last = new long[PASSES][COUNTERS];    // counts for the last finished frame
+    private static final long[][] totals = new long[PASSES][COUNTERS];  // counts summed over every recorded frame
+    private static Pass pass = Pass.OTHER;                              // the pass currently being rendered
+    private static boolean recording;                                   // whether work is currently being recorded
+    private static long frames;                                         // the amount of frames recorded
+
+    /**
+     * Enables or disables recording
+     *
+     * @param recording whether work should be recorded
+     */
+    public static void setRecording(boolean recording) {
+        RenderStats.recording = recording;
+    }
+
+    /**
+     * @return whether work is currently being recorded
+     */
+    public static boolean isRecording() {
+        return RenderStats.recording;
+    }
+
+    /**
+     * Sets the pass that work is recorded under
+     *
+     * @param pass the pass to record work under
+     * @return the pass work was recorded under before, so that it can be restored once the new pass is finished
+     */
+    public static Pass setPass(Pass pass) {
+        Pass previous = RenderStats.pass; // remember previous pass
+        RenderStats.pass = pass; // set new pass
+        return previous; // return previous pass
+    }
+
+    /**
+     * Records the given amount of the given kind of work under the current pass if recording
+     *
+     * @param counter the kind of work
+     * @param amount  the amount of work
+     */
+    public static void record(Counter counter, long amount) {
+        if (recording) current[pass.ordinal()][counter.ordinal()] += amount;
+    }
+
+    /**
+     * Finishes the current frame by saving its counts as the last frame's counts and adding them to the totals. If not
+     * recording, nothing happens
+     */
+    public static void endFrame() {
+        if (!recording) return; // do nothing if not recording
+        for (int p = 0; p < PASSES; p++) for (int c = 0; c < COUNTERS; c++) { // for each pass and counter
+            last[p][c] = current[p][c]; // save as last frame's count
+            totals[p][c] += current[p][c]; // add to totals
+            current[p][c] = 0; // and reset for the next frame
+        }
+        frames++; // keep track of the amount of frames
+    }
+
+    /**
+     * Forgets all recorded work
+     */
+    public static void reset() {
+        for (int p = 0; p < PASSES; p++) for (int c = 0; c < COUNTERS; c++) // for each pass and counter
+            current[p][c] = last[p][c] = totals[p][c] = 0; // forget its counts
+        frames = 0;
+    }
+
+    /**
+     * Calculates the given count of the last finished frame over all passes
+     *
+     * @param counter the count to calculate
+     * @return the count
+     */
+    public static long getLastFrame(Counter counter) {
+        long sum = 0; // sum count over all passes
+        for (int p = 0; p < PASSES; p++) sum += last[p][counter.ordinal()];
+        return sum;
+    }
+
+    /**
+     * Calculates the given count summed over every recorded frame and all passes
+     *
+     * @param counter the count to calculate
+     * @return the count
+     */
+    public static long getTotal(Counter counter) {
+        long sum = 0; // sum count over all passes
+        for (int p = 0; p < PASSES; p++) sum += totals[p][counter.ordinal()];
+        return sum;
+    }
+
+    /**
+     * Shows the counts of the last finished frame in the debug info, each as a total followed by the amount from each
+     * pass that did any of that work
+     */
+    public static void updateDebugInfo() {
+        StringBuilder sb = new StringBuilder(); // create string builder to build each line
+        for (Counter c : Counter.values()) { // for each counter
+            sb.setLength(0); // reset string builder
+            sb.append(getLastFrame(c)); // start with the total
+            String separator = " ("; // separate passes from the total and from each other
+            for (Pass p : Pass.values()) { // for each pass
+                long count = last[p.ordinal()][c.ordinal()]; // get its count
+                if (count == 0) continue; // skip passes that did none of the work
+                sb.append(separator).append(p.label).append(" ").append(count); // add pass count
+                separator = ", ";
+            }
+            if (!separator.equals(" (")) sb.append(")"); // close the pass counts if there were any
+            Global.debugInfo.setField(c.label, sb.toString()); // show in the debug info
+        }
+    }
+
+    /**
+     * Converts the recorded work into JSON. The result has the amount of frames recorded, the counts of the last
+     * finished frame, and the average counts per frame, where counts are given for each pass and in total
+     *
+     * @return the JSON
+     */
+    public static String toJSON() {
+        StringBuilder sb = new StringBuilder(); // create string builder to build JSON
+        sb.append("{\n  \"frames\": ").append(frames).append(",\n"); // add frame count
+        sb.append("  \"last_frame\": "); // add last frame
+        appendCounts(sb, last, 1);
+        sb.append(",\n  \"average\": "); // add averages
+        appendCounts(sb, totals, Math.max(frames, 1));
+        return sb.append("\n}\n").toString();
+    }
+
+    /**
+     * Appends the given counts to a JSON string builder as an object mapping each pass (and the total) to an object
+     * mapping each counter to its count
+     *
+     * @param sb      the string builder to append to
+     * @param counts  the counts, indexed by pass and then by counter
+     * @param divisor what to divide each count by
+     */
+    private static void appendCounts(StringBuilder sb, long[][] counts, long divisor) {
+        sb.append("{");
+        for (int p = 0; p <= PASSES; p++) { // for each pass and then the total
+            sb.append(p == 0 ? "\n" : ",\n").append("    \"").append(p < PASSES ? Pass.values()[p].label : "total")
+                    .append("\": {");
+            for (int c = 0; c < COUNTERS; c++) { // for each counter
+                long count = 0; // get the pass's count or, for the total, sum every pass's count
+                if (p < PASSES) count = counts[p][c];
+                else for (long[] pc : counts) count += pc[c];
+                sb.append(c == 0 ? "" : ", ").append("\"").append(Counter.values()[c].label).append("\": ");
+                if (divisor == 1) sb.append(count); // add count
+                else sb.append(String.format(Locale.ROOT, "%.2f", (double) count / divisor)); // or average
+            }
+            sb.append("}");
+        }
+        sb.append("\n  }");
+    }
+
+    /**
+     * Exports the recorded work as JSON (see toJSON()) to the given path
+     *
+     * @param path the path to export to. It must be relative to the data directory
+     */
+    public static void export(Utils.Path path) {
+        try {
+            Utils.ensureDirs(path); // ensure directories exist
+            PrintWriter out = new PrintWriter(path.getFile()); // open file
+            out.print(toJSON()); // write JSON
+            out.close(); // close file
+            Utils.log("Render stats exported to " + path, RenderStats.class, "export", false); // log
+        } catch (Exception e) { // if exception, log it but keep going
+            Utils.handleException(e, RenderStats.class, "export", false);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package graphics;
+
+import utils.Global;
+import utils.Utils;
+
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.glClear;
+
+/*
+ * ScaledRenderTarget.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * An offscreen framebuffer that content can be rendered into at a fraction of the window's resolution and then
+ * upscaled into the window with nearest filtering (see RenderScale). Rendering to the target is started with begin()
+ * and finished with end(). If the scale is full, begin() does nothing and content is rendered straight into the window.
+ * The target's texture is recreated whenever the size it should be changes, such as when the window is resized or the
+ * scale changes
+ */
+public class ScaledRenderTarget {
+
+    /**
+     * Members
+     */
+    private int fbo, tex; // the ids of the framebuffer and its texture attachment, or 0 if they do not exist
+    private int w, h;     // the width and height of the texture attachment in pixels
+
+    /**
+     * Begins rendering to the target if the given scale is not full by binding it, setting the viewport to its size,
+     * and clearing it
+     *
+     * @param scale the scale, relative to the window's framebuffer, to render at
+     * @return whether rendering to the target has begun. If true, end() must be called once rendering is finished. If
+     * false, content should be rendered straight into the window
+     */
+    public boolean begin(float scale) {
+        if (scale >= 1f) { // if full scale
+            this.cleanup(); // the target is not needed
+            return false;
+        }
+        int w = Math.max(1, Math.round(Global.gameWindow.getFBWidth() * scale)); // calculate size to render at
+        int h = Math.max(1, Math.round(Global.gameWindow.getFBHeight() * scale));
+        if (w != this.w || h != this.h) { // if the size has changed
+            this.cleanup(); // delete the old framebuffer and texture
+            int[] ids = Utils.createFBOWithTextureAttachment(w, h); // and create new ones with the new size
+            this.fbo = ids[0];
+            this.tex = ids[1];
+            this.w = w;
+            this.h = h;
+        }
+        GLState.bindFramebuffer(this.fbo); // bind the framebuffer
+        GLState.viewport(0, 0, this.w, this.h); // set the viewport to its size
+        glClear(GL_COLOR_BUFFER_BIT); // and clear it
+        return true;
+    }
+
+    /**
+     * Finishes rendering to the target by upscaling it into the window and restoring the window's viewport
+     */
+    public void end() {
+        int fbw = Global.gameWindow.getFBWidth(), fbh = Global.gameWindow.getFBHeight(); // get window size
+        GLState.blitFramebuffer(this.fbo, this.w, this.h, 0, fbw, fbh); // upscale into window
+        GLState.viewport(0, 0, fbw, fbh); // restore the window's viewport
+    }
+
+    /**
+     * Cleans up the target by deleting its framebuffer and texture
+     */
+    public void cleanup() {
+        if (this.fbo == 0) return; // nothing to clean up if they do not exist
+        GLState.deleteFramebuffer(this.fbo); // delete framebuffer
+        GLState.deleteTexture(this.tex); // delete texture
+        this.fbo = this.tex = this.w = this.h = 0; // forget them
+    }
+}
@@ -0,0 +1,204 @@
+package graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import utils.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
+import static org.lwjgl.opengl.GL20.glGetProgrami;
+import static org.lwjgl.opengl.GL41.*;
+
+/*
+ * ShaderCache.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Provides shared shader programs so that each pair of vertex and fragment shaders is only read and compiled once per
+ * run, no matter how many times it is asked for. Since uniform values belong to a shader program, anything using a
+ * shared shader program must set every uniform it relies on rather than assuming uniforms start out as zero. Cleaning
+ * up a shared shader program does nothing, since others may still be using it. Shared shader programs are only
+ * actually cleaned up when the cache is cleared.
+ * <p>
+ * The shader cache also keeps a cache of linked program binaries on disk in the shader_cache folder of the data
+ * directory so that later runs can skip compiling entirely. Each binary is named by a hash of the source code it was
+ * compiled from (including any defines, see ShaderProgram) and records the driver that produced it. A binary is only
+ * used if both still match, and if the driver rejects it anyway, the program is compiled from source as usual. If the
+ * driver does not support program binaries, the disk cache is not used
+ */
+public abstract class ShaderCache {
+
+    /**
+     * Static Data
+     */
+    private static final String BINARY_DIR = "/shader_cache/";                   // where binaries are kept
+    private static final Map<String, ShaderProgram> PROGRAMS = new HashMap<>(); // the shared programs by source paths
+    private static Boolean binariesSupported;                                   // whether binaries can be used
+    private static String driver;                                               // describes the current driver
+    private static int binariesLoaded, binariesSaved;                           // binaries used and saved this run
+
+    /**
+     * Finds or creates the shared shader program using the given shaders
+     *
+     * @param vShaderPath the path to the vertex shader code
+     * @param fShaderPath the path to the fragment shader code
+     * @return the shared shader program
+     */
+    public static ShaderProgram get(Utils.Path vShaderPath, Utils.Path fShaderPath) {
+        String key = vShaderPath + "|" + fShaderPath; // create key
+        ShaderProgram sp = PROGRAMS.get(key); // look for an existing shader program
+        if (sp == null) { // if there isn't one, create it
+            sp = new ShaderProgram(vShaderPath, fShaderPath);
+            sp.shared = true; // mark it as shared
+            PROGRAMS.put(key, sp); // and save it
+        }
+        return sp; // return the shader program
+    }
+
+    /**
+     * @return the amount of shared shader programs in the cache
+     */
+    public static int size() {
+        return PROGRAMS.size();
+    }
+
+    /**
+     * Cleans up every shared shader program and empties the cache. This should only be done once nothing is using the
+     * shared shader programs anymore
+     */
+    public static void clear() {
+        for (ShaderProgram sp : PROGRAMS.values()) { // for each shared shader program
+            sp.shared = false; // un-share it so that cleaning it up actually does something
+            sp.cleanup(); // and clean it up
+        }
+        PROGRAMS.clear(); // empty the cache
+        if (binariesLoaded + binariesSaved > 0) // log disk cache usage if it was used
+            Utils.log("Program binaries loaded: " + binariesLoaded + ", saved: " + binariesSaved, ShaderCache.class,
+                    "clear", false);
+    }
+
+    /**
+     * Hashes the given shader source code to name its program binary
+     *
+     * @param vShaderCode the vertex shader source code
+     * @param fShaderCode the fragment shader source code
+     * @return the hash as a hexadecimal string, or null if binaries are not supported
+     */
+    static String hash(String vShaderCode, String fShaderCode) {
+        if (!binariesSupported()) return null; // no need to hash if binaries cannot be used
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1"); // hash both shaders together
+            md.update(vShaderCode.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0); // separate them so that moving code between shaders changes the hash
+            md.update(fShaderCode.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(); // convert to hexadecimal
+            for (byte b : md.digest()) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) { // if the hash can't be calculated, don't use binaries for this program
+            Utils.handleException(e, ShaderCache.class, "hash", false);
+            return null;
+        }
+    }
+
+    /**
+     * Prepares the given program to be linked from source by asking the driver to keep its binary retrievable
+     *
+     * @param progID the id of the program
+     */
+    static void prepareLink(int progID) {
+        if (binariesSupported()) glProgramParameteri(progID, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+    }
+
+    /**
+     * Attempts to load the given program from the program binary with the given hash
+     *
+     * @param progID the id of the program to load into
+     * @param hash   the hash of the program's source code (see hash())
+     * @return whether the program was loaded and linked from the binary. If false, it should be compiled from source
+     */
+    static boolean loadBinary(int progID, String hash) {
+        if (hash == null) return false; // binaries can't be used
+        Utils.Path path = new Utils.Path(BINARY_DIR + hash + ".bin", false); // get path to the binary
+        if (!path.exists()) return false; // nothing to load if it doesn't exist
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.getFile())))) {
+            if (!in.readUTF().equals(driver) || !in.readUTF().equals(hash)) return false; // ignore if outdated
+            int format = in.readInt(); // read binary format
+            byte[] bytes = new byte[in.readInt()]; // read binary
+            in.readFully(bytes);
+            ByteBuffer binary = BufferUtils.createByteBuffer(bytes.length); // put it into a direct buffer
+            binary.put(bytes).flip();
+            glProgramBinary(progID, format, binary); // give the binary to the program
+            if (glGetProgrami(progID, GL_LINK_STATUS) == 0) return false; // if rejected, compile from source
+            binariesLoaded++; // keep track of binaries loaded
+            return true;
+        } catch (Exception e) { // if the binary can't be read, log it and compile from source instead
+            Utils.handleException(e, ShaderCache.class, "loadBinary", false);
+            return false;
+        }
+    }
+
+    /**
+     * Saves the binary of the given linked program so that it can be loaded on later runs
+     *
+     * @param progID the id of the linked program
+     * @param hash   the hash of the program's source code (see hash())
+     */
+    static void saveBinary(int progID, String hash) {
+        if (hash == null) return; // binaries can't be used
+        int size = glGetProgrami(progID, GL_PROGRAM_BINARY_LENGTH); // get the size of the binary
+        if (size <= 0) return; // nothing to save if the driver doesn't provide a binary
+        ByteBuffer binary = BufferUtils.createByteBuffer(size); // create buffers to hold the binary
+        IntBuffer length = BufferUtils.createIntBuffer(1);
+        IntBuffer format = BufferUtils.createIntBuffer(1);
+        glGetProgramBinary(progID, length, format, binary); // get the binary
+        byte[] bytes = new byte[length.get(0)]; // copy it out of the direct buffer
+        binary.get(bytes);
+        Utils.Path path = new Utils.Path(BINARY_DIR + hash + ".bin", false); // get path to save to
+        Utils.ensureDirs(path); // ensure directories exist
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(path.getFile())))) {
+            out.writeUTF(driver); // record driver and hash to check against when loading
+            out.writeUTF(hash);
+            out.writeInt(format.get(0)); // record binary format
+            out.writeInt(bytes.length); // record binary
+            out.write(bytes);
+            binariesSaved++; // keep track of binaries saved
+        } catch (Exception e) { // if the binary can't be saved, log it but keep going
+            Utils.handleException(e, ShaderCache.class, "saveBinary", false);
+        }
+    }
+
+    /**
+     * Determines whether the driver supports program binaries, and if so, describes the driver so that binaries from
+     * other drivers are not used. This is only determined once
+     *
+     * @return whether program binaries can be used
+     */
+    private static boolean binariesSupported() {
+        if (binariesSupported == null) { // if not yet determined
+            GLCapabilities caps = GL.getCapabilities(); // check for program binary support
+            binariesSupported = (caps.OpenGL41 || caps.GL_ARB_get_program_binary) &&
+                    glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+            // describe driver
+            driver = glGetString(GL_VENDOR) + "; " + glGetString(GL_RENDERER) + "; " + glGetString(GL_VERSION);
+        }
+        return binariesSupported;
+    }
+}
@@ -5,9 +5,11 @@ import utils.Global;
 import utils.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import static org.lwjgl.opengl.GL20.*;
 
@@ -21,7 +23,21 @@ import static org.lwjgl.opengl.GL20.*;
 /**
  * Represents a GLSL shader program. All uniforms must be registered and set before rendering. The shader program class
  * provides essy ways to register and set an array of lights uniform of length MAX_LIGHTS and of name LIGHT_ARRAY_NAME
- * for easy light integration
+ * for easy light integration.
+ * <p>
+ * Instead of branching at runtime on uniform flags, shaders can be specialized using defines. Each define registered
+ * with registerDefine() is injected into the shader source code as a #define with the define's current value, so a
+ * shader can use #if to leave out the code it does not need. Each combination of define values is its own variant of
+ * the shader program, compiled the first time it is used and kept for re-use. Setting a define while the shader program
+ * is bound switches to the variant for the new values. Uniform values belong to the shader program rather than to a
+ * single variant, so they are uploaded to each variant as it is used. Uniforms that a variant leaves out are skipped.
+ * Shader programs are usually obtained from the shader cache (see ShaderCache) so that each pair of shaders is only
+ * compiled once
+ * <p>
+ * Registering a uniform returns a handle to it, and setting uniforms through handles avoids looking them up by name.
+ * The uniforms named in Common, which are shared by many shader programs, can be found through uniform(), which holds
+ * their handles in slots indexed by the Common constant. Code that owns a shader program keeps named handles for any
+ * other uniforms it registered
  */
 public class ShaderProgram {
 
@@ -34,18 +50,32 @@ public class ShaderProgram {
                                                                 program source code */
     private static final float MIN_FLICKER = -0.2f;          // the minimum allowed flicker of a light
     private static final float MAX_FLICKER = 0.2f;           // the maximum allowed flicker of a light
+    private static final int DEFINE_BITS = 4;                // how many bits of a variant's key each define takes
+    private static final int MAX_DEFINE = 15;                // the largest value a define can have in DEFINE_BITS
+    private static final int MAX_DEFINES = 8;                // the most defines that can fit into a variant's key
+    private static final Common[] COMMON = Common.values();  // every common uniform, indexed by ordinal
 
     /**
      * Members
      */
-    private final Map<String, Integer> uniforms; // map of uniform names to locations
-    private List<GameObject> postRenders;        /* a list of items that objects can add to in their render methods in
-                                                    order to specify certain game objects that should be rendered after
-                                                    rendering everything else */
+    private final Map<String, Uniform> uniforms; // map of uniform names to uniform handles
+    private final List<Uniform> uniformList;     // every uniform handle in the order they were registered
+    private final Uniform[] common;              /* the handles of the registered common uniforms, indexed by the
+                                                    ordinal of their Common constant */
+    private final List<String> defines;          // the names of the registered defines in the order registered
+    private final List<Variant> variants;        // every variant compiled so far. There are few so they are scanned
+    private final String vShaderCode;            // the vertex shader source code
+    private final String fShaderCode;            // the fragment shader source code
+    private RenderQueue queue;                   /* the render queue that post-renders are submitted to, if any. See
+                                                    addToPostRender() */
+    private LightUniforms[] lightUniforms;       // the uniform handles of each light in the lights array
+    private Uniform[] flickerUniforms;           // the uniform handles of each light's flicker value
     private float[] flickers;                    // an array of flicker values for each light
-    private final int progID;                    // program id of the shader program
-    private int vShaderID;                       // program id of the vertex shader
-    private int fShaderID;                       // program id of the fragment shader
+    private Variant variant;                     // the variant for the current define values, once it has been used
+    private int key;                             /* the current define values packed into a key, where each define
+                                                    takes DEFINE_BITS bits in the order the defines were registered */
+    private boolean bound;                       // whether the shader program is currently bound
+    boolean shared;                              // whether the program is shared through the shader cache
     private int lightNo;                         // how many light uniforms have been set since the last unbind/bind
 
     /**
@@ -55,134 +85,155 @@ public class ShaderProgram {
      * @param fShaderPath the path to the fragment shader code
      */
     public ShaderProgram(Utils.Path vShaderPath, Utils.Path fShaderPath) {
-        this.progID = glCreateProgram(); // create GLSL program
         this.uniforms = new HashMap<>(); // initialize uniform map
-        if (this.progID == 0) Utils.handleException(new Exception("Unable to create GLSL program"),
-                this.getClass(), "ShaderProgram", true); // throw exception if cannot create program
-        this.processShaders(vShaderPath, fShaderPath); // process shader program
+        this.uniformList = new ArrayList<>(); // initialize uniform list
+        this.common = new Uniform[COMMON.length]; // initialize common uniform slots
+        this.defines = new ArrayList<>(); // initialize define list
+        this.variants = new ArrayList<>(); // initialize variant list
+        this.vShaderCode = Utils.pathContentsToString(vShaderPath); // read vertex shader code
+        this.fShaderCode = Utils.pathContentsToString(fShaderPath); // read fragment shader code
     }
 
     /**
-     * Processes the GLSL shaders by loading the code, compiling the code, then linking.
+     * Registers a define with the given name whose value, starting at zero, is injected into the shader source code.
+     * Defines must be registered before the shader program is first bound. Registering a define that is already
+     * registered does nothing
      *
-     * @param vShaderPath the path to the vertex shader
-     * @param fShaderPath the path to the fragment shader
+     * @param name the name of the define
      */
-    private void processShaders(Utils.Path vShaderPath, Utils.Path fShaderPath) {
-        String vShaderCode = Utils.pathContentsToString(vShaderPath); // read vertex shader code
-        String fShaderCode = Utils.pathContentsToString(fShaderPath); // read fragment shader code
-        this.vShaderID = processShader(vShaderCode, GL_VERTEX_SHADER); // process vertex shader
-        this.fShaderID = processShader(fShaderCode, GL_FRAGMENT_SHADER); // process fragment shader
-        this.link(); // link shaders
+    public void registerDefine(String name) {
+        if (this.defines.contains(name)) return; // nothing to do if already registered
+        if (!this.variants.isEmpty()) // if a variant has already been compiled, it would not know about the define
+            Utils.handleException(new Exception("Define '" + name + "' registered after the shader program was used"),
+                    this.getClass(), "registerDefine", true); // crash
+        if (this.defines.size() == MAX_DEFINES) // if there is no more room in the key
+            Utils.handleException(new Exception("Maximum amount of defines exceeded: " + MAX_DEFINES),
+                    this.getClass(), "registerDefine", true); // crash
+        this.defines.add(name); // save define
     }
 
     /**
-     * Processes a GLSL shader (vertex or fragment) based on the given code by compiling it and attaching it to the
-     * main program
+     * Sets the define with the given name to the given value. If the shader program is bound and the value differs
+     * from the current one, the variant for the new define values is bound, compiling it first if it has not been used
+     * yet
      *
-     * @param code the code to create the shader from
-     * @param type the type of shader
-     * @return the ID of the created shader
+     * @param name  the name of the define to set
+     * @param value the value to set it to, from zero to MAX_DEFINE
      */
-    private int processShader(String code, int type) {
-        int id = glCreateShader(type); // create shader
-        if (id == 0) // if fail
-            Utils.handleException(new Exception("Unable to create shader of type " + type + " with code: " + code),
-                    this.getClass(), "processShader", true); // throw exception
-        glShaderSource(id, code); // give shader the code
-        glCompileShader(id); // compile shader
-        if (glGetShaderi(id, GL_COMPILE_STATUS) == 0) // if fail
-            Utils.handleException(new Exception("Unable to compile shader of type " + type + ": " +
-                    glGetShaderInfoLog(id, 1024)), this.getClass(), "processShader", true); // crash
-        glAttachShader(this.progID, id); // attach to main program
-        return id; // return id
+    public void setDefine(String name, int value) {
+        int i = this.defines.indexOf(name); // find the define
+        if (i < 0) // if the define was never registered, crash
+            Utils.handleException(new Exception("Define with name '" + name + "' was never registered"),
+                    this.getClass(), "setDefine", true);
+        if (value < 0 || value > MAX_DEFINE) // if the value does not fit in the key, crash
+            Utils.handleException(new Exception("Invalid value for define '" + name + "': " + value),
+                    this.getClass(), "setDefine", true);
+        int shift = i * DEFINE_BITS; // calculate where the define is in the key
+        int key = (this.key & ~(MAX_DEFINE << shift)) | (value << shift); // calculate the new key
+        if (key == this.key) return; // nothing to do if the value is unchanged
+        this.key = key; // save new key
+        if (this.bound) this.useVariant(); // switch variants if bound
     }
 
     /**
-     * Links the shader programs's GLSL shaders together
+     * Binds the variant for the current define values, compiling it first if it has not been used yet, and uploads any
+     * uniform values it does not have yet
      */
-    private void link() {
-        glLinkProgram(this.progID); // link program
-        if (glGetProgrami(this.progID, GL_LINK_STATUS) == 0) // if fail
-            Utils.handleException(new Exception("Unable to link shaders: " + glGetProgramInfoLog(this.progID,
-                    1024)), this.getClass(), "link", true); // throw exception
-        glDetachShader(this.progID, this.vShaderID); // detach vertex shader
-        glDetachShader(this.progID, this.fShaderID); // detach fragment shader
+    private void useVariant() {
+        Variant v = null; // look for an existing variant with the current define values
+        for (int i = 0; i < this.variants.size() && v == null; i++)
+            if (this.variants.get(i).key == this.key) v = this.variants.get(i);
+        if (v == null) { // compile it if it does not exist yet
+            if (this.shared) GPUResources.beginOwner(GPUResources.SHARED); // variants of shared programs are shared
+            this.variants.add(v = new Variant(this.key));
+            if (this.shared) GPUResources.endOwner();
+        }
+        this.variant = v; // save as current variant
+        GLState.useProgram(v.progID); // tell OpenGL to use it
+        v.sync(); // and bring its uniforms up to date
     }
 
     /**
-     * Register the uniform with the given name by finding its position and saving it
+     * Creates the source code defines for the given define values
      *
-     * @param name the name of the uniform to find
+     * @param key the define values packed into a key
+     * @return a #define line for each define
      */
-    public void registerUniform(String name) {
-        int loc = glGetUniformLocation(this.progID, name); // get location
-        if (loc < 0) // if fail
-            Utils.handleException(new Exception("Unable to find uniform with name '" + name + "'"), this.getClass(),
-                    "registerUniform", true); // throw exception
-        this.uniforms.put(name, loc); // save location
+    private String definesFor(int key) {
+        StringBuilder sb = new StringBuilder(); // create string builder to build the lines
+        for (int i = 0; i < this.defines.size(); i++) // for each define, add a line with its value from the key
+            sb.append("#define ").append(this.defines.get(i)).append(" ")
+                    .append((key >> (i * DEFINE_BITS)) & MAX_DEFINE).append("\n");
+        return sb.toString();
     }
 
     /**
-     * Registers a light array uniform with the length MAX_LENGTH and with the name LIGHT_ARRAY_NAME. This will also
-     * register the corresponding flicker array uniform
+     * Injects the given defines into the given shader source code right after the #version line, which must come first
+     *
+     * @param code    the shader source code
+     * @param defines the defines to inject
+     * @return the shader source code with the defines injected
      */
-    public void registerLightArrayUniform() {
-        for (int i = 0; i < MAX_LIGHTS; i++) {
-            this.registerUniform(LIGHT_ARRAY_NAME + "[" + i + "].glow");
-            this.registerUniform(LIGHT_ARRAY_NAME + "[" + i + "].reach");
-            this.registerUniform(LIGHT_ARRAY_NAME + "[" + i + "].intensity");
-            this.registerUniform(LIGHT_ARRAY_NAME + "[" + i + "].x");
-            this.registerUniform(LIGHT_ARRAY_NAME + "[" + i + "].y");
-            this.registerUniform("flicker[" + i + "]");
-        }
-        this.flickers = new float[MAX_LIGHTS]; // create flicker values array
+    private static String inject(String code, String defines) {
+        int version = code.indexOf("#version"); // find the version line
+        if (version < 0) return defines + code; // if there is none, defines can go first
+        int eol = code.indexOf('\n', version); // find the end of the version line
+        if (eol < 0) return code + "\n" + defines; // if the version line is the last line, add defines after
+        return code.substring(0, eol + 1) + defines + code.substring(eol + 1); // add defines after version line
     }
 
     /**
-     * Sets the uniform with the given name to the given value (a float)
+     * Register the uniform with the given name by finding its position and saving a handle to it. The uniform must be
+     * declared in the source code of one of the shaders, but a variant is free to leave it out
      *
-     * @param name the name of the uniform the set
-     * @param v    the value to set it to
+     * @param name the name of the uniform to find
+     * @return the handle to the uniform. Setting uniforms through handles avoids looking them up by name. If the
+     * uniform is already registered, its existing handle is returned
      */
-    public void setUniform(String name, float v) {
-        try {
-            glUniform1f(this.uniforms.get(name), v); // try to set uniform
-        } catch (Exception e) { // if exception
-            Utils.handleException(e, this.getClass(), "setUniform", true); // handle exception
-        }
+    public Uniform registerUniform(String name) {
+        Uniform existing = this.uniforms.get(name); // look for an existing handle
+        if (existing != null) return existing; // and return it if the uniform is already registered
+        int bracket = name.indexOf('['), dot = name.indexOf('.'); // find the base name of array and struct uniforms
+        int end = bracket < 0 ? (dot < 0 ? name.length() : dot) : (dot < 0 ? bracket : Math.min(bracket, dot));
+        // look for a uniform declaration statement that declares the base name
+        Pattern declaration = Pattern.compile("\\buniform\\b[^;]*\\b" + Pattern.quote(name.substring(0, end)) + "\\b");
+        if (!declaration.matcher(this.vShaderCode).find() && !declaration.matcher(this.fShaderCode).find())
+            Utils.handleException(new Exception("Unable to find uniform with name '" + name + "'"), this.getClass(),
+                    "registerUniform", true); // throw exception if it is not declared
+        Uniform u = new Uniform(name, this.uniformList.size()); // create handle
+        this.uniforms.put(name, u); // save handle
+        this.uniformList.add(u);
+        for (Common c : COMMON) if (c.name.equals(name)) this.common[c.ordinal()] = u; // fill its slot if common
+        for (Variant v : this.variants) v.locate(u); // find it in any variants that have already been compiled
+        return u; // return handle
     }
 
     /**
-     * Sets the uniform with the given name to the given value (an integer)
-     *
-     * @param name the name of the uniform to set
-     * @param v    the value to set it to
+     * Registers a light array uniform with the length MAX_LENGTH and with the name LIGHT_ARRAY_NAME. This will also
+     * register the corresponding flicker array uniform
      */
-    public void setUniform(String name, int v) {
-        try {
-            glUniform1i(this.uniforms.get(name), v); // try to set uniform
-        } catch (Exception e) { // if exception
-            Utils.handleException(e, this.getClass(), "setUniform", true); // handle exception
+    public void registerLightArrayUniform() {
+        this.lightUniforms = new LightUniforms[MAX_LIGHTS]; // create light uniform handles array
+        this.flickerUniforms = new Uniform[MAX_LIGHTS]; // create flicker uniform handles array
+        for (int i = 0; i < MAX_LIGHTS; i++) {
+            this.lightUniforms[i] = new LightUniforms(LIGHT_ARRAY_NAME + "[" + i + "]"); // register light's uniforms
+            this.flickerUniforms[i] = this.registerUniform("flicker[" + i + "]");
         }
+        this.flickers = new float[MAX_LIGHTS]; // create flicker values array
     }
 
     /**
-     * Sets the uniform with the given name to the given value (a 4-dimensional float array)
+     * Finds the handle of the given common uniform
      *
-     * @param name the name of the uniform to set
-     * @param x    the first value of the 4-dimensional float array
-     * @param y    the second value of the 4-dimensional float array
-     * @param z    the third value of the 4-dimensional float array
-     * @param a    the fourth value of the 4-dimensional float array
+     * @param c the common uniform to find
+     * @return the handle of the uniform
      */
-    public void setUniform(String name, float x, float y, float z, float a) {
-        try {
-            glUniform4f(this.uniforms.get(name), x, y, z, a); // try to set uniform
-        } catch (Exception e) { // if exception
-            Utils.handleException(e, this.getClass(), "setUniform",
-                    true); // handle exception
-        }
+    public Uniform uniform(Common c) {
+        Uniform u = this.common[c.ordinal()]; // get the handle from its slot
+        if (u == null) // if the uniform was never registered, throw an exception
+            Utils.handleException(new Exception("Uniform with name '" + c.name + "' was never registered"),
+                    this.getClass(), "uniform", true);
+        return u; // return the handle
     }
 
     /**
@@ -198,20 +249,15 @@ public class ShaderProgram {
         if (this.lightNo >= MAX_LIGHTS) // if too many lights are being rendered, throw an exception
             Utils.handleException(new Exception("Maximum amount of renderable lights exceeded: " + MAX_LIGHTS),
                     this.getClass(), "setLightUniform", true);
-        try {
-            String name = "lights[" + this.lightNo + "]"; // get the proper name for the light in the lights array
-            this.flicker(light, this.lightNo); // apply flicker
-            this.lightNo++; // iterate the lights array iterator
-            float[] glow = light.getGlow(); // get the light's glow
-            glUniform3f(this.uniforms.get(name + ".glow"), glow[0], glow[1], glow[2]); // set the light's glow
-            glUniform1f(this.uniforms.get(name + ".reach"), light.getReach()); // set the light's reach
-            glUniform1f(this.uniforms.get(name + ".intensity"), light.getIntensity()); // set the light's intensity
-            glUniform1f(this.uniforms.get(name + ".x"), x); // set the light's x position
-            glUniform1f(this.uniforms.get(name + ".y"), y); // set the light's y position
-        } catch (Exception e) { // if exception
-            // handle exception
-            Utils.handleException(e, this.getClass(), "setUniform", true);
-        }
+        LightUniforms lu = this.lightUniforms[this.lightNo]; // get the uniform handles for the light
+        this.flicker(light, this.lightNo); // apply flicker
+        this.lightNo++; // iterate the lights array iterator
+        float[] glow = light.getGlow(); // get the light's glow
+        lu.glow.set(glow[0], glow[1], glow[2]); // set the light's glow
+        lu.reach.set(light.getReach()); // set the light's reach
+        lu.intensity.set(light.getIntensity()); // set the light's intensity
+        lu.x.set(x); // set the light's x position
+        lu.y.set(y); // set the light's y position
     }
 
     /**
@@ -224,48 +270,351 @@ public class ShaderProgram {
         float dFlicker = ((float)Math.random() * ls.getFlickerSpeed() * 2f) - ls.getFlickerSpeed();
         // apply change in flicker to the light's flicker, bounded by min/max constants
         this.flickers[i] = Math.max(MIN_FLICKER, Math.min(MAX_FLICKER, this.flickers[i] + dFlicker));
-        this.setUniform("flicker[" + i + "]", this.flickers[i]); // set the uniform
+        this.flickerUniforms[i].set(this.flickers[i]); // set the uniform
     }
 
     /**
-     * Will render any objects that have been added to the post-renders list during the course of rendering. See members
-     * for more info on post-renders
+     * Tells the shader program which render queue to submit post-renders to while it is bound (see addToPostRender())
+     *
+     * @param queue the render queue to use, or null to render post-renders immediately
      */
-    public void renderPostRenders() {
-        for (GameObject go : this.postRenders) go.render(this); // render each post-render
+    public void useRenderQueue(RenderQueue queue) {
+        this.queue = queue; // save render queue as member
     }
 
     /**
-     * Adds an object to the list of objects to be rendered after normal rendering has occurred, when renderPostRenders()
-     * is called. See members for more info on post renders
-     * @param go the game object to add to the post renders list
+     * Specifies that the given object should be rendered after everything else has been rendered. If a render queue is
+     * being used, the object is submitted to its post-render layer. Otherwise, there is nothing to render after, so it
+     * is rendered immediately
+     *
+     * @param go the game object to render after everything else
      */
     public void addToPostRender(GameObject go) {
-        this.postRenders.add(go); // add to post renders list
+        if (this.queue != null) this.queue.submit(RenderQueue.POST_RENDER_LAYER, go); // submit to post-render layer
+        else go.render(this); // or render immediately if there is no render queue
     }
 
     /**
-     * Binds the shader program
+     * Binds the shader program using the variant for the current define values
      */
     public void bind() {
-        glUseProgram(this.progID); // tell OpenGL to use the program
-        this.postRenders = new ArrayList<>(); // create a new list for post-renders
+        this.bound = true; // flag as bound
+        this.useVariant(); // tell OpenGL to use the variant
     }
 
     /**
      * Unbinds the shader program and resets the lights array iterator
      */
     public void unbind() {
-        glUseProgram(0); // unbind program
+        GLState.useProgram(0); // unbind program
+        this.bound = false; // flag as unbound
         this.lightNo = 0; // reset lights array iterator
-        this.postRenders = null; // delete old post-renders list
     }
 
     /**
-     * Cleans up the shader program
+     * Turns off every light in the lights array uniform so that lights from before are not rendered anymore
+     */
+    public void clearLights() {
+        if (this.lightUniforms == null) return; // nothing to clear if there is no light array uniform
+        for (LightUniforms lu : this.lightUniforms) lu.reach.set(0f); // lights without reach are skipped by the shader
+    }
+
+    /**
+     * Cleans up the shader program by deleting every variant. If the shader program is shared through the shader cache,
+     * this does nothing since others may still be using it
      */
     public void cleanup() {
+        if (this.shared) return; // leave shared programs for the shader cache to clean up
         this.unbind(); // make sure isn't bound
-        if (this.progID != 0) glDeleteProgram(this.progID); // delete program
+        for (Variant v : this.variants) GLState.deleteProgram(v.progID); // delete each variant's program
+        this.variants.clear(); // forget variants
+        this.variant = null;
+    }
+
+    /**
+     * The uniforms that are set by code rendering with whichever shader program it is given. A shader program keeps the
+     * handles of any of these that it registers in slots so that they can be found through uniform() without a lookup
+     * by name
+     */
+    public enum Common {
+        X("x"), Y("y"), TRANSFORM(Model.TRANSFORM_UNIFORM_NAME), COLOR("color"), TEX_TRANSFORM("texTransform"),
+        TEX_SAMPLER("texSampler"), AR("ar"), AR_ACTION("arAction"), CAM_X("camX"), CAM_Y("camY"),
+        CAM_ZOOM("camZoom"), FADE_DIR("fadeDir"), FADE_CORNERS("fadeCorners"), FADE_BOUNDS("fadeBounds"),
+        MIN_Y("minY"), MAX_Y("maxY"), BOUND_Y("boundY");
+
+        /**
+         * Members
+         */
+        private final String name; // the name of the uniform in shader source code
+
+        /**
+         * Constructor
+         *
+         * @param name the name of the uniform in shader source code
+         */
+        Common(String name) {
+            this.name = name; // save name as member
+        }
+    }
+
+    /**
+     * The uniform handles of a single light in the lights array
+     */
+    private class LightUniforms {
+
+        /**
+         * Members
+         */
+        private final Uniform glow;      // the light's glow uniform
+        private final Uniform reach;     // the light's reach uniform
+        private final Uniform intensity; // the light's intensity uniform
+        private final Uniform x, y;      // the light's position uniforms
+
+        /**
+         * Constructor
+         *
+         * @param name the name of the light in the lights array, such as lights[0]
+         */
+        private LightUniforms(String name) {
+            this.glow = registerUniform(name + ".glow"); // register each of the light's uniforms
+            this.reach = registerUniform(name + ".reach");
+            this.intensity = registerUniform(name + ".intensity");
+            this.x = registerUniform(name + ".x");
+            this.y = registerUniform(name + ".y");
+        }
+    }
+
+    /**
+     * A single compiled variant of the shader program for one combination of define values. Each variant knows where
+     * each uniform is located in it and which value of each uniform it has been given
+     */
+    private class Variant {
+
+        /**
+         * Members
+         */
+        private final int key;    // the define values the variant was compiled with, packed into a key
+        private final int progID; // program id of the variant
+        private int[] locs;       // the location of each uniform in the variant, or -1 if the variant leaves it out
+        private int[] versions;   // the version of each uniform's value that the variant was last given
+
+        /**
+         * Constructor
+         *
+         * @param key the define values to compile the variant with, packed into a key
+         */
+        private Variant(int key) {
+            this.key = key; // save key as member
+            this.progID = GLState.createProgram(); // create GLSL program
+            if (this.progID == 0) Utils.handleException(new Exception("Unable to create GLSL program"),
+                    this.getClass(), "Variant", true); // throw exception if cannot create program
+            String defines = definesFor(key); // create the defines for the key
+            String vCode = inject(vShaderCode, defines), fCode = inject(fShaderCode, defines); // inject them
+            String hash = ShaderCache.hash(vCode, fCode); // hash the code to find a program binary from an earlier run
+            if (!ShaderCache.loadBinary(this.progID, hash)) { // if there is no usable binary, compile from source
+                int vShaderID = this.processShader(vCode, GL_VERTEX_SHADER); // process vertex shader
+                int fShaderID = this.processShader(fCode, GL_FRAGMENT_SHADER); // process fragment shader
+                ShaderCache.prepareLink(this.progID); // ask for the binary to be kept
+                this.link(vShaderID, fShaderID); // link shaders
+                ShaderCache.saveBinary(this.progID, hash); // and save the binary for later runs
+            }
+            this.locs = new int[uniformList.size()]; // find each registered uniform
+            this.versions = new int[uniformList.size()];
+            for (Uniform u : uniformList) this.locate(u);
+        }
+
+        /**
+         * Processes a GLSL shader (vertex or fragment) based on the given code by compiling it and attaching it to the
+         * variant's program
+         *
+         * @param code the code to create the shader from
+         * @param type the type of shader
+         * @return the ID of the created shader
+         */
+        private int processShader(String code, int type) {
+            int id = glCreateShader(type); // create shader
+            if (id == 0) // if fail
+                Utils.handleException(new Exception("Unable to create shader of type " + type + " with code: " + code),
+                        this.getClass(), "processShader", true); // throw exception
+            glShaderSource(id, code); // give shader the code
+            glCompileShader(id); // compile shader
+            if (glGetShaderi(id, GL_COMPILE_STATUS) == 0) // if fail
+                Utils.handleException(new Exception("Unable to compile shader of type " + type + ": " +
+                        glGetShaderInfoLog(id, 1024)), this.getClass(), "processShader", true); // crash
+            glAttachShader(this.progID, id); // attach to the variant's program
+            return id; // return id
+        }
+
+        /**
+         * Links the variant's GLSL shaders together and then deletes them since they are no longer needed
+         *
+         * @param vShaderID the ID of the vertex shader
+         * @param fShaderID the ID of the fragment shader
+         */
+        private void link(int vShaderID, int fShaderID) {
+            glLinkProgram(this.progID); // link program
+            if (glGetProgrami(this.progID, GL_LINK_STATUS) == 0) // if fail
+                Utils.handleException(new Exception("Unable to link shaders: " + glGetProgramInfoLog(this.progID,
+                        1024)), this.getClass(), "link", true); // throw exception
+            glDetachShader(this.progID, vShaderID); // detach vertex shader
+            glDetachShader(this.progID, fShaderID); // detach fragment shader
+            glDeleteShader(vShaderID); // delete vertex shader
+            glDeleteShader(fShaderID); // delete fragment shader
+        }
+
+        /**
+         * Finds the location of the given uniform in the variant
+         *
+         * @param u the uniform to find
+         */
+        private void locate(Uniform u) {
+            if (u.index >= this.locs.length) { // if the uniform was registered after the variant was compiled
+                this.locs = Arrays.copyOf(this.locs, uniformList.size()); // make room for it
+                this.versions = Arrays.copyOf(this.versions, uniformList.size());
+            }
+            this.locs[u.index] = glGetUniformLocation(this.progID, u.name); // get location
+            this.versions[u.index] = 0; // the variant has not been given any value for it yet
+        }
+
+        /**
+         * Uploads the current value of the given uniform to the variant if the variant uses it. The variant must be
+         * bound
+         *
+         * @param u the uniform whose value to upload
+         */
+        private void upload(Uniform u) {
+            if (this.locs[u.index] >= 0) u.upload(this.locs[u.index]); // upload if used
+            this.versions[u.index] = u.version; // remember which value the variant has
+        }
+
+        /**
+         * Uploads the current value of every uniform whose value has changed since the variant was last given it. The
+         * variant must be bound
+         */
+        private void sync() {
+            for (int i = 0; i < this.locs.length; i++) { // for each uniform
+                Uniform u = uniformList.get(i);
+                if (this.versions[i] != u.version) this.upload(u); // upload if the variant's value is outdated
+            }
+        }
+    }
+
+    /**
+     * A handle to a single uniform of a shader program, resolved once when the uniform is registered. Uniform handles
+     * remember their current value so that setting a uniform to the value it already has does not cost a GL call.
+     * Because uniform values belong to the shader program, this remains accurate across binds, unbinds, and variants.
+     * Setting a uniform while the shader program is bound uploads it to the bound variant right away. Otherwise, or
+     * for other variants, it is uploaded once the variant is next bound
+     */
+    public class Uniform {
+
+        /**
+         * Static Data
+         */
+        private static final int INT = 1, FLOAT = 2, VEC3 = 3, VEC4 = 4; // the kinds of values a uniform can hold
+
+        /**
+         * Members
+         */
+        private final float[] last = new float[4]; // the current float values
+        private final String name;                 // the name of the uniform
+        private final int index;                   // the index of the uniform in the shader program's uniform list
+        private int lastInt;                       // the current integer value
+        private int kind;                          // the kind of value currently held, or zero if none has been set
+        private int version;                       // incremented each time the value changes
+
+        /**
+         * Constructor
+         *
+         * @param name  the name of the uniform
+         * @param index the index of the uniform in the shader program's uniform list
+         */
+        private Uniform(String name, int index) {
+            this.name = name; // save name as member
+            this.index = index; // save index as member
+        }
+
+        /**
+         * Sets the uniform to the given value (a float) if it is not already that value
+         *
+         * @param v the value to set it to
+         */
+        public void set(float v) {
+            if (this.kind == FLOAT && this.last[0] == v) return; // skip if unchanged
+            this.last[0] = v; // remember value
+            this.changed(FLOAT); // and upload it
+        }
+
+        /**
+         * Sets the uniform to the given value (an integer) if it is not already that value
+         *
+         * @param v the value to set it to
+         */
+        public void set(int v) {
+            if (this.kind == INT && this.lastInt == v) return; // skip if unchanged
+            this.lastInt = v; // remember value
+            this.changed(INT); // and upload it
+        }
+
+        /**
+         * Sets the uniform to the given value (a 3-dimensional float array) if it is not already that value
+         *
+         * @param x the first value of the 3-dimensional float array
+         * @param y the second value of the 3-dimensional float array
+         * @param z the third value of the 3-dimensional float array
+         */
+        public void set(float x, float y, float z) {
+            if (this.kind == VEC3 && this.last[0] == x && this.last[1] == y && this.last[2] == z)
+                return; // skip if unchanged
+            this.last[0] = x; // remember values
+            this.last[1] = y;
+            this.last[2] = z;
+            this.changed(VEC3); // and upload them
+        }
+
+        /**
+         * Sets the uniform to the given value (a 4-dimensional float array) if it is not already that value
+         *
+         * @param x the first value of the 4-dimensional float array
+         * @param y the second value of the 4-dimensional float array
+         * @param z the third value of the 4-dimensional float array
+         * @param a the fourth value of the 4-dimensional float array
+         */
+        public void set(float x, float y, float z, float a) {
+            if (this.kind == VEC4 && this.last[0] == x && this.last[1] == y && this.last[2] == z && this.last[3] == a)
+                return; // skip if unchanged
+            this.last[0] = x; // remember values
+            this.last[1] = y;
+            this.last[2] = z;
+            this.last[3] = a;
+            this.changed(VEC4); // and upload them
+        }
+
+        /**
+         * Records that the uniform's value has changed and uploads it to the bound variant, if any
+         *
+         * @param kind the kind of value the uniform now holds
+         */
+        private void changed(int kind) {
+            this.kind = kind; // save kind
+            this.version++; // every variant's value is now outdated
+            if (bound) variant.upload(this); // upload to the bound variant
+        }
+
+        /**
+         * Uploads the uniform's current value to the given location of the bound program
+         *
+         * @param loc the location to upload to
+         */
+        private void upload(int loc) {
+            switch (this.kind) { // upload using the call for the kind of value held
+                case INT: glUniform1i(loc, this.lastInt); break;
+                case FLOAT: glUniform1f(loc, this.last[0]); break;
+                case VEC3: glUniform3f(loc, this.last[0], this.last[1], this.last[2]); break;
+                case VEC4: glUniform4f(loc, this.last[0], this.last[1], this.last[2], this.last[3]); break;
+                default: return; // nothing to upload if no value has been set
+            }
+            RenderStats.record(RenderStats.Counter.UNIFORM_UPLOADS, 1); // record upload
+        }
     }
 }
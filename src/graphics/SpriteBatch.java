@@ -0,0 +1,193 @@
+package graphics;
+
+import gameobject.GameObject;
+import org.lwjgl.system.MemoryUtil;
+import utils.Profiler;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/*
+ * SpriteBatch.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Collects many simple game objects (sprites) and renders them with as few draw calls as possible. Instead of setting
+ * position uniforms and drawing each game object's model separately, the sprite batch writes the corners of each quad
+ * of each sprite's model (with the model's scale and rotation already applied) and the model's texture coordinates
+ * into a streaming vertex buffer. The buffer is drawn all at once (flushed) whenever a sprite with a different material
+ * is given, when the buffer is full, or when the batch ends. Thus, consecutive sprites with the same material cost a
+ * single draw call. To get the most out of a sprite batch, sprites should be ordered so that sprites with the same
+ * material are next to each other.
+ * <p>
+ * Game objects whose models are made up of quads (see Model.isQuads()), such as rectangles and text, are batched as
+ * long as they are batchable (see GameObject.batchable()) and their materials do not emit light. Anything else (such as
+ * light source materials, which must set a light uniform per object) will cause a flush and then be rendered normally,
+ * so any game object can safely be given to a sprite batch. A sprite batch works with any shader program that offsets
+ * model coordinates by x and y uniforms
+ */
+public class SpriteBatch {
+
+    /**
+     * Static Data
+     */
+    private static final int FLOATS_PER_VERTEX = 4;   // x, y, u, v
+    private static final int VERTICES_PER_SPRITE = 4; // sprites are quads
+    private static final int INDICES_PER_SPRITE = 6;  // two triangles per quad
+
+    /**
+     * Members
+     */
+    private final FloatBuffer data; // vertex data of the sprites waiting to be drawn
+    private final int capacity;     // the maximum amount of quads that can wait to be drawn at once
+    private final int vao;          // the id of the sprite batch's vertex array object
+    private final int vbo;          // the id of the streaming vertex buffer object
+    private final int ibo;          // the id of the index buffer object
+    private ShaderProgram sp;       // the shader program being rendered with between begin() and end()
+    private Material material;      // the material of the sprites waiting to be drawn
+    private int sprites;            // the amount of quads waiting to be drawn
+    private int draws;              // the amount of draw calls made since begin() was called
+
+    /**
+     * Constructor
+     *
+     * @param capacity the maximum amount of quads that can be drawn with a single draw call
+     */
+    public SpriteBatch(int capacity) {
+        this.capacity = capacity; // save capacity as member
+        this.data = MemoryUtil.memAllocFloat(capacity * VERTICES_PER_SPRITE * FLOATS_PER_VERTEX); // allocate data
+        this.vao = GLState.genVertexArray(); // generate the vertex array object
+        GLState.bindVertexArray(this.vao); // bind the vertex array object
+
+        // create the streaming vertex buffer object
+        this.vbo = GLState.genBuffer(); // generate vertex buffer object
+        glBindBuffer(GL_ARRAY_BUFFER, this.vbo); // bind vertex buffer object
+        glBufferData(GL_ARRAY_BUFFER, (long) this.data.capacity() * 4, GL_STREAM_DRAW); // allocate its storage
+        GPUResources.setSize(GPUResources.Kind.BUFFER, this.vbo, (long) this.data.capacity() * 4); // record size
+        glVertexAttribPointer(0, 2, GL_FLOAT, false, FLOATS_PER_VERTEX * 4, 0); // positions go to index 0
+        glVertexAttribPointer(1, 2, GL_FLOAT, false, FLOATS_PER_VERTEX * 4, 8); // texture coordinates go to index 1
+        glEnableVertexAttribArray(0); // enable position attribute
+        glEnableVertexAttribArray(1); // enable texture coordinate attribute
+
+        // create the index buffer object. The indices never change so they are only created once
+        IntBuffer ib = MemoryUtil.memAllocInt(capacity * INDICES_PER_SPRITE); // allocate buffer space for indices
+        for (int i = 0; i < capacity; i++) { // for each sprite, add the standard rectangle indices
+            int v = i * VERTICES_PER_SPRITE; // get the sprite's first vertex
+            ib.put(v).put(v + 1).put(v + 3).put(v + 3).put(v + 1).put(v + 2);
+        }
+        ib.flip(); // flip the buffer for reading
+        this.ibo = GLState.genBuffer(); // generate index buffer object
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, this.ibo); // bind index buffer object
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, ib, GL_STATIC_DRAW); // put index data into index buffer object
+        GPUResources.setSize(GPUResources.Kind.BUFFER, this.ibo, (long) ib.capacity() * 4); // record size
+        MemoryUtil.memFree(ib); // free buffer
+
+        glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind VBO
+    }
+
+    /**
+     * Begins a batch. The given shader program should already be bound and should stay bound until end() is called
+     *
+     * @param sp the shader program to render with
+     */
+    public void begin(ShaderProgram sp) {
+        this.sp = sp; // save shader program as member
+        this.draws = 0; // reset draw call counter
+    }
+
+    /**
+     * Renders the given game object as part of the batch if possible, or flushes the batch and renders it normally
+     * otherwise (see the class description)
+     *
+     * @param go the game object to render
+     */
+    public void render(GameObject go) {
+        if (!go.visible()) return; // do not render if invisible
+        Material m = go.getMaterial(); // get the game object's material
+        if (!go.batchable() || !go.getModel().isQuads() || m instanceof LightSourceMaterial) {
+            this.flush(); // if it cannot be batched, draw what is waiting first to keep the order correct
+            go.render(this.sp); // and then render it normally
+            this.draws++; // keep track of the draw call
+            return;
+        }
+        float[] mc = go.getTransform().getModelCoords(); // get the game object's model coordinates
+        float[] tc = go.getModel().getTexCoords(); // and its texture coordinates
+        if (mc.length == 0) return; // nothing to draw (such as a text object without text)
+        String section = go.getProfileSection(); // time the game object under its own profiler section if it has one
+        if (section != null) Profiler.begin(section);
+        if (m != this.material) this.flush(); // flush if a new material
+        this.material = m; // save material as member
+        // figure out which frame of the texture to use if it is animated
+        Texture t = m.getTexture(); // get the material's texture
+        int frame = 0, frames = 1; // assume not animated
+        boolean flip = false;
+        if (t instanceof AnimatedTexture) { // if animated, use the current frame
+            frame = ((AnimatedTexture) t).getFrame();
+            frames = ((AnimatedTexture) t).getFrameCount();
+            flip = go.isTextureFlipped(); // and flip it if the game object calls for it
+        }
+        for (int q = 0; q < mc.length; q += VERTICES_PER_SPRITE * 2) { // for each quad of the model
+            if (this.sprites == this.capacity) this.flush(); // flush if full
+            for (int i = q; i < q + VERTICES_PER_SPRITE * 2; i += 2) { // for each corner of the quad
+                this.data.put(go.getX() + mc[i]).put(go.getY() + mc[i + 1]); // put its position
+                float u = flip ? 1f - tc[i] : tc[i]; // flip its u texture coordinate if necessary
+                this.data.put((frame + u) / frames).put(tc[i + 1]); // and put its texture coordinates within the frame
+            }
+            this.sprites++; // keep track of quads waiting
+        }
+        if (section != null) Profiler.end(section);
+        go.renderExtras(this.sp); // render anything that goes with the game object
+    }
+
+    /**
+     * Draws all quads waiting to be drawn with a single draw call
+     */
+    public void flush() {
+        if (this.sprites == 0) return; // if there are no sprites waiting, there is nothing to do
+        // sprite vertices are already positioned so the object position is zero
+        this.sp.uniform(ShaderProgram.Common.X).set(0f);
+        this.sp.uniform(ShaderProgram.Common.Y).set(0f);
+        Model.useIdentityTransform(this.sp); // and they are already scaled and rotated
+        this.material.setUniforms(this.sp); // set the material uniforms
+        this.data.flip(); // flip the data for reading
+        GLState.bindVertexArray(this.vao); // bind vao
+        glBindBuffer(GL_ARRAY_BUFFER, this.vbo); // bind vbo
+        // orphan the old storage so that GL does not have to wait for previous draws using it to finish
+        glBufferData(GL_ARRAY_BUFFER, (long) this.data.capacity() * 4, GL_STREAM_DRAW);
+        glBufferSubData(GL_ARRAY_BUFFER, 0, this.data); // upload the sprite data
+        glBindBuffer(GL_ARRAY_BUFFER, 0); // unbind vbo
+        GLState.drawElements(this.sprites * INDICES_PER_SPRITE); // draw all sprites
+        this.data.clear(); // clear the data for the next sprites
+        this.sprites = 0; // reset sprite counter
+        this.draws++; // keep track of the draw call
+    }
+
+    /**
+     * Ends the batch by drawing any sprites still waiting to be drawn
+     *
+     * @return the amount of draw calls made during the batch
+     */
+    public int end() {
+        this.flush(); // draw any remaining sprites
+        this.sp = null; // forget the shader program
+        this.material = null; // forget the material
+        return this.draws; // return the amount of draw calls made
+    }
+
+    /**
+     * Cleans up the sprite batch by deleting its buffers and freeing its data
+     */
+    public void cleanup() {
+        GLState.deleteBuffer(this.vbo); // delete vertex buffer object
+        GLState.deleteBuffer(this.ibo); // delete index buffer object
+        GLState.deleteVertexArray(this.vao); // delete vertex array object
+        MemoryUtil.memFree(this.data); // free sprite data
+    }
+}
@@ -42,20 +42,23 @@ public class Texture {
     public static Texture makeSheet(Material m, Model mod, int cols, int rows, int mw, int mh, int fadeDir,
                                     boolean corners) {
 
-        // create the aggregation shader program
-        ShaderProgram sp = new ShaderProgram(new Utils.Path("/shaders/aggregate_vertex.glsl", true),
+        // get the shared aggregation shader program
+        ShaderProgram sp = ShaderCache.get(new Utils.Path("/shaders/aggregate_vertex.glsl", true),
                 new Utils.Path("/shaders/aggregate_fragment.glsl", true));
-        sp.registerUniform("texSampler"); // register the texture sampler uniform
+        ShaderProgram.Uniform texSampler = sp.registerUniform("texSampler"); // register the texture sampler uniform
         sp.registerUniform("color"); // register the material color uniform
-        sp.registerUniform("isTextured"); // register the texture flag uniform
-        sp.registerUniform("blend"); // register the material blend uniform
-        sp.registerUniform("fadeDir"); // register fade direction uniform
-        sp.registerUniform("corners"); // register fade corner uniform
-        sp.registerUniform("w");
-        sp.registerUniform("h");
+        sp.registerDefine("TEXTURED"); // register the texture flag define
+        sp.registerDefine("BLEND"); // register the material blend define
+        ShaderProgram.Uniform fade = sp.registerUniform("fadeDir"); // register fade direction uniform
+        ShaderProgram.Uniform fadeCorners = sp.registerUniform("corners"); // register fade corner uniform
+        ShaderProgram.Uniform w = sp.registerUniform("w");
+        ShaderProgram.Uniform h = sp.registerUniform("h");
+        ShaderProgram.Uniform wDiv = sp.registerUniform("wDiv"); // register width/height division uniforms
+        ShaderProgram.Uniform hDiv = sp.registerUniform("hDiv");
         // register offset uniforms
-        sp.registerUniform("x");
-        sp.registerUniform("y");
+        ShaderProgram.Uniform xu = sp.registerUniform("x");
+        ShaderProgram.Uniform yu = sp.registerUniform("y");
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME); // register model transform uniform
 
         // create other necessary items
         int[] IDs = Utils.createFBOWithTextureAttachment(cols * mw, rows * mh); // create FBO w/ texture attached
@@ -71,15 +74,18 @@ public class Texture {
         mod.scaleScale((float) mw / (float) (cols * mw), (float) mh / (float) (rows * mh));
 
         // pre-render
-        glBindFramebuffer(GL_FRAMEBUFFER, IDs[0]); // bind the frame buffer object
-        glViewport(0, 0, cols * mw, rows * mh); // set the viewport to the size of the texture
+        RenderStats.Pass pass = RenderStats.setPass(RenderStats.Pass.OFFSCREEN); // record work as offscreen
+        GLState.bindFramebuffer(IDs[0]); // bind the frame buffer object
+        GLState.viewport(0, 0, cols * mw, rows * mh); // set the viewport to the size of the texture
         glClear(GL_COLOR_BUFFER_BIT); // clear color
         sp.bind(); // bind the shader program
-        sp.setUniform("texSampler", 0); // tell the texture sampler to look in texture bank 0
-        sp.setUniform("fadeDir", fadeDir); // set the fade direction uniform
-        sp.setUniform("corners", corners ? 1 : 0); // set the fade corner uniform
-        sp.setUniform("w", mw * cols);
-        sp.setUniform("h", mh * rows);
+        texSampler.set(0); // tell the texture sampler to look in texture bank 0
+        fade.set(fadeDir); // set the fade direction uniform
+        fadeCorners.set(corners ? 1 : 0); // set the fade corner uniform
+        w.set(mw * cols);
+        h.set(mh * rows);
+        wDiv.set(0f); // the model is already normalized so it should not be divided
+        hDiv.set(0f);
         m.setUniforms(sp); // set material uniforms
 
         // render and fill
@@ -88,20 +94,21 @@ public class Texture {
             for (int row = 0; row < rows; row++) { // go through each row in that column
                 float y = ((float) row + 0.5f - (float) rows / 2) / ((float) rows / 2); // calculate the norm y
                 // set x/y offset uniforms
-                sp.setUniform("x", x);
-                sp.setUniform("y", y);
-                mod.render(); // render the model
+                xu.set(x);
+                yu.set(y);
+                mod.render(sp); // render the model
             }
         }
 
         // post-render
         sp.unbind(); // unbind shader program
+        RenderStats.setPass(pass); // restore previous pass
         sp.cleanup(); // cleanup shader program
         Texture t = new Texture(IDs[1], cols * mw, rows * mh); // create final texture
-        glBindFramebuffer(GL_FRAMEBUFFER, 0); // unbind the frame buffer object
-        glDeleteFramebuffers(IDs[0]); // delete the frame buffer object
+        GLState.bindFramebuffer(0); // unbind the frame buffer object
+        GLState.deleteFramebuffer(IDs[0]); // delete the frame buffer object
         // reset GL viewport to window's framebuffer size
-        glViewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
+        GLState.viewport(0, 0, Global.gameWindow.getFBWidth(), Global.gameWindow.getFBHeight());
         // scale model to original scale
         mod.setXScale(osx);
         mod.setYScale(osy);
@@ -112,6 +119,7 @@ public class Texture {
      * Members
      */
     private final int id, w, h; // texture ID, width, and height
+    private boolean opaque;     // whether every pixel of the texture is known to be fully opaque
 
     /**
      * Constructor
@@ -139,15 +147,19 @@ public class Texture {
         // save info, create texture, cleanup
         this.w = w.get(); // save width
         this.h = h.get(); // save height
-        this.id = glGenTextures(); // generate texture object
+        this.id = GLState.genTexture(); // generate texture object
 
-        glBindTexture(GL_TEXTURE_2D, id); // bind new texture object
+        GLState.bindTexture(0, id); // bind new texture object
         glPixelStoref(GL_UNPACK_ALIGNMENT, 1); // tell GL that each component will be one byte in size
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST); // this makes pixels clear and un-blurred
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST); // this makes pixels clear and un-blurred
         glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, this.w, this.h, 0, GL_RGBA, GL_UNSIGNED_BYTE,
                 buf); // generate texture
         glGenerateMipmap(GL_TEXTURE_2D); // generate mip maps
+        // record size, where mip maps add about a third
+        GPUResources.setSize(GPUResources.Kind.TEXTURE, this.id, (long) this.w * this.h * 4 * 4 / 3);
+        this.opaque = true; // check if every pixel is fully opaque
+        for (int i = 3; i < this.w * this.h * 4 && this.opaque; i += 4) this.opaque = buf.get(i) == (byte) 0xff;
         stbi_image_free(buf); // cleanup by freeing image memory
     }
 
@@ -184,6 +196,14 @@ public class Texture {
         return this.id;
     }
 
+    /**
+     * @return whether every pixel of the texture is known to be fully opaque. This is only known for textures loaded
+     * from images, so textures created in other ways will always return false
+     */
+    public boolean isOpaque() {
+        return this.opaque;
+    }
+
     /**
      * @return the texture's width
      */
@@ -222,6 +242,6 @@ public class Texture {
      * Cleans up the texture
      */
     public void cleanup() {
-        glDeleteTextures(this.id);
+        GLState.deleteTexture(this.id);
     }
 }
@@ -0,0 +1,101 @@
+package graphics;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.glTexImage3D;
+import static org.lwjgl.opengl.GL12.glTexSubImage3D;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
+
+/*
+ * TextureArray.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Extends textures by holding many same-sized images as layers of a single array texture. This allows many objects
+ * with different images to be rendered using a single texture bind, where each object chooses its layer in the shader.
+ * Materials with a texture array bind it to texture unit 1 and set the isTextured uniform to 2 (see Material's
+ * setUniforms() method). Layers can be filled by copying existing textures or with a solid color
+ */
+public class TextureArray extends Texture {
+
+    /**
+     * Members
+     */
+    private final int layers; // the amount of layers in the texture array
+
+    /**
+     * Constructs the texture array with the given layer size and amount of layers. The layers will start out empty
+     *
+     * @param w      the width of each layer in pixels
+     * @param h      the height of each layer in pixels
+     * @param layers the amount of layers
+     */
+    public TextureArray(int w, int h, int layers) {
+        super(GLState.genTexture(), w, h); // generate the texture object
+        this.layers = layers; // save amount of layers as member
+        GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, this.getID()); // bind new texture object
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_NEAREST); // keep pixels un-blurred
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_NEAREST); // keep pixels un-blurred
+        // create an empty array texture with the given size
+        glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA, w, h, layers, 0, GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GPUResources.setSize(GPUResources.Kind.TEXTURE, this.getID(), (long) w * h * layers * 4); // record size
+        GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, 0); // unbind texture
+    }
+
+    /**
+     * Copies the given texture into the given layer. The texture must have the same size as the layers
+     *
+     * @param layer the layer to copy into
+     * @param t     the texture to copy
+     */
+    public void setLayer(int layer, Texture t) {
+        ByteBuffer pixels = MemoryUtil.memAlloc(this.getWidth() * this.getHeight() * 4); // allocate space for pixels
+        GLState.bindTexture(0, t.getID()); // bind the texture to copy
+        glGetTexImage(GL_TEXTURE_2D, 0, GL_RGBA, GL_UNSIGNED_BYTE, pixels); // read its pixels
+        GLState.bindTexture(0, 0); // unbind the texture to copy
+        this.setLayer(layer, pixels); // put the pixels into the layer
+        MemoryUtil.memFree(pixels); // free buffer
+    }
+
+    /**
+     * Fills the given layer with a solid color
+     *
+     * @param layer the layer to fill
+     * @param color the color to fill with as a length four array of rgba components from 0 to 1
+     */
+    public void setLayer(int layer, float[] color) {
+        ByteBuffer pixels = MemoryUtil.memAlloc(this.getWidth() * this.getHeight() * 4); // allocate space for pixels
+        // fill the buffer with the color
+        while (pixels.hasRemaining()) for (float c : color) pixels.put((byte) Math.round(c * 255f));
+        pixels.flip(); // flip the buffer for reading
+        this.setLayer(layer, pixels); // put the pixels into the layer
+        MemoryUtil.memFree(pixels); // free buffer
+    }
+
+    /**
+     * Puts the given pixels into the given layer
+     *
+     * @param layer  the layer to put the pixels into
+     * @param pixels the rgba pixels to use, one byte per component
+     */
+    private void setLayer(int layer, ByteBuffer pixels) {
+        GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, this.getID()); // bind texture array
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1); // tell GL that each component will be one byte in size
+        glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, this.getWidth(), this.getHeight(), 1, GL_RGBA,
+                GL_UNSIGNED_BYTE, pixels); // put the pixels into the layer
+        GLState.bindTexture(0, GL_TEXTURE_2D_ARRAY, 0); // unbind texture array
+    }
+
+    /**
+     * @return the amount of layers in the texture array
+     */
+    public int getLayers() {
+        return this.layers;
+    }
+}
@@ -0,0 +1,297 @@
+package graphics;
+
+import utils.FrameArena;
+import utils.Global;
+import utils.PhysicsEngine;
+import utils.Utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/*
+ * TileCache.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Caches static world content into square offscreen textures (tiles) around the camera so that the content does not
+ * need to be redrawn every frame. Each tile is rendered once by the tile cache's content (see TileCache.Content) with
+ * lighting disabled, at the resolution the camera currently shows the world at. Tiles cover up to MAX_TILE_SIZE by
+ * MAX_TILE_SIZE world units, halved as many times as needed for that resolution to fit within MAX_TILE_PIXELS, so that
+ * tiles are never stretched when drawn. The cache is then executed as a render command each frame, drawing every
+ * visible tile as a single quad. Since the world shaders apply the day/night cycle and lights per fragment based on
+ * world position, lighting is still applied when the tiles are drawn, so cached content is lit exactly like it would be
+ * if it were drawn directly.
+ * <p>
+ * Tiles are stored with premultiplied alpha so that they composite correctly over what is behind them. Tiles far from
+ * the camera are recycled for new tiles as the camera moves. All tiles are invalidated when the zoom changes (since
+ * their resolution and size depend on it) and tiles are not used at all while the zoom is changing, because
+ * re-rendering every tile every frame would cost more than drawing the content directly. If the content itself ever
+ * changes, invalidate() should be called
+ */
+public class TileCache implements RenderQueue.Command {
+
+    /**
+     * Static Data
+     */
+    public static final int MAX_TILE_SIZE = 16;      // the largest width and height of a tile in world units
+    private static final float MIN_TILE_SIZE = 1f;   // the smallest width and height of a tile in world units
+    private static final int MAX_TILE_PIXELS = 1024; // the maximum width and height of a tile's texture in pixels
+    private static final int KEEP_MARGIN = 1;        // how many tiles outside of the view to keep before recycling
+
+    /**
+     * Members
+     */
+    private final Map<Long, Tile> tiles = new HashMap<>(); // the rendered tiles mapped by their tile position
+    private final List<Tile> free = new ArrayList<>();     // tiles whose textures are not currently being used
+    private final List<Tile> visible = new ArrayList<>();  // tiles that overlap the view, drawn when executed
+    private final Content content;                         // the content to render into tiles
+    private final Model model;                             // the quad model used to draw tiles
+    private RenderStats.Pass pass;                         // the pass to restore once tiles have been rendered
+    private int prevFBO, prevW, prevH;                     // the framebuffer and viewport to restore afterwards
+    private float zoom;                                    // the camera zoom the tiles were rendered at
+    private float size;                                    // the width and height of each tile in world units
+    private int pixels;                                    // the width and height of tile textures in pixels
+
+    /**
+     * Constructor
+     *
+     * @param content the static content to cache
+     */
+    public TileCache(Content content) {
+        this.content = content; // save content as member
+        // framebuffer textures start at the bottom, so flip the texture coordinates vertically
+        this.model = new Model(Model.getGridRectModelCoords(1, 1), new float[]{
+                0.0f, 1.0f, // top left
+                0.0f, 0.0f, // bottom left
+                1.0f, 0.0f, // bottom right
+                1.0f, 1.0f  // top right
+        }, Model.getStdRectIdx()); // a unit quad which is scaled to the tile size
+    }
+
+    /**
+     * Updates the tiles to cover the given view, rendering any that are missing. This should be called before the
+     * cache is executed each frame. The given shader program should already be bound and have its camera and aspect
+     * ratio uniforms set. They will be restored after any tiles are rendered
+     *
+     * @param sp   the world shader program
+     * @param view the camera's view
+     * @param cam  the camera
+     * @return whether the cache can be used this frame. If false, the content should be drawn directly instead
+     */
+    public boolean update(ShaderProgram sp, PhysicsEngine.AABB view, Camera cam) {
+        this.visible.clear(); // forget last frame's visible tiles
+        // calculate the resolution to use based on how many pixels the camera fits into one world unit. The size of
+        // the current viewport is used since the world may be rendered below the window's resolution (see RenderScale)
+        int vw = GLState.getViewportWidth(), vh = GLState.getViewportHeight(); // get viewport size
+        if (vw <= 0 || vh <= 0) { // if unknown, use the window's size
+            vw = Global.gameWindow.getFBWidth();
+            vh = Global.gameWindow.getFBHeight();
+        }
+        float ppu = cam.getPixelsPerUnit(vw, vh); // get how many pixels one world unit covers
+        float size = MAX_TILE_SIZE; // shrink tiles until they fit into a texture at that resolution
+        while (size > MIN_TILE_SIZE && size * ppu > MAX_TILE_PIXELS) size /= 2;
+        int pixels = Math.min(MAX_TILE_PIXELS, (int) Math.ceil(size * ppu)); // only clamped at the smallest size
+        if (cam.getZoom() != this.zoom || pixels != this.pixels || size != this.size) { // if anything changed
+            if (pixels != this.pixels) this.deleteTiles(); // the tile textures are now the wrong size
+            else this.invalidate(); // otherwise the tile textures can be reused
+            this.zoom = cam.getZoom(); // remember new zoom
+            this.pixels = pixels; // new resolution
+            this.size = size; // and new tile size
+            this.model.setScale(size, size); // scale the tile quad to the new tile size
+            return false; // the zoom may still be changing, so do not render tiles until it has settled
+        }
+        // find the range of tiles that overlap the view
+        int minCol = (int) Math.floor((view.getCX() - view.getW2()) / this.size);
+        int maxCol = (int) Math.floor((view.getCX() + view.getW2()) / this.size);
+        int minRow = (int) Math.floor((view.getCY() - view.getH2()) / this.size);
+        int maxRow = (int) Math.floor((view.getCY() + view.getH2()) / this.size);
+        Iterator<Tile> it = this.tiles.values().iterator(); // recycle tiles that are too far from the view
+        while (it.hasNext()) {
+            Tile t = it.next();
+            if (t.col < minCol - KEEP_MARGIN || t.col > maxCol + KEEP_MARGIN || t.row < minRow - KEEP_MARGIN ||
+                    t.row > maxRow + KEEP_MARGIN) {
+                it.remove(); // remove from the rendered tiles
+                this.free.add(t); // and make its texture available
+            }
+        }
+        boolean rendering = false; // whether any tiles have been rendered this frame
+        for (int col = minCol; col <= maxCol; col++) for (int row = minRow; row <= maxRow; row++) { // for each tile
+            long key = ((long) col << 32) | (row & 0xffffffffL); // get the tile's key
+            Tile t = this.tiles.get(key); // look for it
+            if (t == null) { // if it hasn't been rendered
+                if (!rendering) this.beginRendering(sp); // prepare for rendering tiles if not already
+                rendering = true;
+                t = this.free.isEmpty() ? new Tile(this.pixels) : this.free.remove(this.free.size() - 1); // get tile
+                t.col = col; // save its position
+                t.row = row;
+                this.renderTile(sp, t); // render it
+                this.tiles.put(key, t); // and remember it
+            }
+            this.visible.add(t); // it will be drawn this frame
+        }
+        if (rendering) this.endRendering(sp, cam); // restore state if tiles were rendered
+        return true; // the cache can be used this frame
+    }
+
+    /**
+     * Prepares to render tiles by disabling lighting and setting a blend function that produces premultiplied alpha
+     *
+     * @param sp the world shader program
+     */
+    private void beginRendering(ShaderProgram sp) {
+        this.pass = RenderStats.setPass(RenderStats.Pass.STATIC_CACHE); // record work as static cache rendering
+        this.prevFBO = Math.max(0, GLState.getFramebuffer()); // remember the framebuffer and viewport to restore
+        this.prevW = GLState.getViewportWidth();
+        this.prevH = GLState.getViewportHeight();
+        if (this.prevW <= 0 || this.prevH <= 0) { // if the viewport is unknown, restore the window's
+            this.prevW = Global.gameWindow.getFBWidth();
+            this.prevH = Global.gameWindow.getFBHeight();
+        }
+        sp.setDefine("USE_DNC", 0); // tiles store unlit content since lighting is applied when they are drawn
+        sp.setDefine("USE_LIGHTS", 0);
+        sp.uniform(ShaderProgram.Common.AR).set(1f); // tiles are square so no aspect ratio should be applied
+        sp.uniform(ShaderProgram.Common.AR_ACTION).set(0);
+        sp.uniform(ShaderProgram.Common.CAM_ZOOM).set(2f / this.size); // fit one tile into the viewport
+        GLState.blendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+        GLState.viewport(0, 0, this.pixels, this.pixels); // set the viewport to the size of the tiles
+    }
+
+    /**
+     * Renders the content in the given tile's area into the tile
+     *
+     * @param sp the world shader program
+     * @param t  the tile to render
+     */
+    private void renderTile(ShaderProgram sp, Tile t) {
+        float cx = (t.col + 0.5f) * this.size, cy = (t.row + 0.5f) * this.size; // calculate center of the tile
+        GLState.bindFramebuffer(t.fbo); // bind the tile's framebuffer
+        glClear(GL_COLOR_BUFFER_BIT); // clear the tile
+        sp.uniform(ShaderProgram.Common.CAM_X).set(cx); // center the camera on the tile
+        sp.uniform(ShaderProgram.Common.CAM_Y).set(cy);
+        this.content.render(sp, FrameArena.aabb(cx, cy, this.size, this.size)); // render content
+    }
+
+    /**
+     * Restores the state changed while rendering tiles
+     *
+     * @param sp  the world shader program
+     * @param cam the camera
+     */
+    private void endRendering(ShaderProgram sp, Camera cam) {
+        GLState.bindFramebuffer(this.prevFBO); // rebind the framebuffer being rendered to before
+        GLState.viewport(0, 0, this.prevW, this.prevH); // and reset its viewport
+        GLState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA); // reset blend function
+        sp.uniform(ShaderProgram.Common.AR).set(Global.ar); // restore aspect ratio uniforms
+        sp.uniform(ShaderProgram.Common.AR_ACTION).set(Global.arAction ? 1 : 0);
+        sp.uniform(ShaderProgram.Common.CAM_X).set(cam.getX()); // restore camera uniforms
+        sp.uniform(ShaderProgram.Common.CAM_Y).set(cam.getY());
+        sp.uniform(ShaderProgram.Common.CAM_ZOOM).set(cam.getZoom());
+        RenderStats.setPass(this.pass); // restore previous pass
+    }
+
+    /**
+     * Draws every tile overlapping the view as of the last update
+     *
+     * @param sp the shader program to render with
+     */
+    @Override
+    public void execute(ShaderProgram sp) {
+        GLState.blendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA); // tiles have premultiplied alpha
+        for (Tile t : this.visible) { // for each visible tile
+            sp.uniform(ShaderProgram.Common.X).set((t.col + 0.5f) * this.size); // position at the tile's center
+            sp.uniform(ShaderProgram.Common.Y).set((t.row + 0.5f) * this.size);
+            t.material.setUniforms(sp); // set the tile's material uniforms
+            this.model.render(sp); // draw the tile
+        }
+        GLState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA); // reset blend function
+    }
+
+    /**
+     * @return the amount of tiles drawn when the cache is executed
+     */
+    public int getVisibleCount() {
+        return this.visible.size();
+    }
+
+    /**
+     * Invalidates every tile so that they will all be re-rendered when next needed
+     */
+    public void invalidate() {
+        this.free.addAll(this.tiles.values()); // make every tile's texture available
+        this.tiles.clear(); // and forget the tiles
+        this.visible.clear();
+    }
+
+    /**
+     * Deletes every tile's framebuffer and texture
+     */
+    private void deleteTiles() {
+        this.invalidate(); // free every tile
+        for (Tile t : this.free) t.cleanup(); // cleanup each tile
+        this.free.clear(); // and forget them
+    }
+
+    /**
+     * Cleans up the tile cache by deleting every tile and the tile model
+     */
+    public void cleanup() {
+        this.deleteTiles(); // delete tiles
+        this.model.cleanup(); // cleanup model
+    }
+
+    /**
+     * Defines static content that can be cached by a tile cache
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Renders the content within the given region. Content just outside of the region that may overlap into it
+         * should be rendered as well. Anything outside of the region will be clipped
+         *
+         * @param sp     the shader program to render with. It will already be bound with lighting disabled
+         * @param region the region of the world being rendered
+         */
+        void render(ShaderProgram sp, PhysicsEngine.AABB region);
+    }
+
+    /**
+     * A single offscreen tile with its own framebuffer and texture
+     */
+    private static class Tile {
+
+        /**
+         * Members
+         */
+        private final Material material; // the material wrapping the tile's texture
+        private final int fbo;           // the id of the tile's framebuffer
+        private int col, row;            // the position of the tile in tiles
+
+        /**
+         * Constructor
+         *
+         * @param pixels the width and height of the tile's texture in pixels
+         */
+        private Tile(int pixels) {
+            int[] ids = Utils.createFBOWithTextureAttachment(pixels, pixels); // create FBO with texture attached
+            this.fbo = ids[0]; // save FBO id
+            this.material = new Material(new Texture(ids[1], pixels, pixels)); // wrap texture in a material
+        }
+
+        /**
+         * Cleans up the tile by deleting its framebuffer and texture
+         */
+        private void cleanup() {
+            GLState.deleteFramebuffer(this.fbo); // delete framebuffer
+            this.material.cleanup(); // delete texture
+        }
+    }
+}
@@ -21,6 +21,12 @@ import static org.lwjgl.system.MemoryUtil.NULL;
  */
 public class Window {
 
+    /**
+     * Static Data
+     */
+    private static final int DEFAULT_WIDTH = 1280; // the width to use when no screen size is available
+    private static final int DEFAULT_HEIGHT = 720; // the height to use when no screen size is available
+
     /**
      * Data
      */
@@ -29,7 +35,10 @@ public class Window {
     private int w, h;                     // window width and height
     private int fbw, fbh;                 // frame buffer width and height
     private boolean resized = false;      // whether or not the window has been resized (false by default)
+    private boolean focused = true;       // whether or not the window has input focus
+    private boolean iconified = false;    // whether or not the window is iconified (minimized)
     private boolean vSync;                // whether or not to use v-sync
+    private boolean visible;              // whether or not to show the window once created
 
     /**
      * Constructs the window
@@ -40,10 +49,26 @@ public class Window {
      * @param vSync whether to enable vertical sync
      */
     public Window(String title, int w, int h, boolean vSync) {
+        this(title, w, h, vSync, true); // create a visible window
+    }
+
+    /**
+     * Constructs the window, optionally keeping it hidden. A hidden window still has a GL context and a framebuffer to
+     * render to, which allows rendering without a desktop (see Benchmark)
+     *
+     * @param title   the title to give to the GLFW window
+     * @param w       the width to make the GLFW window. If -1, will cover 80% of the width of the screen when
+     *                initialized
+     * @param h       the height to make the GLFW window. If -1, will cover 80% of the height of screen when initialized
+     * @param vSync   whether to enable vertical sync
+     * @param visible whether to show the window once it is created
+     */
+    public Window(String title, int w, int h, boolean vSync, boolean visible) {
         this.title = title; // set title
         this.w = w; // set width
         this.h = h; // set height
         this.vSync = vSync; // set vertical sync setting
+        this.visible = visible; // set visibility
     }
 
     /**
@@ -66,9 +91,12 @@ public class Window {
         glfwWindowHint(GLFW_OPENGL_FORWARD_COMPAT, GL_TRUE); // request forward compatibility
 
         // check window size
-        GLFWVidMode vidmode = glfwGetVideoMode(glfwGetPrimaryMonitor()); // get resolution info for main monitor
-        if (this.w == -1) this.w = (int) (0.8 * vidmode.width()); // if w is -1, use 80% of width of screen
-        if (this.h == -1) this.h = (int) (0.8 * vidmode.height()); // if h is -1, use 80% of height of screen
+        long monitor = glfwGetPrimaryMonitor(); // get main monitor. There may not be one when running headless
+        GLFWVidMode vidmode = monitor == NULL ? null : glfwGetVideoMode(monitor); // get resolution info for it
+        if (this.w == -1) // if w is -1, use 80% of width of screen (or the default width if there is no screen)
+            this.w = vidmode == null ? DEFAULT_WIDTH : (int) (0.8 * vidmode.width());
+        if (this.h == -1) // if h is -1, use 80% of height of screen (or the default height if there is no screen)
+            this.h = vidmode == null ? DEFAULT_HEIGHT : (int) (0.8 * vidmode.height());
 
         // create window
         this.handle = glfwCreateWindow(this.w, this.h, this.title, NULL, NULL); // create window with specified config
@@ -94,17 +122,21 @@ public class Window {
             this.h = h;
         });
 
+        // setup focus and iconification callbacks - the engine checks these every loop to see if it can idle
+        glfwSetWindowFocusCallback(this.handle, (window, focused) -> this.focused = focused);
+        glfwSetWindowIconifyCallback(this.handle, (window, iconified) -> this.iconified = iconified);
+
         // finishing touches on window
-        glfwSetWindowPos(this.handle, (vidmode.width() - this.fbw) / 2,
+        if (vidmode != null) glfwSetWindowPos(this.handle, (vidmode.width() - this.fbw) / 2,
                 (vidmode.height() - this.fbh) / 2); // set position to be middle of screen
         glfwMakeContextCurrent(this.handle); // set this context to be current
         if (this.vSync) glfwSwapInterval(1); // enable vsync if setting is true
 
         // show window and finish up gl settings
-        glfwShowWindow(this.handle); // show this window
+        if (this.visible) glfwShowWindow(this.handle); // show this window unless it should be hidden
         GL.createCapabilities(); // allows interaction between GLFW and GL. Nothing will work without this
-        glEnable(GL_BLEND); // essentially allows transparency
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA); // defines how the blending will create transparency
+        GLState.setBlend(true); // essentially allows transparency
+        GLState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA); // defines how the blending will create transparency
         glClearColor(0f, 0f, 0f, 0f); // set clear color
 
         // log successful window initialization
@@ -118,6 +150,16 @@ public class Window {
         glfwPollEvents();
     } // polls for events
 
+    /**
+     * Waits for any GLFW window events, processing them as they arrive. This puts the thread to sleep until either an
+     * event occurs or the given timeout passes, making it a much cheaper alternative to polling when idle
+     *
+     * @param timeout the maximum amount of time, in seconds, to wait for events
+     */
+    public void waitEvents(double timeout) {
+        glfwWaitEventsTimeout(timeout); // wait for events
+    }
+
     /**
      * Swaps the window buffers
      */
@@ -152,6 +194,27 @@ public class Window {
         return glfwWindowShouldClose(this.handle); // determine if this window should close and return the result
     }
 
+    /**
+     * @return whether this window has input focus
+     */
+    public boolean isFocused() {
+        return this.focused;
+    }
+
+    /**
+     * @return whether this window is iconified (minimized)
+     */
+    public boolean isIconified() {
+        return this.iconified;
+    }
+
+    /**
+     * @return whether this window is idle, meaning that it is either iconified or does not have input focus
+     */
+    public boolean isIdle() {
+        return this.iconified || !this.focused;
+    }
+
     /**
      * @return whether this window has vertical sync enabled
      */
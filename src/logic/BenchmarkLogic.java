@@ -0,0 +1,74 @@
+package logic;
+
+import gameobject.gameworld.Area;
+import graphics.Camera;
+import utils.Global;
+import utils.Node;
+import utils.Utils;
+
+/*
+ * BenchmarkLogic.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * A logic used when benchmarking rendering (see Benchmark). It loads a single area without a player and moves the
+ * camera along a scripted path instead of following anything, so that every run renders exactly the same frames. The
+ * debug info is kept visible so that text rendering is included in the measurements
+ */
+public class BenchmarkLogic extends GameLogic {
+
+    /**
+     * Static Data
+     */
+    private static final float ZOOM_START = 0.4f; // how far along the path to begin zooming out
+    private static final float ZOOM_END = 0.6f;   // how far along the path to finish zooming back in
+
+    /**
+     * Members
+     */
+    private final Utils.Path areaPath; // the path to the node-file of the area to benchmark
+
+    /**
+     * Constructor
+     *
+     * @param areaPath the path to the node-file of the area to benchmark
+     */
+    public BenchmarkLogic(Utils.Path areaPath) {
+        this.areaPath = areaPath; // save area path as member
+    }
+
+    /**
+     * Initializes the benchmark logic by loading the area into a game world with no player
+     */
+    @Override
+    protected void initOthers() {
+        super.initOthers(); // call super so that debug info is added to HUD
+        if (!this.areaPath.exists()) // if the area does not exist, crash
+            Utils.handleException(new Exception("Benchmark area node-file does not exist: " + this.areaPath),
+                    this.getClass(), "initOthers", true);
+        this.roc.useGameWorld(new Area(Node.pathContentsToNode(this.areaPath)), null); // create game world with area
+        this.roc.getGameWorld().setZoomOnScroll(false); // the camera's zoom is controlled by the path only
+        Global.debugInfo.setVisibility(true); // show debug info so that text is rendered
+    }
+
+    /**
+     * Moves the camera to the given point along the benchmark's path. The camera pans from the left edge of the area to
+     * the right edge and back at half of the area's height, zooming out to the minimum zoom and back in around the
+     * middle of the path
+     *
+     * @param t how far along the path to move the camera to, from 0f (the start) to 1f (the end)
+     */
+    public void moveCamera(float t) {
+        boolean[][] blockMap = this.roc.getGameWorld().getArea().getBlockMap(); // get the area's block map for size
+        Camera cam = this.roc.getGameWorld().getCam(); // get the game world's camera
+        // pan from the left edge to the right edge and back, easing in and out at the edges
+        cam.setPos(blockMap.length * (0.5f - 0.5f * (float) Math.cos(2 * Math.PI * t)), blockMap[0].length / 2f);
+        float zoom = 0f; // calculate how far zoomed out to be from 0f (default zoom) to 1f (minimum zoom)
+        if (t > ZOOM_START && t < ZOOM_END) // if within the zoomed portion of the path, ease out and back in
+            zoom = (float) Math.sin(Math.PI * (t - ZOOM_START) / (ZOOM_END - ZOOM_START));
+        cam.setZoom(Camera.DEFAULT_ZOOM + (Camera.MIN_ZOOM - Camera.DEFAULT_ZOOM) * zoom); // apply zoom
+    }
+}
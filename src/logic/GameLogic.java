@@ -56,6 +56,16 @@ public abstract class GameLogic {
         this.transferData = transferData; // save as members
     }
 
+    /**
+     * Prepares the logic before it is initialized. When the logic is the new logic of a logic change, this is called on
+     * a separate preparation thread while the logic change transitions, after the transfer data has been given. Because
+     * there is no GL context on that thread, extending classes should only do CPU work here (such as reading and parsing
+     * node-files) and leave anything that creates GL objects for initOthers(), which is called on the main thread once
+     * preparation has finished
+     */
+    protected void prepare() {
+    }
+
     /**
      * Initializes the logic. This method is the only entry point into the logic other then input, update, and render
      * Extending classes cannot override this method. However, this method will call initOthers() which can be
@@ -114,6 +124,18 @@ public abstract class GameLogic {
         this.roc.update(interval); // update ROC
     }
 
+    /**
+     * Determines whether the logic can be paused entirely while the game window is idle (iconified or out of focus).
+     * When true, the engine will wait for window events instead of polling for them and will not update the logic for
+     * the time spent waiting. Logics are never paused by default. Extending classes should override this to return true
+     * when nothing important is happening, such as when waiting for user input
+     *
+     * @return whether the logic can currently be paused while the game window is idle
+     */
+    public boolean pausesWhenIdle() {
+        return false;
+    }
+
     /**
      * Renders the ROC, and then will render anything else that extending classes wish to render by calling
      * renderOthers()
@@ -155,7 +177,8 @@ public abstract class GameLogic {
      * Outlines necessary data to perform a logic change in the engine. By setting GameLogic.logicChange to an
      * instance of this, the engine will change its logic. LogicChanges can be given a transition time before the actual
      * change occurs. This allows for animations/fades. Transfer data can also be given in the form of a Node which will
-     * be given to the new logic
+     * be given to the new logic. During the transition, the new logic is prepared on a separate thread (see
+     * GameLogic.prepare()) so that only its GL work remains to be done once the transition is over
      */
     public static class LogicChange {
 
@@ -164,6 +187,7 @@ public abstract class GameLogic {
          */
         private GameLogic newLogic; // the new logic to switch to
         private Node transferData;  // data to give to the new logic
+        private Thread preparer;    // the thread preparing the new logic, or null if preparation has not begun
         private float transition;   // the amount of time to take before the transition between logics occurs
 
         /**
@@ -185,6 +209,38 @@ public abstract class GameLogic {
             this.transferData = data; // save as member
         }
 
+        /**
+         * Gives the new logic the transfer data and begins preparing it on a separate thread. This is called by the
+         * engine once the logic change is noticed, so any transfer data must be given before the next update. Calls
+         * after the first are ignored
+         */
+        public void beginPreparation() {
+            if (this.preparer != null) return; // if preparation has already begun, return
+            this.newLogic.giveTransferData(this.transferData); // give the new logic the transfer data
+            this.preparer = new Thread(() -> { // create the preparation thread
+                try {
+                    this.newLogic.prepare(); // prepare the new logic
+                } catch (Exception e) { // if an exception occurs
+                    Utils.handleException(e, this.getClass(), "beginPreparation", true); // crash
+                }
+            }, "LogicPreparation");
+            this.preparer.setDaemon(true); // do not keep the program alive just to finish preparing
+            this.preparer.start(); // start preparing
+        }
+
+        /**
+         * Waits for the new logic to finish preparing, beginning preparation first if it has not begun yet (as is the
+         * case with logic changes that have no transition time)
+         */
+        public void finishPreparation() {
+            this.beginPreparation(); // make sure preparation has begun
+            try {
+                this.preparer.join(); // wait for preparation to finish
+            } catch (InterruptedException e) { // if interrupted while waiting
+                Utils.handleException(e, this.getClass(), "finishPreparation", true); // crash
+            }
+        }
+
         /**
          * @return the new logic of the logic change
          */
@@ -32,12 +32,12 @@ import static utils.Settings.SCROLL;
  * 2 - Enable ROC, add title and move title to proper position -> 3
  * 3 - Wait for title to be moved into proper position -> 4
  * 4 - Create menu area backdrop, create and add main menu UI, fade in ROC -> 5
- * 6 - Wait for user input:
+ * 5 - Wait for user input:
  * - "New Game" pressed -> 20
  * - "Load Game" pressed -> TODO
  * - "Settings" pressed -> TODO
  * - "Exit" pressed -> Close Program
- * 18 - Resurface original main menu UI -> 6
+ * 18 - Resurface original main menu UI -> 5
  * 19 - Wait for new game UI to hide and title to move back up -> 18
  * For any of the below phases, a return button is present that, when pressed, hides all new game UI and switches to
  * phase 19
@@ -76,6 +76,13 @@ public class MenuLogic extends GameLogic {
     private static final float TRANS_SPEED = 0.5f;  // the speed of transition throughout the menus
     private static final float MM_TITLE_POS = 0.7f; // y position of the title in the main menu
 
+    /**
+     * Input Phases (phases that wait for user input. UI moved by the phase before may still be animating into view)
+     */
+    private static final int PHASE_MAIN_MENU = 5;     // waiting for user input at the main menu
+    private static final int PHASE_CHOOSE_STORY = 23; // waiting for the user to choose a story
+    private static final int PHASE_CHOOSE_NAME = 26;  // waiting for a valid name to be entered
+
     /**
      * Members
      */
@@ -134,17 +141,18 @@ public class MenuLogic extends GameLogic {
      * the title
      */
     private void initSP() {
-        // create the shader program using the HUD shaders
-        sp = new ShaderProgram(new Utils.Path("/shaders/hud_vertex.glsl", true),
+        // get the shared shader program using the HUD shaders
+        sp = ShaderCache.get(new Utils.Path("/shaders/hud_vertex.glsl", true),
                 new Utils.Path("/shaders/hud_fragment.glsl", true));
-        sp.registerUniform("ar"); // register aspect ratio uniform
-        sp.registerUniform("arAction"); // register aspect ratio action uniform
         sp.registerUniform("x"); // register object x uniform
         sp.registerUniform("y"); // register object y uniform
-        sp.registerUniform("isTextured"); // register texture flag uniform
+        sp.registerUniform(Model.TRANSFORM_UNIFORM_NAME); // register model transform uniform
+        sp.registerDefine("TEXTURED"); // register texture flag define
         sp.registerUniform("color"); // register color uniform
-        sp.registerUniform("blend"); // register blend uniform
+        sp.registerDefine("BLEND"); // register blend define
         sp.registerUniform("texSampler"); // register texture sampler uniform
+        sp.registerUniform("ar"); // register aspect ratio uniform
+        sp.registerUniform("arAction"); // register aspect ratio action uniform
     }
 
     /*
@@ -366,6 +374,20 @@ public class MenuLogic extends GameLogic {
         this.hide(TAG_NAME); // hide the name input
     }
 
+    /**
+     * The menu logic can be paused while the game window is idle whenever it is in one of the input phases and none of
+     * the ROC's fade, a static object's positional animation, or a logic change is underway. See
+     * GameLogic.pausesWhenIdle()
+     *
+     * @return whether the menu logic can currently be paused while the game window is idle
+     */
+    @Override
+    public boolean pausesWhenIdle() {
+        boolean waiting = this.phase == PHASE_MAIN_MENU || this.phase == PHASE_CHOOSE_STORY ||
+                this.phase == PHASE_CHOOSE_NAME; // whether the menu is waiting for user input
+        return waiting && !this.roc.fading() && !this.roc.animating() && GameLogic.logicChange == null;
+    }
+
     /**
      * Handles keyboard input by forwarding it to the name input text input object if it is instantiated
      *
@@ -479,15 +501,15 @@ public class MenuLogic extends GameLogic {
                 this.renderROC = true; // enable roc usage
                 Global.resetAccumulator = true; // reset the loop accumulator
                 this.roc.fadeIn(new float[]{0f, 0f, 0f, 1f}, TRANS_SPEED * 5); // fade in the ROC (menu area)
-                phase = 5; // advance to phase 5s
+                phase = PHASE_MAIN_MENU; // advance to phase 5
                 break;
 
-            case 5:
+            case PHASE_MAIN_MENU:
                 break; // PHASE 5: wait for user input at the main menu
 
             case 18: // PHASE 18: wait for main menu UI elements to move back into view
                 this.ensureMainMenuButtonPositions(); // make sure all buttons move
-                if (!newGame.posAnimating()) this.phase = 5; // if done moving, advance to phase 5
+                if (!newGame.posAnimating()) this.phase = PHASE_MAIN_MENU; // if done moving, advance to phase 5
                 break;
 
             case 19: // PHASE 19: return to main menu
@@ -519,10 +541,10 @@ public class MenuLogic extends GameLogic {
                         0.05f), TRANS_SPEED); // move the prompt into view
                 this.roc.moveStaticObject(TAG_RETURN, new ROC.PositionSettings(0f, -1f, true,
                         0.02f), TRANS_SPEED); // move the return button into view
-                this.phase = 23; // advance to phase 23
+                this.phase = PHASE_CHOOSE_STORY; // advance to phase 23
                 break;
 
-            case 23:
+            case PHASE_CHOOSE_STORY:
                 break; // PHASE 23: wait for user to select a storys
 
             case 24: // PHASE 24: wait for story selection UI to hide
@@ -541,10 +563,10 @@ public class MenuLogic extends GameLogic {
                 // move finish bbutton into view, above return button
                 this.roc.moveStaticObject(TAG_FINISH, new ROC.PositionSettings(null,
                         this.roc.getStaticGameObject(TAG_RETURN), 0f, 1f, 0.05f), TRANS_SPEED);
-                this.phase = 26; // advance to phase 26
+                this.phase = PHASE_CHOOSE_NAME; // advance to phase 26
                 break;
 
-            case 26:
+            case PHASE_CHOOSE_NAME:
                 break; // PHASES 26: wait for a valid name to be entered
 
             case 27: // PHASE 27: wait for UI elements to move before world logic transition
@@ -589,9 +611,9 @@ public class MenuLogic extends GameLogic {
         // if ROC fading (except for when transition to world logic) or the physics simulation is occurring
         if (phase < 3 || (this.roc.fading() && this.phase != 29)) {
             this.sp.bind(); // bind shader program
-            this.sp.setUniform("texSampler", 0); // set texture sampler uniform to use texture unit 0
-            this.sp.setUniform("ar", Global.ar); // set aspect ratio uniform
-            this.sp.setUniform("arAction", Global.arAction ? 1 : 0); // set aspect ratio action uniform
+            this.sp.uniform(ShaderProgram.Common.TEX_SAMPLER).set(0); // set texture sampler uniform to texture unit 0
+            this.sp.uniform(ShaderProgram.Common.AR).set(Global.ar); // set aspect ratio uniform
+            this.sp.uniform(ShaderProgram.Common.AR_ACTION).set(Global.arAction ? 1 : 0); // set aspect ratio action
             this.title.render(this.sp); // render the title
             this.sp.unbind(); // unbind the shader program
         }
@@ -39,8 +39,20 @@ public class WorldLogic extends GameLogic {
     /**
      * Members
      */
-    Entity player; // reference to player
-    Story story;   // the current story in use
+    Entity player;     // reference to player
+    Story story;       // the current story in use
+    Node startingArea; // the starting area's node, parsed while preparing
+
+    /**
+     * Prepares the world logic by creating the story from the transfer data and parsing the starting area's node-file.
+     * This is done off of the main thread during the logic change's transition. See GameLogic.prepare()
+     */
+    @Override
+    protected void prepare() {
+        if (this.transferData == null) return; // if no transfer data was given, initOthers() will crash appropriately
+        this.story = new Story(transferData.getChild("story")); // create story from transfer data node
+        this.startingArea = Node.pathContentsToNode(this.story.getStartingAreaPath()); // get starting area node
+    }
 
     /**
      * Initializes the world logic by loading the area given by the transfer data
@@ -61,12 +73,13 @@ public class WorldLogic extends GameLogic {
     }
 
     /**
-     * Initializes the current story and starting area
+     * Initializes the current story and starting area. If the logic was not prepared beforehand, the story and the
+     * starting area node will be loaded here instead
      */
     private void initStoryAndArea() {
-        this.story = new Story(transferData.getChild("story")); // create story from transfer data node
-        Node startingArea = Node.pathContentsToNode(this.story.getStartingAreaPath()); // get starting area node
-        this.roc.useGameWorld(new Area(startingArea), this.player); // create game world with area
+        if (this.story == null) this.prepare(); // if the logic was not prepared, load the story and area node now
+        this.roc.useGameWorld(new Area(this.startingArea), this.player); // create game world with area
+        this.startingArea = null; // the starting area node is no longer needed
         this.roc.getGameWorld().useStory(this.story); // give the story to the game world
         this.roc.getGameWorld().useAreaChangeCallback(() -> { // when the area changes, update the area name text
             ((TextObject)this.roc.getStaticGameObject(TAG_AREA)).setText(this.roc.getGameWorld().getArea().getName());
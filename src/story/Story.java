@@ -246,6 +246,7 @@ public class Story {
          */
         @Override
         protected void onMove() {
+            super.onMove(); // call super's onMove
             this.position(); // reposition the text objects
         }
 
@@ -283,6 +284,14 @@ public class Story {
             }
         }
 
+        /**
+         * @return false, since story list items render their text objects instead of their own model
+         */
+        @Override
+        public boolean batchable() {
+            return false;
+        }
+
         /**
          * Saves the given mouse input callback to be called when the given mouse input occurs
          *
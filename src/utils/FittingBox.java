@@ -42,6 +42,48 @@ public class FittingBox {
         this.cy = cy;
     }
 
+    /**
+     * Constructs an empty fitting box to be set later using set(). This is used by the frame arena (see FrameArena)
+     */
+    public FittingBox() {
+        this.corners = new float[8]; // create corners array to copy into when set
+    }
+
+    /**
+     * Sets the fitting box's corners, rotation, and center point. The corners are copied so the given array may be
+     * re-used afterwards
+     *
+     * @param corners the four corners of the fitting box in the same format as in the constructor
+     * @param r       how rotated the fitting box is
+     * @param cx      the center point x
+     * @param cy      the center point y
+     * @return the fitting box after being set
+     */
+    public FittingBox set(float[] corners, float r, float cx, float cy) {
+        System.arraycopy(corners, 0, this.corners, 0, 8); // copy corners
+        this.r = r;
+        this.cx = cx;
+        this.cy = cy;
+        return this;
+    }
+
+    /**
+     * Sets the fitting box to an un-rotated rectangle with the given width and height centered at the origin
+     *
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     * @return the fitting box after being set
+     */
+    public FittingBox setRect(float w, float h) {
+        float w2 = w / 2, h2 = h / 2; // calculate half of width and height
+        this.corners[0] = this.corners[2] = -w2; // left corners
+        this.corners[4] = this.corners[6] = w2; // right corners
+        this.corners[1] = this.corners[7] = h2; // top corners
+        this.corners[3] = this.corners[5] = -h2; // bottom corners
+        this.r = this.cx = this.cy = 0f; // no rotation and centered at origin
+        return this;
+    }
+
     /**
      * Checks if the fitting box contains the given point
      *
@@ -50,18 +92,46 @@ public class FittingBox {
      * @return whether the fitting box contains the given point
      */
     public boolean contains(float x, float y) {
-        // create pair array
-        Pair<Float>[] rps = new Pair[4];
+        // un-rotating is done with primitives instead of Utils.rotatePoint() to avoid creating any pairs
+        float cos = (float) Math.cos(-this.r), sin = (float) Math.sin(-this.r); // calculate rotation factors
+        float rx = this.unrotateX(x, y, cos, sin), ry = this.unrotateY(x, y, cos, sin); // un-rotate the point
         for (int i = 0; i < 4; i++) { // for each corner
-            if (this.r != 0) rps[i] = Utils.rotatePoint(this.cx, this.cy, this.corners[i * 2], this.corners[i * 2 + 1],
-                    -this.r); // un-rotate the corners
-            else rps[i] = new Pair(this.corners[i * 2], this.corners[i * 2 + 1]); // don't do rot calc if not rotated
+            float cx = this.corners[i * 2], cy = this.corners[i * 2 + 1]; // get the corner
+            if (this.r != 0) { // un-rotate the corner if rotated
+                float ux = this.unrotateX(cx, cy, cos, sin);
+                cy = this.unrotateY(cx, cy, cos, sin);
+                cx = ux;
+            }
+            // the first two corners are on the left and the first and last corners are on the top
+            if ((i < 2 ? cx >= rx : cx <= rx) || (i == 0 || i == 3 ? cy <= ry : cy >= ry)) return false;
         }
-        Pair<Float> rp = Utils.rotatePoint(this.cx, this.cy, x, y, -this.r); // and then rotate the point
-        return (rps[0].x < rp.x && rps[0].y > rp.y && // check top left
-                rps[1].x < rp.x && rps[1].y < rp.y && // check bottom left
-                rps[2].x > rp.x && rps[2].y < rp.y && // check bottom right
-                rps[3].x > rp.x && rps[3].y > rp.y);  // check top right
+        return true;
+    }
+
+    /**
+     * Calculates the x of the given point after rotating it around the fitting box's center point
+     *
+     * @param x   the x of the point
+     * @param y   the y of the point
+     * @param cos the cosine of the amount to rotate
+     * @param sin the sine of the amount to rotate
+     * @return the rotated x
+     */
+    private float unrotateX(float x, float y, float cos, float sin) {
+        return this.cx + ((x - this.cx) * cos - (y - this.cy) * sin);
+    }
+
+    /**
+     * Calculates the y of the given point after rotating it around the fitting box's center point
+     *
+     * @param x   the x of the point
+     * @param y   the y of the point
+     * @param cos the cosine of the amount to rotate
+     * @param sin the sine of the amount to rotate
+     * @return the rotated y
+     */
+    private float unrotateY(float x, float y, float cos, float sin) {
+        return this.cy + ((y - this.cy) * cos + (x - this.cx) * sin);
     }
 
     /**
@@ -0,0 +1,121 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+ * FrameArena.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Hands out temporary objects that only need to live for the current frame, such as the axis-aligned bounding boxes
+ * and fitting boxes calculated while updating, rendering, and processing mouse input. Instead of creating a new object
+ * each time, objects are taken from pools that are all returned at once when reset() is called at the start of each
+ * frame. After a few frames, the pools have grown to fit the most a frame needs and no more objects are created,
+ * so these temporaries no longer create garbage for the garbage collector to clean up.
+ * <p>
+ * Because every object is re-used once the frame is over, an object obtained from the frame arena must never be kept
+ * past the end of the frame it was obtained in (for example, by saving it as a member). Objects that need to be kept
+ * should be copied. The frame arena is not thread-safe and should only be used from the main thread
+ */
+public abstract class FrameArena {
+
+    /**
+     * Static Data
+     */
+    private static final Pool<PhysicsEngine.AABB> AABBS = new Pool<>(PhysicsEngine.AABB::new); // pool of AABBs
+    private static final Pool<FittingBox> FITTING_BOXES = new Pool<>(FittingBox::new);         // pool of fitting boxes
+
+    /**
+     * Obtains an axis-aligned bounding box for the current frame
+     *
+     * @param cx the center-point x
+     * @param cy the center-point y
+     * @param w  the full width
+     * @param h  the full height
+     * @return the axis-aligned bounding box
+     */
+    public static PhysicsEngine.AABB aabb(float cx, float cy, float w, float h) {
+        return AABBS.obtain().set(cx, cy, w, h); // obtain and set
+    }
+
+    /**
+     * Obtains a copy of the given axis-aligned bounding box for the current frame
+     *
+     * @param other the axis-aligned bounding box to copy
+     * @return the copy
+     */
+    public static PhysicsEngine.AABB aabb(PhysicsEngine.AABB other) {
+        return AABBS.obtain().set(other); // obtain and copy
+    }
+
+    /**
+     * Obtains a fitting box for the current frame. Its corners, rotation, and center should be set using
+     * FittingBox.set() before it is used
+     *
+     * @return the fitting box
+     */
+    public static FittingBox fittingBox() {
+        return FITTING_BOXES.obtain();
+    }
+
+    /**
+     * Returns every object handed out so that they can be re-used. This should be called at the start of each frame
+     */
+    public static void reset() {
+        AABBS.reset();
+        FITTING_BOXES.reset();
+    }
+
+    /**
+     * @return the amount of objects that have been handed out since the last reset
+     */
+    public static int getObtained() {
+        return AABBS.next + FITTING_BOXES.next;
+    }
+
+    /**
+     * A pool of re-usable objects of a single type which grows whenever more objects are needed than it has
+     *
+     * @param <T> the type of object pooled
+     */
+    private static class Pool<T> {
+
+        /**
+         * Members
+         */
+        private final List<T> objects = new ArrayList<>(); // every object the pool has created
+        private final Supplier<T> creator;                  // creates new objects when the pool runs out
+        private int next;                                   // the index of the next object to hand out
+
+        /**
+         * Constructor
+         *
+         * @param creator creates new objects when the pool runs out
+         */
+        private Pool(Supplier<T> creator) {
+            this.creator = creator; // save creator as member
+        }
+
+        /**
+         * Obtains the next unused object, creating one if every object is in use
+         *
+         * @return the object
+         */
+        private T obtain() {
+            if (this.next == this.objects.size()) this.objects.add(this.creator.get()); // grow if out of objects
+            return this.objects.get(this.next++); // hand out next object
+        }
+
+        /**
+         * Makes every object available again
+         */
+        private void reset() {
+            this.next = 0;
+        }
+    }
+}
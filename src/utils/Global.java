@@ -2,6 +2,7 @@ package utils;
 
 import gameobject.ui.EnhancedTextObject;
 import graphics.Font;
+import graphics.GPUResources;
 import graphics.Material;
 import graphics.ShaderProgram;
 import graphics.Window;
@@ -14,6 +15,7 @@ import java.util.Map;
 
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_1;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_2;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_F3;
 import static org.lwjgl.opengl.GL11.*;
 
 /*
@@ -35,8 +37,13 @@ public abstract class Global {
     public static final String WINDOW_TITLE = "Ambulare " + VERSION; // the window title
     public static final int POLYGON_MODE_TOGGLE_KEY = GLFW_KEY_2; // the key to toggle between fill/line polygon modes
     public static final int DEBUG_TOGGLE_KEY = GLFW_KEY_1;  // key to toggle debug reporting
+    public static final int RENDER_STATS_EXPORT_KEY = GLFW_KEY_F3; /* key to export render stats while debugging. This
+        is a function key so that it never collides with a key that some logic uses (such as 3 in the main menu) */
     public static final int TARGET_FPS = 60; // the target frames per second when vertical sync is off
     public static final int TARGET_UPS = 60; // the target updates per second regardless of vertical sync
+    public static final int IDLE_FPS = 10; // the target frames per second when the game window is idle
+    public static final float IDLE_WAIT = 0.5f; /* the longest time (in seconds) to wait for events when the game window
+        is idle and the current logic allows pausing. See GameLogic.pausesWhenIdle() */
     public static DebugInfo debugInfo; // an extended enhanced text object to display debug info
     public static Window gameWindow; // GLFW window hosting the game
     public static Font font; // font used everywhere throughout the program
@@ -167,10 +174,13 @@ public abstract class Global {
             float w = this.getWidth();
             float h = this.getHeight();
             if (this.visible) { // only update if visible
+                // the debug info outlives any logic, so its GL objects are global no matter who sets the field
+                GPUResources.beginOwner(GPUResources.GLOBAL);
                 Integer index = this.fields.get(field); // get the line index of the field
                 // if new field, add and save index to map
                 if (index == null) this.fields.put(field, this.addLine(Global.font, field + ": " + value));
                 else this.setLineText(index, field + ": " + value); // otherwise, update text at line
+                GPUResources.endOwner();
             }
             // if the size has changed and there is a size change callback
             if (this.sizeChangeCallback != null && (this.getWidth() != w || this.getHeight() != h))
@@ -188,7 +198,9 @@ public abstract class Global {
                 Utils.log("Field '" + field + "' cannot be removed as it does not exist", this.getClass(),
                         "removeField", false); // log and ignore
             else { // otherwise
+                GPUResources.beginOwner(GPUResources.GLOBAL); // the debug info's GL objects are global
                 this.removeLine(index); // remove the corresponding line
+                GPUResources.endOwner();
                 for (String s : this.fields.keySet()) // and for all fields, if their index was greater than given one
                     if (this.fields.get(s) > index) this.fields.put(s, this.fields.get(s) - 1); // lower its index
             }
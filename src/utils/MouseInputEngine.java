@@ -41,8 +41,8 @@ public class MouseInputEngine {
     private Camera cam;                       /* the camera to use for transforming mouse input coordinates into
                                                  camera-view coordinates for objects that use a camera */
     private boolean pressed;                  // whether the mouse is currently pressed down
-    private Pair<Float> mousePos;             // the current position of the mouse
-    private Pair<Float> camMousePos;          // the current position of the mouse in camera-view coordinates
+    private float mouseX, mouseY;             // the current position of the mouse
+    private float camMouseX, camMouseY;       // the current position of the mouse in camera-view coordinates
 
     /**
      * Constructs the mouse input engine
@@ -65,25 +65,30 @@ public class MouseInputEngine {
      */
     public void mouseInput(float x, float y, int action) {
         if (action == GLFW_HOVERED) { // if hovers
-            this.mousePos = new Pair<>(x, y); // update mouse position
-            Global.debugInfo.setField("mouse pos", mousePos.toString(2)); // update mouse pos in debug info
-            this.camMousePos = new Pair<>(x, y); // save a separate pair for camera-view coordinates
-            if (cam != null) { // if there is a camera
-                Transformation.useCam(this.camMousePos, cam); // transform camera-view position using it
-                Global.debugInfo.setField("cam mouse pos", camMousePos.toString(2)); // update in debug info
+            this.mouseX = this.camMouseX = x; // update mouse position
+            this.mouseY = this.camMouseY = y;
+            if (Global.debugInfo.visible()) // update mouse pos in debug info if it is shown
+                Global.debugInfo.setField("mouse pos", String.format("(%.2f, %.2f)", x, y));
+            if (cam != null) { // if there is a camera, transform camera-view position (see Transformation.useCam())
+                this.camMouseX = (x / cam.getZoom()) + cam.getX(); // account for zoom and camera x
+                this.camMouseY = (y / cam.getZoom()) + cam.getY(); // account for zoom and camera y
+                if (Global.debugInfo.visible()) // update in debug info if it is shown
+                    Global.debugInfo.setField("cam mouse pos", String.format("(%.2f, %.2f)", this.camMouseX,
+                            this.camMouseY));
             }
             for (int i = 0; i < this.mis.size(); i++) { // for each that can be interacted with by a mouse
                 // if it uses a camera, use the mouse position in camera-view coordinates. Otherwise, use norm pos
-                Pair<Float> pos = this.useCam.get(i) ? this.camMousePos : this.mousePos;
-                if (mis.get(i).getFittingBox().contains(pos)) { // if the fitting box contains the mouse
+                boolean useCam = this.useCam.get(i);
+                float px = useCam ? this.camMouseX : this.mouseX, py = useCam ? this.camMouseY : this.mouseY;
+                if (mis.get(i).getFittingBox().contains(px, py)) { // if the fitting box contains the mouse
                     // if the mouse wandered in while pressed, notify the object
-                    if (this.pressed) mis.get(i).mouseInteraction(MouseInputType.PRESS, pos.x, pos.y);
+                    if (this.pressed) mis.get(i).mouseInteraction(MouseInputType.PRESS, px, py);
                         // otherwise, notify the object of the hover
-                    else mis.get(i).mouseInteraction(MouseInputType.HOVER, pos.x, pos.y);
+                    else mis.get(i).mouseInteraction(MouseInputType.HOVER, px, py);
                     this.hoverStates.set(i, true); // save new hover state as true
                 } else { // otherwise
                     if (hoverStates.get(i)) { // if previously being hovered
-                        mis.get(i).mouseInteraction(MouseInputType.DONE_HOVERING, pos.x, pos.y); // notify hovering done
+                        mis.get(i).mouseInteraction(MouseInputType.DONE_HOVERING, px, py); // notify hovering done
                         hoverStates.set(i, false); // save new hover state as false
                     }
                 }
@@ -92,11 +97,12 @@ public class MouseInputEngine {
             this.pressed = (action == GLFW_PRESS); // keep track of if mouse is pressed or not
             for (int i = 0; i < this.mis.size(); i++) { // go through each object able to be interacted with
                 if (this.hoverStates.get(i)) { // if the object is being hovered
-                    Pair<Float> pos = this.useCam.get(i) ? this.camMousePos : this.mousePos;
+                    boolean useCam = this.useCam.get(i);
+                    float px = useCam ? this.camMouseX : this.mouseX, py = useCam ? this.camMouseY : this.mouseY;
                     // tell object it was clicked upon if the event was a click eve t
-                    if (action == GLFW_PRESS) this.mis.get(i).mouseInteraction(MouseInputType.PRESS, pos.x, pos.y);
+                    if (action == GLFW_PRESS) this.mis.get(i).mouseInteraction(MouseInputType.PRESS, px, py);
                     // tell object it was released upon if the event was a release event
-                    else this.mis.get(i).mouseInteraction(MouseInputType.RELEASE, pos.x, pos.y);
+                    else this.mis.get(i).mouseInteraction(MouseInputType.RELEASE, px, py);
                 }
             }
         }
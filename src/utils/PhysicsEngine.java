@@ -747,10 +747,44 @@ public class PhysicsEngine {
          * @param other the other AABB whose properties to copy
          */
         public AABB(AABB other) {
+            this.set(other);
+        }
+
+        /**
+         * Constructs an empty axis-aligned bounding box at the origin
+         */
+        public AABB() {
+        }
+
+        /**
+         * Sets the axis-aligned bounding box's center point and width/height
+         *
+         * @param cx the center-point x
+         * @param cy the center-point y
+         * @param w  the full width of the object
+         * @param h  the full height of the object
+         * @return the axis-aligned bounding box after being set
+         */
+        public AABB set(float cx, float cy, float w, float h) {
+            this.cx = PhysicsEngine.round(cx);
+            this.cy = PhysicsEngine.round(cy);
+            this.w2 = PhysicsEngine.round(w / 2);
+            this.h2 = PhysicsEngine.round(h / 2);
+            return this;
+        }
+
+        /**
+         * Sets the axis-aligned bounding box to a copy of the given other axis-aligned bounding box
+         *
+         * @param other the other AABB whose properties to copy
+         * @return the axis-aligned bounding box after being set
+         */
+        public AABB set(AABB other) {
             this.cx = other.cx;
             this.cy = other.cy;
             this.w2 = other.w2;
             this.h2 = other.h2;
+            return this;
         }
 
         /**
@@ -765,6 +799,19 @@ public class PhysicsEngine {
                     (y >= this.cy - this.h2 && y <= this.cy + this.h2);
         }
 
+        /**
+         * Calculates if the given point is within the given margin of the axis-aligned bounding box
+         *
+         * @param x      the x of the point to check
+         * @param y      the y of the point to check
+         * @param margin how far outside of the axis-aligned bounding box the point can be
+         * @return whether the given point is within the given margin of the axis-aligned bounding box
+         */
+        public boolean contains(float x, float y, float margin) {
+            return (x >= this.cx - this.w2 - margin && x <= this.cx + this.w2 + margin) &&
+                    (y >= this.cy - this.h2 - margin && y <= this.cy + this.h2 + margin);
+        }
+
         /**
          * Multiplies the width and height of the axis-aligned bounding box by the given factor
          *
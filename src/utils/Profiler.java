@@ -0,0 +1,94 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Profiler.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Accumulates the time spent in named sections of code so that the cost of different parts of rendering can be
+ * measured (see Benchmark). Profiling is disabled by default, in which case every method returns immediately, so
+ * sections can be left in place without affecting normal play. Counts of GL work are recorded separately (see
+ * graphics.RenderStats). A section is timed by calling begin() and end() with its name around it. Sections with
+ * different names may be nested, but a section may not be nested within itself
+ */
+public abstract class Profiler {
+
+    /**
+     * Static Data
+     */
+    private static final Map<String, long[]> SECTIONS = new LinkedHashMap<>(); /* each section's data where index 0 is
+                                                                                   the start of the current timing, 1
+                                                                                   is the total nanoseconds, and 2 is
+                                                                                   the amount of timings */
+    private static boolean enabled;                                             // whether profiling is enabled
+
+    /**
+     * Enables or disables profiling
+     *
+     * @param enabled whether profiling should be enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        Profiler.enabled = enabled;
+    }
+
+    /**
+     * @return whether profiling is enabled
+     */
+    public static boolean isEnabled() {
+        return Profiler.enabled;
+    }
+
+    /**
+     * Begins timing the section with the given name
+     *
+     * @param section the name of the section
+     */
+    public static void begin(String section) {
+        if (!enabled) return; // do nothing if disabled
+        SECTIONS.computeIfAbsent(section, k -> new long[3])[0] = System.nanoTime(); // record start time
+    }
+
+    /**
+     * Finishes timing the section with the given name, adding the time since begin() was called to its total
+     *
+     * @param section the name of the section
+     */
+    public static void end(String section) {
+        if (!enabled) return; // do nothing if disabled
+        long[] data = SECTIONS.get(section); // get the section's data
+        if (data == null) return; // if the section was never begun, there is nothing to end
+        data[1] += System.nanoTime() - data[0]; // add elapsed time to total
+        data[2]++; // keep track of the amount of timings
+    }
+
+    /**
+     * Calculates the total time spent in the section with the given name since the last reset
+     *
+     * @param section the name of the section
+     * @return the total time in milliseconds, or zero if the section has not been timed
+     */
+    public static double getTotalMilliseconds(String section) {
+        long[] data = SECTIONS.get(section); // get the section's data
+        return data == null ? 0 : data[1] / 1_000_000.0; // convert ns to ms
+    }
+
+    /**
+     * @return the names of every section that has been timed, in the order they were first timed
+     */
+    public static Iterable<String> getSections() {
+        return SECTIONS.keySet();
+    }
+
+    /**
+     * Forgets every section
+     */
+    public static void reset() {
+        SECTIONS.clear();
+    }
+}
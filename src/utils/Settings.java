@@ -13,7 +13,7 @@ public abstract class Settings {
      * Enum class listing out all of the settings
      */
     public enum Setting {
-        STARTING_WINDOW_WIDTH, STARTING_WINDOW_HEIGHT, V_SYNC
+        STARTING_WINDOW_WIDTH, STARTING_WINDOW_HEIGHT, V_SYNC, RENDER_SCALE, DECOR_LOD_PIXELS
     }
 
     /**
@@ -38,7 +38,11 @@ public abstract class Settings {
                     .setLowerBound(600),
                 new NodeLoader.LoadItem<>("starting_window_height", -1, Integer.class)
                     .setLowerBound(400),
-                new NodeLoader.LoadItem<>("v_sync", true, Boolean.class)
+                new NodeLoader.LoadItem<>("v_sync", true, Boolean.class),
+                new NodeLoader.LoadItem<>("render_scale", 0f, Float.class) // 0 lets graphics.RenderScale decide
+                    .setLowerBound(0f).setUpperBound(1f),
+                new NodeLoader.LoadItem<>("decor_lod_pixels", 96f, Float.class) // 0 disables decor level of detail
+                    .setLowerBound(0f).setUpperBound(256f)
         });
 
         /*
@@ -0,0 +1,219 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * TaskScheduler.java
+ * Ambulare
+ * Jacob Oaks
+ * 10/18/26
+ */
+
+/**
+ * Schedules work that does not need to be finished within a single frame. Tasks are posted with an owner, a priority,
+ * and an optional deadline, and the engine drains them using whatever time is left in each frame after updating and
+ * rendering (see run()). Tasks are performed in order of priority, then deadline, then the order they were posted in.
+ * A task may also be incremental by returning false from perform(), in which case it will be performed again until it
+ * returns true. This allows long jobs to be spread across several frames instead of causing one long frame. Because
+ * tasks are performed on the main thread, they are free to make GL calls. Incremental tasks must finish within
+ * MAX_FLUSH_PERFORMS performs once flushed (see flush()), or they are dropped so that flushing cannot hang
+ */
+public abstract class TaskScheduler {
+
+    /**
+     * Static Data
+     */
+    public static final int PRIORITY_HIGH = 0;        // priority for tasks that should be performed as soon as possible
+    public static final int PRIORITY_NORMAL = 1;      // priority for most tasks
+    public static final int PRIORITY_LOW = 2;         // priority for tasks that can wait until there is nothing else
+    public static final float NO_DEADLINE = -1f;      // used to denote that a task has no deadline
+    public static final float MIN_BUDGET = 1f;        /* the minimum amount of time (in milliseconds) to spend on tasks
+                                                         per frame, even if the frame has no time left */
+    public static final int MAX_FLUSH_PERFORMS = 10000; // the most times a task is performed when flushed
+    private static final PriorityQueue<ScheduledTask> TASKS = new PriorityQueue<>(); // the tasks waiting to be performed
+    private static long posted;                       // how many tasks have been posted. Used to order equal tasks
+
+    /**
+     * Posts a task to be performed when there is time
+     *
+     * @param owner    the object that the task belongs to. This can be used to cancel the task (see cancel())
+     * @param task     the task to perform
+     * @param priority the priority of the task. See the priority constants in static data
+     * @param deadline the amount of time (in seconds) from now by which the task should be performed, or NO_DEADLINE.
+     *                 Once a task's deadline has passed, it will be performed regardless of how much time is left in
+     *                 the frame
+     */
+    public static void post(Object owner, Task task, int priority, float deadline) {
+        TASKS.add(new ScheduledTask(owner, task, priority, deadline < 0f ? Double.POSITIVE_INFINITY :
+                Timer.getTimeMilliseconds() + deadline * 1000f, posted++)); // wrap and add the task to the queue
+    }
+
+    /**
+     * Posts a task of normal priority and no deadline to be performed when there is time
+     *
+     * @param owner the object that the task belongs to. This can be used to cancel the task (see cancel())
+     * @param task  the task to perform
+     */
+    public static void post(Object owner, Task task) {
+        post(owner, task, PRIORITY_NORMAL, NO_DEADLINE); // post with normal priority and no deadline
+    }
+
+    /**
+     * Performs tasks until the given budget is used up or there are no more tasks left. After the budget is used up,
+     * any tasks whose deadlines have passed will still be performed
+     *
+     * @param budget the amount of time (in milliseconds) that can be spent performing tasks
+     */
+    public static void run(float budget) {
+        double start = Timer.getTimeMilliseconds(); // record starting time
+        while (!TASKS.isEmpty() && Timer.getTimeMilliseconds() - start < budget) // while there is time and tasks left
+            perform(TASKS.poll()); // perform the next task
+        if (!TASKS.isEmpty()) { // if there are tasks left over once the budget is used up
+            double now = Timer.getTimeMilliseconds(); // get the current time
+            List<ScheduledTask> overdue = new ArrayList<>(); // compile a list of overdue tasks
+            for (ScheduledTask st : TASKS) if (st.deadline <= now) overdue.add(st);
+            for (ScheduledTask st : overdue) { // for each overdue task
+                TASKS.remove(st); // remove it from the queue
+                perform(st); // and perform it
+            }
+        }
+        if (Global.debugInfo != null) Global.debugInfo.setField("tasks", Integer.toString(TASKS.size()));
+    }
+
+    /**
+     * Performs a scheduled task once, putting it back in the queue if it is not finished
+     *
+     * @param st the scheduled task to perform
+     */
+    private static void perform(ScheduledTask st) {
+        if (!st.task.perform()) { // perform the task and if it is not finished
+            st.order = posted++; // move it behind any other tasks of the same priority and deadline
+            TASKS.add(st); // and put it back in the queue
+        }
+    }
+
+    /**
+     * Performs all tasks until none are left, regardless of time. This should be used when all pending work must be
+     * finished, such as right before the program exits. Tasks posted while flushing are performed as well
+     */
+    public static void flush() {
+        while (!TASKS.isEmpty()) finish(TASKS.poll()); // finish tasks until there are none left
+    }
+
+    /**
+     * Performs all tasks belonging to the given owner until they are finished, regardless of time, leaving every other
+     * owner's tasks in the queue. This should be used when an owner is cleaned up but its pending work must still be
+     * finished
+     *
+     * @param owner the owner whose tasks should be finished
+     */
+    public static void flush(Object owner) {
+        List<ScheduledTask> owned = new ArrayList<>(); // compile a list of the owner's tasks
+        Iterator<ScheduledTask> it = TASKS.iterator();
+        while (it.hasNext()) {
+            ScheduledTask st = it.next();
+            if (st.owner == owner) { // if the task belongs to the owner
+                owned.add(st); // add it to the list
+                it.remove(); // and remove it from the queue
+            }
+        }
+        owned.sort(null); // sort the tasks in the order they would have been performed in
+        for (ScheduledTask st : owned) finish(st); // and finish each one
+    }
+
+    /**
+     * Performs a scheduled task until it is finished or has been performed MAX_FLUSH_PERFORMS times, in which case it
+     * is dropped
+     *
+     * @param st the scheduled task to finish
+     */
+    private static void finish(ScheduledTask st) {
+        for (int i = 1; !st.task.perform(); i++) { // perform the task until it is finished
+            if (i == MAX_FLUSH_PERFORMS) { // if it has not finished after too many performs, drop it
+                Utils.log("Dropped a task that did not finish after " + MAX_FLUSH_PERFORMS + " performs",
+                        TaskScheduler.class, "finish", false); // log and ignore
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cancels all tasks belonging to the given owner. This should be called when the owner is cleaned up so that its
+     * tasks are not performed afterwards
+     *
+     * @param owner the owner whose tasks should be cancelled
+     */
+    public static void cancel(Object owner) {
+        Iterator<ScheduledTask> it = TASKS.iterator(); // get an iterator over the tasks
+        while (it.hasNext()) if (it.next().owner == owner) it.remove(); // remove tasks with the given owner
+    }
+
+    /**
+     * @return the amount of tasks waiting to be performed
+     */
+    public static int pending() {
+        return TASKS.size();
+    }
+
+    /**
+     * Defines a task that can be posted to the task scheduler
+     */
+    @FunctionalInterface
+    public interface Task {
+
+        /**
+         * Performs the task or a portion of it
+         *
+         * @return whether the task is finished. If false, the task will be performed again later
+         */
+        boolean perform();
+    }
+
+    /**
+     * Wraps a task with its scheduling information
+     */
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+
+        /**
+         * Members
+         */
+        private final Object owner;    // the object that the task belongs to
+        private final Task task;       // the task to perform
+        private final double deadline; // the time (in milliseconds) by which the task should be performed
+        private final int priority;    // the priority of the task
+        private long order;            // the order the task was posted in
+
+        /**
+         * Constructor
+         *
+         * @param owner    the object that the task belongs to
+         * @param task     the task to perform
+         * @param priority the priority of the task
+         * @param deadline the time (in milliseconds) by which the task should be performed
+         * @param order    the order the task was posted in
+         */
+        private ScheduledTask(Object owner, Task task, int priority, double deadline, long order) {
+            this.owner = owner;
+            this.task = task;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.order = order;
+        }
+
+        /**
+         * Compares the scheduled task to another by priority, then deadline, then order
+         *
+         * @param o the other scheduled task
+         * @return a negative number if this task should be performed first, or a positive number otherwise
+         */
+        @Override
+        public int compareTo(ScheduledTask o) {
+            if (this.priority != o.priority) return Integer.compare(this.priority, o.priority); // compare priorities
+            if (this.deadline != o.deadline) return Double.compare(this.deadline, o.deadline); // compare deadlines
+            return Long.compare(this.order, o.order); // compare order
+        }
+    }
+}
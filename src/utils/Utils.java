@@ -1,5 +1,7 @@
 package utils;
 
+import graphics.GLState;
+import graphics.GPUResources;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL32;
 
@@ -301,20 +303,21 @@ public class Utils {
     public static int[] createFBOWithTextureAttachment(int w, int h) {
 
         // create frame buffer object to draw textures to
-        int fboID = glGenFramebuffers(); // generate frame buffer object
-        glBindFramebuffer(GL_FRAMEBUFFER, fboID); // bind the frame buffer object
+        int fboID = GLState.genFramebuffer(); // generate frame buffer object
+        GLState.bindFramebuffer(fboID); // bind the frame buffer object
         glDrawBuffer(GL_COLOR_ATTACHMENT0); // enable drawing in color attachment zero
 
         // create texture attachment for the frame buffer object
-        int texID = glGenTextures(); // generate texture
-        glBindTexture(GL_TEXTURE_2D, texID); // bind texture
+        int texID = GLState.genTexture(); // generate texture
+        GLState.bindTexture(0, texID); // bind texture
         // create an empty texture with the given size
         glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, w, h, 0, GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GPUResources.setSize(GPUResources.Kind.TEXTURE, texID, (long) w * h * 4); // record size
         // these parameters make the pixels of the texture crystal clear
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
         GL32.glFramebufferTexture(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, texID, 0); // attach texture to FBO
-        glBindTexture(GL_TEXTURE_2D, 0); // unbind texture
+        GLState.bindTexture(0, 0); // unbind texture
 
         // return the fbo and the texture attachment
         return new int[]{fboID, texID};